@@ -0,0 +1,36 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-thread position in the workload: random source, and counters handing out fresh emails and hours,
+ * so threads never collide on the values they create.
+ */
+@State(Scope.Thread)
+public class Cursor {
+
+    private static final AtomicInteger THREADS = new AtomicInteger();
+
+    SplittableRandom random;
+    int thread;
+    int created;
+    long nextHour;
+
+    @Setup
+    public void setUp() {
+        thread = THREADS.getAndIncrement();
+        random = new SplittableRandom(thread);
+        // Threads book far apart from each other, beyond any pre-booked meeting
+        nextHour = TimeSlots.toEpochHour(LocalDateTime.now()) + Workload.HORIZON_HOURS * (2L + thread);
+    }
+
+    String nextEmail() {
+        return "new" + thread + "-" + created++ + "@bench.com";
+    }
+}
@@ -0,0 +1,40 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.LinkedHashMap;
+
+/**
+ * A concurrent Scheduler populated with 'people' persons, emails "person{i}@bench.com".
+ * Suggestions are searched for every time unless 'suggestionCache' is set, e.g. -p suggestionCache=1024,
+ * to measure repeated suggestions for the same groups answered from the Scheduler's cache.
+ */
+@State(Scope.Benchmark)
+public class Population {
+
+    @Param({"1000", "100000", "1000000"})
+    public int people;
+
+    @Param({"0"})
+    public int suggestionCache;
+
+    Scheduler scheduler;
+
+    @Setup
+    public void setUp() throws Exception {
+        scheduler = new Scheduler(PersonRegistry.KeyMode.EXACT, Scheduler.Mode.CONCURRENT);
+        scheduler.setSuggestionCacheCapacity(suggestionCache);
+        LinkedHashMap<String, String> roster = new LinkedHashMap<>();
+        for (int i = 0; i < people; i++) {
+            roster.put(email(i), "Person" + i);
+        }
+        scheduler.createPeople(roster);
+    }
+
+    static String email(int i) {
+        return "person" + i + "@bench.com";
+    }
+}
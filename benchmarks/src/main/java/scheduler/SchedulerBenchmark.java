@@ -0,0 +1,107 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the Scheduler hot paths, single-threaded and with 4 threads sharing one concurrent Scheduler.
+ * Parameters: Population.people, Workload.meetingsPerPerson and Workload.invitees.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g"})
+public class SchedulerBenchmark {
+
+    // -- createPerson: unique email check and insert, against a registry of 'people' persons
+
+    @Benchmark
+    public String createPerson(Population population, Cursor cursor) throws Exception {
+        String email = cursor.nextEmail();
+        population.scheduler.createPerson("New", email);
+        return email;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String createPerson_4threads(Population population, Cursor cursor) throws Exception {
+        return createPerson(population, cursor);
+    }
+
+    // -- createMeeting: parse, participant lookup, availability check and booking of a free hour.
+    //    The _epochHour variant skips parsing the timeslot String.
+
+    @Benchmark
+    public BookingResult createMeeting(Population population, Workload workload, Cursor cursor) throws Exception {
+        List<String> group = workload.groups.get(cursor.random.nextInt(workload.groups.size()));
+        return population.scheduler.createMeeting(Workload.timeSlot(cursor.nextHour++), group);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public BookingResult createMeeting_4threads(Population population, Workload workload, Cursor cursor)
+            throws Exception {
+        return createMeeting(population, workload, cursor);
+    }
+
+    @Benchmark
+    public BookingResult createMeeting_epochHour(Population population, Workload workload, Cursor cursor)
+            throws Exception {
+        List<String> group = workload.groups.get(cursor.random.nextInt(workload.groups.size()));
+        return population.scheduler.createMeeting(cursor.nextHour++, group);
+    }
+
+    @Benchmark
+    public BookingResult tryCreateMeeting(Population population, Workload workload, Cursor cursor)
+            throws Exception {
+        List<String> group = workload.groups.get(cursor.random.nextInt(workload.groups.size()));
+        return population.scheduler.tryCreateMeeting(Workload.timeSlot(cursor.nextHour++), group);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public BookingResult tryCreateMeeting_4threads(Population population, Workload workload, Cursor cursor)
+            throws Exception {
+        return tryCreateMeeting(population, workload, cursor);
+    }
+
+    // -- suggestTimeslots: next 5 common free slots of a group through its pre-booked meetings
+
+    @Benchmark
+    public List<LocalDateTime> suggestTimeslots(Population population, Workload workload, Cursor cursor) {
+        List<String> group = workload.groups.get(cursor.random.nextInt(workload.groups.size()));
+        return population.scheduler.suggestTimeslots(group, 5);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<LocalDateTime> suggestTimeslots_4threads(Population population, Workload workload, Cursor cursor) {
+        return suggestTimeslots(population, workload, cursor);
+    }
+
+    // -- Person.isAvailableThen: single free/busy check within the pre-booked horizon
+
+    @Benchmark
+    public boolean isAvailableThen(Workload workload, Cursor cursor) {
+        Person person = workload.pool[cursor.random.nextInt(workload.pool.length)];
+        long hour = workload.firstHour + cursor.random.nextInt(Workload.HORIZON_HOURS);
+        return person.isAvailableThen(TimeSlots.fromEpochHour(hour));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean isAvailableThen_4threads(Workload workload, Cursor cursor) {
+        return isAvailableThen(workload, cursor);
+    }
+}
@@ -0,0 +1,66 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Pre-booked meetings for a pool of invitees of the Population.
+ * Each of the first 'POOL' persons gets 'meetingsPerPerson' single-person meetings at random hours
+ * within the next 'HORIZON_HOURS', and benchmarks draw groups of 'invitees' persons from the pool.
+ * Only the pool is booked, as booking 10k meetings for each of 1M persons would not fit a heap.
+ */
+@State(Scope.Benchmark)
+public class Workload {
+
+    static final int POOL = 400;
+    static final int HORIZON_HOURS = 3 * 365 * 24;
+
+    @Param({"10", "1000", "10000"})
+    public int meetingsPerPerson;
+
+    @Param({"2", "20", "200"})
+    public int invitees;
+
+    long firstHour;         // epoch hour pre-booked meetings start at
+    List<List<String>> groups;
+    Person[] pool;
+
+    @Setup
+    public void setUp(Population population) throws Exception {
+        int poolSize = Math.min(POOL, population.people);
+        firstHour = TimeSlots.toEpochHour(LocalDateTime.now().plusDays(1));
+        Random random = new Random(42);
+        pool = new Person[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            pool[i] = population.scheduler.getPersonFromEmail(Population.email(i));
+            List<String> single = List.of(Population.email(i));
+            int booked = 0;
+            while (booked < meetingsPerPerson) {
+                long hour = firstHour + random.nextInt(HORIZON_HOURS);
+                if (population.scheduler.tryCreateMeeting(timeSlot(hour), single).isBooked()) {
+                    booked++;
+                }
+            }
+        }
+        // A fixed set of groups to draw from, so group building is not measured
+        groups = new ArrayList<>();
+        for (int g = 0; g < 64; g++) {
+            List<String> group = new ArrayList<>(invitees);
+            for (int k = 0; k < Math.min(invitees, poolSize); k++) {
+                group.add(Population.email(random.nextInt(poolSize)));
+            }
+            groups.add(group);
+        }
+    }
+
+    static String timeSlot(long epochHour) {
+        return TimeSlots.format(epochHour);
+    }
+}
@@ -0,0 +1,182 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Compact busy/free calendar of whole hour timeslots for a single Person.
+ * One bit per epoch hour, stored in pages of 64 longs (4096 hours, roughly 170 days).
+ * Pages are only allocated for stretches of time that contain bookings, and pages before a released
+ * horizon are dropped, so memory follows the active time horizon rather than the number of meetings booked.
+ * Checking a slot is constant time and does not allocate.
+ * Thread-safe: reads are lock-free, and tryReserve() claims a timeslot with a single compare-and-set.
+ * Only allocating a new page or changing the page table takes the calendar's monitor.
+ */
+public class AvailabilityCalendar implements BusySource {
+
+    static final int WORD_BITS = 6;                     // 64 hours per long
+    static final int PAGE_WORD_BITS = 6;                // 64 longs per page
+    static final int PAGE_BITS = WORD_BITS + PAGE_WORD_BITS;
+    private static final int PAGE_WORD_MASK = (1 << PAGE_WORD_BITS) - 1;
+
+    /**
+     * Immutable page table, replaced as a whole whenever pages are added or dropped.
+     */
+    private static final class Table {
+        private final long firstPage;               // page index held at pages[0]
+        private final AtomicLongArray[] pages;      // null entries for pages without any bookings
+        private final long releasedBefore;          // epoch hours before this are no longer tracked
+
+        private Table(long firstPage, AtomicLongArray[] pages, long releasedBefore) {
+            this.firstPage = firstPage;
+            this.pages = pages;
+            this.releasedBefore = releasedBefore;
+        }
+
+        private AtomicLongArray page(long pageIndex) {
+            long slot = pageIndex - firstPage;
+            if (slot < 0 || slot >= pages.length) return null;
+            return pages[(int) slot];
+        }
+    }
+
+    private volatile Table table;
+
+    public AvailabilityCalendar() {
+        table = new Table(0L, new AtomicLongArray[0], Long.MIN_VALUE);
+    }
+
+    /**
+     * @param epochHour long epoch hour of timeslot
+     * @return true if the timeslot is booked, or lies before the released horizon
+     */
+    public boolean isBusy(long epochHour) {
+        Table t = table;
+        if (epochHour < t.releasedBefore) return true;
+        AtomicLongArray page = t.page(epochHour >> PAGE_BITS);
+        if (page == null) return false;
+        return (page.get(wordInPage(epochHour >> WORD_BITS)) & (1L << epochHour)) != 0;
+    }
+
+    @Override
+    public long busyWord(long wordIndex) {
+        Table t = table;
+        long start = wordIndex << WORD_BITS;
+        long released = 0L;
+        if (start < t.releasedBefore) {
+            long end = start + Long.SIZE;
+            released = end <= t.releasedBefore ? -1L : (1L << (t.releasedBefore - start)) - 1;
+        }
+        AtomicLongArray page = t.page(wordIndex >> PAGE_WORD_BITS);
+        return page == null ? released : page.get(wordInPage(wordIndex)) | released;
+    }
+
+    /**
+     * Atomically marks the timeslot as booked, unless it is busy already.
+     * @param epochHour long epoch hour of timeslot
+     * @return true if this call booked the timeslot, false if it was busy
+     */
+    public boolean tryReserve(long epochHour) {
+        if (epochHour < table.releasedBefore) return false;
+        AtomicLongArray page = getOrCreatePage(epochHour >> PAGE_BITS);
+        int word = wordInPage(epochHour >> WORD_BITS);
+        long bit = 1L << epochHour;
+        long current;
+        do {
+            current = page.get(word);
+            if ((current & bit) != 0) return false;
+        } while (!page.compareAndSet(word, current, current | bit));
+        return true;
+    }
+
+    /**
+     * Marks the timeslot as booked, whether or not it was busy already.
+     * @param epochHour long epoch hour of timeslot
+     */
+    public void markBusy(long epochHour) {
+        AtomicLongArray page = getOrCreatePage(epochHour >> PAGE_BITS);
+        page.getAndAccumulate(wordInPage(epochHour >> WORD_BITS), 1L << epochHour, (a, b) -> a | b);
+    }
+
+    /**
+     * Marks the timeslot as free again, e.g. to roll back a tryReserve().
+     * @param epochHour long epoch hour of timeslot
+     */
+    public void markFree(long epochHour) {
+        AtomicLongArray page = table.page(epochHour >> PAGE_BITS);
+        if (page != null) {
+            page.getAndAccumulate(wordInPage(epochHour >> WORD_BITS), ~(1L << epochHour), (a, b) -> a & b);
+        }
+    }
+
+    /**
+     * @return long epoch hour from which pages may hold bookings, no booking is tracked before it
+     */
+    public long getTrackedFrom() {
+        Table t = table;
+        return Math.max(t.firstPage << PAGE_BITS, t.releasedBefore);
+    }
+
+    /**
+     * @return long epoch hour up to which pages may hold bookings (exclusive), no booking is at or after it
+     */
+    public long getTrackedUntil() {
+        Table t = table;
+        return (t.firstPage + t.pages.length) << PAGE_BITS;
+    }
+
+    /**
+     * Stops tracking timeslots before the given epoch hour and frees the pages only covering them.
+     * Released timeslots are reported as busy from then on, so they can not be double-booked.
+     * @param epochHour long epoch hour, all earlier timeslots are released
+     */
+    public synchronized void releaseBefore(long epochHour) {
+        Table t = table;
+        if (epochHour <= t.releasedBefore) return;
+        long dropPages = (epochHour >> PAGE_BITS) - t.firstPage;
+        if (dropPages <= 0) {
+            table = new Table(t.firstPage, t.pages, epochHour);
+        } else if (dropPages >= t.pages.length) {
+            table = new Table(epochHour >> PAGE_BITS, new AtomicLongArray[0], epochHour);
+        } else {
+            AtomicLongArray[] kept = new AtomicLongArray[t.pages.length - (int) dropPages];
+            System.arraycopy(t.pages, (int) dropPages, kept, 0, kept.length);
+            table = new Table(epochHour >> PAGE_BITS, kept, epochHour);
+        }
+    }
+
+    private AtomicLongArray getOrCreatePage(long pageIndex) {
+        AtomicLongArray page = table.page(pageIndex);
+        return page != null ? page : createPage(pageIndex);
+    }
+
+    private synchronized AtomicLongArray createPage(long pageIndex) {
+        Table t = table;
+        AtomicLongArray page = t.page(pageIndex);
+        if (page != null) return page;  // created by another thread meanwhile
+        long firstPage = t.firstPage;
+        AtomicLongArray[] pages;
+        if (t.pages.length == 0) {
+            firstPage = pageIndex;
+            pages = new AtomicLongArray[1];
+        } else if (pageIndex < firstPage) {
+            // Grow page table towards the past
+            int shift = Math.toIntExact(firstPage - pageIndex);
+            pages = new AtomicLongArray[t.pages.length + shift];
+            System.arraycopy(t.pages, 0, pages, shift, t.pages.length);
+            firstPage = pageIndex;
+        } else if (pageIndex - firstPage >= t.pages.length) {
+            // Grow page table towards the future, doubling to amortize repeated growth
+            int needed = Math.toIntExact(pageIndex - firstPage + 1);
+            pages = new AtomicLongArray[Math.max(needed, t.pages.length * 2)];
+            System.arraycopy(t.pages, 0, pages, 0, t.pages.length);
+        } else {
+            pages = t.pages.clone();
+        }
+        page = new AtomicLongArray(1 << PAGE_WORD_BITS);
+        pages[(int) (pageIndex - firstPage)] = page;
+        table = new Table(firstPage, pages, t.releasedBefore);
+        return page;
+    }
+
+    private static int wordInPage(long wordIndex) {
+        return (int) (wordIndex & PAGE_WORD_MASK);
+    }
+}
@@ -0,0 +1,38 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of Scheduler.createMeetings(): one BookingResult per MeetingRequest, in the order requested.
+ */
+public class BatchReport {
+
+    private final List<BookingResult> results;
+    private final int bookedCount;
+
+    BatchReport(List<BookingResult> results, int bookedCount) {
+        this.results = Collections.unmodifiableList(results);
+        this.bookedCount = bookedCount;
+    }
+
+    /**
+     * @return List<BookingResult>, the i-th holding the outcome of the i-th request
+     */
+    public List<BookingResult> getResults() {
+        return results;
+    }
+
+    public int getBookedCount() {
+        return bookedCount;
+    }
+
+    /**
+     * @return true if every request of the batch was booked
+     */
+    public boolean isFullyBooked() {
+        return bookedCount == results.size();
+    }
+
+    public String toString() {
+        return "BatchReport: " + bookedCount + " / " + results.size() + " booked";
+    }
+}
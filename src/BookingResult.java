@@ -0,0 +1,105 @@
+import java.util.List;
+
+/**
+ * Outcome of an attempt to book a meeting: either the booked Meeting, or the participants it conflicted with.
+ * A booked recurring meeting, see Scheduler.createMeetingSeries(), holds its MeetingSeries instead of a Meeting.
+ * Requests of a batch, see Scheduler.createMeetings(), may also be INVALID or ABORTED.
+ */
+public class BookingResult {
+
+    /**
+     * BOOKED:   the meeting was booked.
+     * CONFLICT: some participants were not available at the timeslot.
+     * INVALID:  the request could not be booked at all, e.g. for an unknown email.
+     * ABORTED:  the request could have been booked, but another request of its all-or-nothing batch failed.
+     */
+    public enum Status {
+        BOOKED, CONFLICT, INVALID, ABORTED
+    };
+
+    private static final BookingResult ABORTED = new BookingResult(Status.ABORTED, null, null, List.of(), null);
+
+    private final Status status;
+    private final Meeting meeting;
+    private final MeetingSeries series;
+    private final List<String> conflictingEmails;
+    private final String reason;
+
+    private BookingResult(Status status, Meeting meeting, MeetingSeries series, List<String> conflictingEmails,
+                          String reason) {
+        this.status = status;
+        this.meeting = meeting;
+        this.series = series;
+        this.conflictingEmails = conflictingEmails;
+        this.reason = reason;
+    }
+
+    public static BookingResult booked(Meeting meeting) {
+        return new BookingResult(Status.BOOKED, meeting, null, List.of(), null);
+    }
+
+    public static BookingResult bookedSeries(MeetingSeries series) {
+        return new BookingResult(Status.BOOKED, null, series, List.of(), null);
+    }
+
+    public static BookingResult conflict(List<String> conflictingEmails) {
+        return new BookingResult(Status.CONFLICT, null, null, List.copyOf(conflictingEmails), null);
+    }
+
+    public static BookingResult invalid(String reason) {
+        return new BookingResult(Status.INVALID, null, null, List.of(), reason);
+    }
+
+    public static BookingResult aborted() {
+        return ABORTED;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isBooked() {
+        return status == Status.BOOKED;
+    }
+
+    /**
+     * @return Meeting booked, or null on conflict or for a booked MeetingSeries
+     */
+    public Meeting getMeeting() {
+        return meeting;
+    }
+
+    /**
+     * @return MeetingSeries booked by Scheduler.createMeetingSeries(), otherwise null
+     */
+    public MeetingSeries getSeries() {
+        return series;
+    }
+
+    /**
+     * @return List<String> of emails of participants not available at the timeslot, empty unless CONFLICT
+     */
+    public List<String> getConflictingEmails() {
+        return conflictingEmails;
+    }
+
+    /**
+     * @return String telling why the request is INVALID, otherwise null
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    public String toString() {
+        switch (status) {
+            case BOOKED:
+                return "BOOKED " + (meeting != null ? meeting.getTimeslot() : series.getRecurrence());
+            case CONFLICT:
+                return "CONFLICT with " + conflictingEmails;
+            case INVALID:
+                return "INVALID: " + reason;
+            default:
+                return "ABORTED";
+        }
+    }
+}
@@ -0,0 +1,121 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress test of concurrent booking: many threads book random groups that all include one popular person,
+ * over a small set of timeslots, mixing the locked createMeeting() and lock-free tryCreateMeeting() paths.
+ * Afterwards verifies that nobody was double-booked, and that every successful booking is on every
+ * participant's schedule. Exits with status 1 on any violation.
+ * Run with optional args: [threads] [bookings per thread]
+ */
+public class BookingStressTest {
+
+    private static final int PEOPLE = 50;
+    private static final String EXECUTIVE = "exec@person.com";
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int bookingsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+
+        Scheduler scheduler = new Scheduler(PersonRegistry.KeyMode.EXACT, Scheduler.Mode.CONCURRENT);
+        HashMap<String, String> roster = new HashMap<>();
+        roster.put(EXECUTIVE, "Exec");
+        for (int i = 0; i < PEOPLE; i++) {
+            roster.put("test" + i + "@person.com", "Test" + i);
+        }
+        scheduler.createPeople(roster);
+
+        // 10 days of 24 hourly timeslots in 2099, far fewer than the attempted bookings
+        List<String> timeSlots = new ArrayList<>();
+        for (int day = 10; day < 20; day++) {
+            for (int hour = 0; hour < 24; hour++) {
+                timeSlots.add(String.format("%02d-%02d-03-2099", hour, day));
+            }
+        }
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<BookingResult> results = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final long seed = t;
+            workers[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    start.await();
+                    for (int i = 0; i < bookingsPerThread; i++) {
+                        List<String> participants = new ArrayList<>();
+                        participants.add(EXECUTIVE);
+                        int invitees = 1 + random.nextInt(4);
+                        for (int k = 0; k < invitees; k++) {
+                            participants.add("test" + random.nextInt(PEOPLE) + "@person.com");
+                        }
+                        String timeSlot = timeSlots.get(random.nextInt(timeSlots.size()));
+                        BookingResult result = seed % 2 == 0
+                                ? scheduler.createMeeting(timeSlot, participants)
+                                : scheduler.tryCreateMeeting(timeSlot, participants);
+                        if (result.isBooked()) {
+                            booked.incrementAndGet();
+                            results.add(result);
+                        } else {
+                            conflicts.incrementAndGet();
+                        }
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    done.countDown();
+                }
+            });
+            workers[t].start();
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        done.await();
+        long millis = (System.nanoTime() - startNanos) / 1_000_000;
+
+        // Verify no double booking for anyone, and that all booked meetings are on participants' schedules
+        int violations = 0;
+        HashMap<String, HashSet<Meeting>> scheduled = new HashMap<>();
+        for (String email : roster.keySet()) {
+            HashSet<LocalDateTime> seen = new HashSet<>();
+            HashSet<Meeting> meetings = new HashSet<>();
+            for (Meeting meeting : scheduler.getScheduleForPerson(email)) {
+                if (!seen.add(meeting.getTimeslot())) {
+                    System.out.println("DOUBLE BOOKED: " + email + " at " + meeting.getTimeslot());
+                    violations++;
+                }
+                meetings.add(meeting);
+            }
+            scheduled.put(email, meetings);
+        }
+        for (BookingResult result : results) {
+            for (Person person : result.getMeeting().getParticipants()) {
+                if (!scheduled.get(person.getEmail()).contains(result.getMeeting())) {
+                    System.out.println("MISSING: " + result + " on schedule of " + person);
+                    violations++;
+                }
+            }
+        }
+        int executiveMeetings = scheduled.get(EXECUTIVE).size();
+        if (executiveMeetings != booked.get() || executiveMeetings > timeSlots.size()) {
+            System.out.println("MISMATCH: executive has " + executiveMeetings + " meetings, " + booked + " booked");
+            violations++;
+        }
+
+        System.out.println("> " + threads + " threads x " + bookingsPerThread + " attempts in " + millis + " ms: "
+                + booked + " booked, " + conflicts + " conflicts, " + violations + " violations");
+        if (violations > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Anything that can report busy hours as 64-hour words of epoch hours, e.g. a participant's calendar,
+ * and, for meetings not at whole hours, busy intervals of epoch minutes.
+ */
+public interface BusySource {
+
+    /**
+     * Busy bits of 64 consecutive hours, bit i denoting epoch hour (wordIndex * 64 + i).
+     * @param wordIndex long index of word, i.e. epoch hour divided by 64
+     * @return long with a set bit for each busy hour
+     */
+    long busyWord(long wordIndex);
+
+    /**
+     * Hours at which new meetings are accepted at all, e.g. a Person's working hours; every hour by default.
+     * @param wordIndex long index of word, i.e. epoch hour divided by 64
+     * @return long with a set bit for each hour meetings may be suggested at
+     */
+    default long availableWord(long wordIndex) {
+        return -1L;
+    }
+
+    /**
+     * Hours that are busy from start to end, leaving out hours busyWord() reports only because a meeting
+     * starts or ends within them; those meetings are told by busyIntervals() instead. All of busyWord() by default.
+     * @param wordIndex long index of word, i.e. epoch hour divided by 64
+     * @return long with a set bit for each hour busy as a whole
+     */
+    default long wholeHourBusyWord(long wordIndex) {
+        return busyWord(wordIndex);
+    }
+
+    /**
+     * Busy intervals not covering whole hours, see wholeHourBusyWord(); none by default.
+     * @param fromMinute long epoch minute of start of window (inclusive)
+     * @param toMinute   long epoch minute of end of window (exclusive)
+     * @return long[] of [start, end) epoch minute pairs overlapping the window, in chronological order
+     */
+    default long[] busyIntervals(long fromMinute, long toMinute) {
+        return new long[0];
+    }
+}
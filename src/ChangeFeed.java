@@ -0,0 +1,212 @@
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ordered stream of the ScheduleChanges of a Scheduler, see Scheduler.getChanges().
+ * The latest changes are kept in a ring buffer of fixed capacity, so publishing a change never waits for
+ * subscribers and memory does not grow with slow ones. Each subscriber reads the ring at its own sequence, as
+ * fast as it requests through its Flow.Subscription, on a virtual thread of its own. A subscriber falling behind
+ * by more than the capacity gets onError(), as the changes it has not read are overwritten, and has to re-read
+ * the schedules it follows before subscribing again from getLastSequence() + 1.
+ * Publishing takes the feed's monitor only to number the change and store it in the ring.
+ */
+final class ChangeFeed {
+
+    static final int DEFAULT_CAPACITY = 1 << 12;
+    private static final Executor DELIVERY = command -> Thread.ofVirtual().name("change-feed").start(command);
+
+    private final AtomicReferenceArray<ScheduleChange> ring;
+    private final int mask;
+    private volatile long lastSequence;     // 0 before the first change
+    private volatile boolean closed;
+    private final CopyOnWriteArrayList<FeedSubscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param capacity int amount of latest changes kept for subscribers, a power of two
+     */
+    ChangeFeed(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two, was: " + capacity);
+        }
+        ring = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+    }
+
+    void personCreated(Person person) {
+        ScheduleChange change;
+        synchronized (this) {
+            change = ScheduleChange.personCreated(lastSequence + 1, person);
+            append(change);
+        }
+        signalAll();
+    }
+
+    void meetingBooked(Meeting meeting, List<Person> participants) {
+        ScheduleChange change;
+        synchronized (this) {
+            change = ScheduleChange.meetingBooked(lastSequence + 1, meeting, participants);
+            append(change);
+        }
+        signalAll();
+    }
+
+    void seriesBooked(MeetingSeries series, List<Person> participants) {
+        ScheduleChange change;
+        synchronized (this) {
+            change = ScheduleChange.seriesBooked(lastSequence + 1, series, participants);
+            append(change);
+        }
+        signalAll();
+    }
+
+    void occurrenceCancelled(MeetingSeries series, long epochHour, List<Person> participants) {
+        ScheduleChange change;
+        synchronized (this) {
+            change = ScheduleChange.occurrenceCancelled(lastSequence + 1, series, epochHour, participants);
+            append(change);
+        }
+        signalAll();
+    }
+
+    /**
+     * @return long sequence of the latest change, 0 before the first one
+     */
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @param fromSequence long sequence of the first change to deliver, at most getLastSequence() + 1
+     * @param person       Person whose changes to deliver, or null for all changes
+     * @return Flow.Publisher subscribing every Subscriber from the given sequence
+     */
+    Flow.Publisher<ScheduleChange> publisher(long fromSequence, Person person) {
+        return subscriber -> subscribe(Objects.requireNonNull(subscriber), fromSequence, person);
+    }
+
+    /**
+     * Completes every subscription once it has delivered the changes published so far.
+     */
+    void close() {
+        closed = true;
+        signalAll();
+    }
+
+    private void append(ScheduleChange change) {
+        ring.set((int) change.getSequence() & mask, change);
+        lastSequence = change.getSequence();    // publishes the slot to readers
+    }
+
+    private void signalAll() {
+        for (FeedSubscription subscription : subscriptions) {
+            subscription.signal();
+        }
+    }
+
+    private void subscribe(Flow.Subscriber<? super ScheduleChange> subscriber, long fromSequence, Person person) {
+        FeedSubscription subscription = new FeedSubscription(subscriber, fromSequence, person);
+        if (fromSequence > lastSequence + 1) {
+            subscription.failure = new Exception("Change sequence " + fromSequence + " not reached, the latest is "
+                    + lastSequence + "; sequences start over when a Scheduler is created or restored");
+        }
+        // The subscription holds one pending signal until onSubscribe() returns, so requests made from within
+        // onSubscribe() do not start delivering before it returns
+        subscriber.onSubscribe(subscription);
+        subscriptions.add(subscription);
+        DELIVERY.execute(subscription::drain);
+    }
+
+    private final class FeedSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ScheduleChange> subscriber;
+        private final Person person;
+        private long next;      // sequence of the next change to look at, only used while draining
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger pending = new AtomicInteger(1);    // signals not yet drained
+        private volatile boolean cancelled;
+        private volatile Throwable failure;
+
+        private FeedSubscription(Flow.Subscriber<? super ScheduleChange> subscriber, long next, Person person) {
+            this.subscriber = subscriber;
+            this.next = next;
+            this.person = person;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                failure = new IllegalArgumentException("Requested amount must be > 0, was: " + n);
+            } else {
+                requested.getAndAccumulate(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+            }
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+
+        private void signal() {
+            if (pending.getAndIncrement() == 0) {
+                DELIVERY.execute(this::drain);
+            }
+        }
+
+        /**
+         * Delivers until no signal arrived meanwhile, on one thread at a time.
+         */
+        private void drain() {
+            int missed = pending.get();
+            do {
+                deliver();
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void deliver() {
+            while (!cancelled) {
+                if (failure != null) {
+                    cancel();
+                    subscriber.onError(failure);
+                    return;
+                }
+                boolean wasClosed = closed;
+                if (next > lastSequence) {
+                    if (wasClosed) {
+                        cancel();
+                        subscriber.onComplete();
+                    }
+                    return;
+                }
+                ScheduleChange change = ring.get((int) next & mask);
+                if (change.getSequence() != next) {
+                    failure = new Exception("Changes from sequence " + next + " on were overwritten, the subscriber "
+                            + "fell more than " + (mask + 1) + " changes behind");
+                    continue;
+                }
+                if (person != null && !change.involves(person)) {
+                    next++;
+                    continue;
+                }
+                long demand = requested.get();
+                if (demand == 0) return;
+                if (demand != Long.MAX_VALUE) {
+                    requested.decrementAndGet();
+                }
+                next++;
+                try {
+                    subscriber.onNext(change);
+                } catch (RuntimeException e) {
+                    cancel();   // a Subscriber must not throw, see Flow.Subscriber
+                }
+            }
+        }
+    }
+}
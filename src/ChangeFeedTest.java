@@ -0,0 +1,211 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Test of the change feed of a Scheduler, see Scheduler.getChanges(). Checks that a subscriber resuming from a
+ * sequence gets every later change in order, that one falling further behind than the feed keeps gets onError(),
+ * that getChangesForPerson() only sends the changes of that person, including cancelled occurrences of their
+ * series, and that subscriptions complete on close(). Exits with status 1 on any violation.
+ */
+public class ChangeFeedTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2030-01-01T00:00:00Z"), ZoneOffset.UTC);
+    private static final long FIRST_HOUR = TimeSlots.toEpochHour(LocalDateTime.of(2030, 1, 2, 0, 0));
+
+    public static void main(String[] args) throws Exception {
+        int violations = 0;
+        violations += resume();
+        violations += overrun();
+        violations += perPerson();
+        System.out.println("> change feed: " + violations + " violations");
+        if (violations > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Books past what the feed keeps, then resumes from a sequence still kept, from the last one, and from one
+     * not reached yet.
+     */
+    private static int resume() throws Exception {
+        int violations = 0;
+        Scheduler scheduler = new Scheduler(PersonRegistry.KeyMode.EXACT, Scheduler.Mode.CONCURRENT, CLOCK);
+        scheduler.createPerson("A", "a@person.com");
+        for (int i = 0; i < 2 * ChangeFeed.DEFAULT_CAPACITY; i++) {
+            scheduler.createMeeting(FIRST_HOUR + i, List.of("a@person.com"));
+        }
+        long last = scheduler.getLastChangeSequence();
+        violations += expect(last == 1 + 2 * ChangeFeed.DEFAULT_CAPACITY, "sequences numbered per change: " + last);
+
+        Collector kept = new Collector(1);
+        scheduler.getChanges(last - 99).subscribe(kept);
+        Collector latest = new Collector(Long.MAX_VALUE);
+        scheduler.getChanges(last + 1).subscribe(latest);
+        Collector notReached = new Collector(1);
+        scheduler.getChanges(last + 2).subscribe(notReached);
+        scheduler.createMeeting(FIRST_HOUR - 1, List.of("a@person.com"));
+        scheduler.close();
+
+        violations += expect(kept.await() == null, "resumed subscription completes on close");
+        violations += expect(kept.isContiguous(last - 99) && kept.received.size() == 101,
+                "resumed from " + (last - 99) + ": " + kept.received.size() + " changes in order");
+        violations += expect(latest.await() == null && latest.received.size() == 1
+                && latest.received.get(0).getSequence() == last + 1, "resumed after the last change");
+        violations += expect(notReached.await() != null && notReached.received.isEmpty(),
+                "sequence not reached gets onError");
+        return violations;
+    }
+
+    /**
+     * A subscriber asking for changes one at a time, but not asking for more after the first, is lapped by
+     * bookings: it gets onError() instead of changes silently skipped.
+     */
+    private static int overrun() throws Exception {
+        int violations = 0;
+        Scheduler scheduler = new Scheduler(PersonRegistry.KeyMode.EXACT, Scheduler.Mode.CONCURRENT, CLOCK);
+        scheduler.createPerson("A", "a@person.com");
+        Collector stalled = new Collector(1) {
+            @Override
+            public void onNext(ScheduleChange change) {
+                received.add(change);   // asks for nothing more
+            }
+        };
+        scheduler.getChanges(1).subscribe(stalled);
+        for (int i = 0; i < ChangeFeed.DEFAULT_CAPACITY + 10; i++) {
+            scheduler.tryCreateMeeting(FIRST_HOUR + i, List.of("a@person.com"));
+        }
+        violations += expect(stalled.await() != null && stalled.received.size() == 1,
+                "lapped subscriber gets onError after " + stalled.received.size() + " change");
+        Collector lapped = new Collector(Long.MAX_VALUE);
+        scheduler.getChanges(1).subscribe(lapped);
+        violations += expect(lapped.await() != null && lapped.received.isEmpty(),
+                "subscribing from an overwritten sequence gets onError");
+        scheduler.close();
+        return violations;
+    }
+
+    /**
+     * Follows one person of a persistent Scheduler through meetings, a series and a cancelled occurrence, while
+     * others are booked in between.
+     */
+    private static int perPerson() throws Exception {
+        int violations = 0;
+        Path directory = Files.createTempDirectory("change-feed");
+        Scheduler scheduler = Scheduler.open(directory, PersonRegistry.KeyMode.EXACT, Scheduler.Mode.CONCURRENT);
+        scheduler.createPerson("A", "a@person.com");
+        scheduler.createPerson("B", "b@person.com");
+        Collector followed = new Collector(1);
+        scheduler.getChangesForPerson("a@person.com", 1).subscribe(followed);
+        Collector all = new Collector(Long.MAX_VALUE);
+        scheduler.getChanges(1).subscribe(all);
+
+        scheduler.createMeeting(FIRST_HOUR, List.of("b@person.com"));
+        scheduler.createMeeting(FIRST_HOUR + 1, List.of("a@person.com", "b@person.com"));
+        BookingResult series = scheduler.createMeetingSeries(new Recurrence(Recurrence.Frequency.WEEKLY, 1,
+                FIRST_HOUR + 2, Recurrence.NO_END), List.of("a@person.com"));
+        scheduler.createMeeting(FIRST_HOUR + 3, List.of("b@person.com"));
+        LocalDateTime cancelled = TimeSlots.fromEpochHour(FIRST_HOUR + 2 + 7 * TimeSlots.HOURS_PER_DAY);
+        scheduler.cancelOccurrence(series.getSeries(), cancelled);
+        scheduler.close();
+
+        violations += expect(followed.await() == null, "person subscription completes on close");
+        ArrayList<ScheduleChange.Type> types = new ArrayList<>();
+        for (ScheduleChange change : followed.received) {
+            types.add(change.getType());
+            violations += expect(change.getEmails().contains("a@person.com"), "change of the person: " + change);
+        }
+        violations += expect(types.equals(List.of(ScheduleChange.Type.PERSON_CREATED,
+                ScheduleChange.Type.MEETING_BOOKED, ScheduleChange.Type.SERIES_BOOKED,
+                ScheduleChange.Type.OCCURRENCE_CANCELLED)), "changes of the person: " + types);
+        ScheduleChange last = followed.received.get(followed.received.size() - 1);
+        violations += expect(last.getSeries() == series.getSeries() && cancelled.equals(last.getTimeSlot()),
+                "cancelled occurrence at " + last.getTimeSlot());
+        violations += expect(all.await() == null && all.isContiguous(1) && all.received.size() == 7,
+                "all changes: " + all.received.size());
+        try (Scheduler restored = Scheduler.open(directory, PersonRegistry.KeyMode.EXACT,
+                Scheduler.Mode.CONCURRENT)) {
+            violations += expect(restored.getLastChangeSequence() == 0, "restored state is not replayed as changes");
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+        return violations;
+    }
+
+    private static int expect(boolean condition, String description) {
+        if (!condition) {
+            System.out.println("VIOLATION: " + description);
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Subscriber keeping what it is sent, asking for one more change per change received unless unbounded.
+     */
+    private static class Collector implements Flow.Subscriber<ScheduleChange> {
+        final List<ScheduleChange> received = Collections.synchronizedList(new ArrayList<>());
+        private final CompletableFuture<Throwable> done = new CompletableFuture<>();
+        private final long initialDemand;
+        private Flow.Subscription subscription;
+
+        Collector(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialDemand);
+        }
+
+        @Override
+        public void onNext(ScheduleChange change) {
+            received.add(change);
+            if (initialDemand != Long.MAX_VALUE) {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            done.complete(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+
+        /**
+         * @return Throwable passed to onError(), or null once completed
+         */
+        Throwable await() throws Exception {
+            return done.get(10, TimeUnit.SECONDS);
+        }
+
+        /**
+         * @return true if the changes received are numbered from the given sequence on, without gaps
+         */
+        boolean isContiguous(long fromSequence) {
+            for (int i = 0; i < received.size(); i++) {
+                if (received.get(i).getSequence() != fromSequence + i) return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,584 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Read-only, memory-mapped image of a Scheduler's people and meetings in columns of primitives, served
+ * straight from the mapped file instead of being rebuilt into objects on load. Opening it only checks the
+ * header, so a node is ready at once, however many meetings the file holds; pages are read as queried.
+ * <p>
+ * People are numbered by int id. Their emails and names are stored as UTF-8 in one byte column each, with an
+ * int column of offsets ("interned": each string stored once, meetings refer to ids), and an open-addressing
+ * hash table from email key to id. Meetings are an epoch hour column sorted by hour, with participants in CSR
+ * layout: participant ids of meeting m are participantIds[participantStart[m] .. participantStart[m + 1]).
+ * The same meetings are also stored per person, as a sorted column of hours with the meeting index of each,
+ * so a person's busy hours are found by binary search. Recurring meetings are few, and stored as a small table.
+ * <p>
+ * Layout: int MAGIC, int VERSION, int KeyMode ordinal, int people, int meetings, int participants,
+ * int person hours, int series, int series exceptions, int series participants, int hash table length,
+ * then the columns in the order read by open(), each 8-byte aligned. Files are limited to 2 GB.
+ */
+final class ColumnarSnapshot implements MeetingSource {
+
+    private static final int MAGIC = 0x5343484D;    // "SCHM"
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 11;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final PersonRegistry.KeyMode keyMode;
+    private final int people;
+    private final int meetings;
+    private final int series;
+    // Byte offsets of columns within the buffer
+    private final int emailStart, emailBytes, nameStart, nameBytes, hashTable, hashMask;
+    private final int personHourStart, personHours, personMeetings;
+    private final int meetingHours, participantStart, participantIds;
+    private final int seriesFrequency, seriesInterval, seriesStartHour, seriesUntilHour;
+    private final int exceptionStart, exceptions, seriesParticipantStart, seriesParticipantIds;
+    private final PersonRegistry keys;     // empty, only turns emails into keys
+    private volatile IntFunction<Person> resolver;
+
+    private ColumnarSnapshot(Path file, MappedByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_INTS * Integer.BYTES || buffer.getInt(0) != MAGIC
+                || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a columnar snapshot, or of an unsupported version");
+        }
+        int keyModeOrdinal = buffer.getInt(8);
+        if (keyModeOrdinal < 0 || keyModeOrdinal >= PersonRegistry.KeyMode.values().length) {
+            throw new IOException("Corrupt columnar snapshot");
+        }
+        keyMode = PersonRegistry.KeyMode.values()[keyModeOrdinal];
+        keys = new PersonRegistry(keyMode, false);
+        people = buffer.getInt(12);
+        meetings = buffer.getInt(16);
+        int participants = buffer.getInt(20);
+        int hours = buffer.getInt(24);
+        series = buffer.getInt(28);
+        int exceptionCount = buffer.getInt(32);
+        int seriesParticipants = buffer.getInt(36);
+        int tableLength = buffer.getInt(40);
+        if (people < 0 || meetings < 0 || participants < 0 || hours < 0 || series < 0 || exceptionCount < 0
+                || seriesParticipants < 0 || tableLength < 1 || Integer.bitCount(tableLength) != 1) {
+            throw new IOException("Corrupt columnar snapshot");
+        }
+        int offset = align(HEADER_INTS * Integer.BYTES);
+        emailStart = offset;
+        offset = align(offset + (people + 1) * Integer.BYTES);
+        emailBytes = offset;
+        offset = align(offset + buffer.getInt(emailStart + people * Integer.BYTES));
+        nameStart = offset;
+        offset = align(offset + (people + 1) * Integer.BYTES);
+        nameBytes = offset;
+        offset = align(offset + buffer.getInt(nameStart + people * Integer.BYTES));
+        hashTable = offset;
+        hashMask = tableLength - 1;
+        offset = align(offset + tableLength * Integer.BYTES);
+        personHourStart = offset;
+        offset = align(offset + (people + 1) * Integer.BYTES);
+        personHours = offset;
+        offset = align(offset + hours * Long.BYTES);
+        personMeetings = offset;
+        offset = align(offset + hours * Integer.BYTES);
+        meetingHours = offset;
+        offset = align(offset + meetings * Long.BYTES);
+        participantStart = offset;
+        offset = align(offset + (meetings + 1) * Integer.BYTES);
+        participantIds = offset;
+        offset = align(offset + participants * Integer.BYTES);
+        seriesFrequency = offset;
+        offset = align(offset + series * Integer.BYTES);
+        seriesInterval = offset;
+        offset = align(offset + series * Integer.BYTES);
+        seriesStartHour = offset;
+        offset = align(offset + series * Long.BYTES);
+        seriesUntilHour = offset;
+        offset = align(offset + series * Long.BYTES);
+        exceptionStart = offset;
+        offset = align(offset + (series + 1) * Integer.BYTES);
+        exceptions = offset;
+        offset = align(offset + exceptionCount * Long.BYTES);
+        seriesParticipantStart = offset;
+        offset = align(offset + (series + 1) * Integer.BYTES);
+        seriesParticipantIds = offset;
+        offset = offset + seriesParticipants * Integer.BYTES;
+        if (offset > buffer.limit()) {
+            throw new IOException("Columnar snapshot is truncated");
+        }
+    }
+
+    /**
+     * Maps a columnar snapshot file.
+     * @param file Path of file written by write()
+     * @return ColumnarSnapshot serving the file
+     * @throws IOException if the file can not be read, or is not a columnar snapshot
+     */
+    static ColumnarSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new ColumnarSnapshot(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @param other Path of a file
+     * @return true if the file is the one this snapshot maps, which stays mapped until garbage collected
+     * @throws IOException if the file can not be checked
+     */
+    boolean isMapped(Path other) throws IOException {
+        return Files.exists(other) && Files.isSameFile(file, other);
+    }
+
+    /**
+     * @param resolver IntFunction<Person> giving the Person object of an id, called when meetings
+     *                 or series are turned into objects, e.g. for showing a schedule
+     */
+    void setResolver(IntFunction<Person> resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Writes people, meetings and series to a columnar snapshot file, via a temporary file renamed into place.
+     * A file mapped by an open ColumnarSnapshot can not be replaced on every platform, see isMapped().
+     * @param file     Path of file to write
+     * @param keyMode  PersonRegistry.KeyMode the emails are keyed by
+     * @param people   List<Person> of everyone, including all participants of the meetings and series
+     * @param meetings List<Meeting> of all meetings
+     * @param series   List<MeetingSeries> of all recurring meetings
+     * @throws IOException if writing fails
+     */
+    static void write(Path file, PersonRegistry.KeyMode keyMode, List<Person> people, List<Meeting> meetings,
+                      List<MeetingSeries> series) throws IOException {
+        PersonRegistry keys = new PersonRegistry(keyMode, false);
+        IdentityHashMap<Person, Integer> ids = new IdentityHashMap<>(people.size());
+        for (Person person : people) {
+            ids.put(person, ids.size());
+        }
+        // Meetings sorted by hour, with the ids of their participants; guests, see Scheduler.bookShardMeeting(),
+        // are left out, as their own shard holds their meetings
+        Meeting[] sorted = meetings.toArray(new Meeting[0]);
+        for (Meeting meeting : sorted) {
+            if (!meeting.isWholeHour()) {
+                throw new IOException("Columnar snapshots hold whole-hour meetings only, not the one at "
+                        + meeting.getTimeslot() + " for " + meeting.getDuration());
+            }
+        }
+        long[] hourOf = new long[sorted.length];
+        int[][] participantsOf = new int[sorted.length][];
+        Integer[] order = new Integer[sorted.length];
+        int participants = 0;
+        for (int m = 0; m < sorted.length; m++) {
+            order[m] = m;
+            hourOf[m] = sorted[m].getEpochHour();
+            int[] participantIds = new int[sorted[m].getParticipantCount()];
+            int count = 0;
+            for (int i = 0; i < participantIds.length; i++) {
+                Integer id = ids.get(sorted[m].getParticipant(i));
+                if (id != null) {
+                    participantIds[count++] = id;
+                }
+            }
+            participantsOf[m] = Arrays.copyOf(participantIds, count);
+            participants += count;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(hourOf[a], hourOf[b]));
+        // Each person's meetings as sorted hours
+        int[] perPerson = new int[people.size() + 1];
+        for (int[] participantIds : participantsOf) {
+            for (int id : participantIds) {
+                perPerson[id + 1]++;
+            }
+        }
+        for (int p = 0; p < people.size(); p++) {
+            perPerson[p + 1] += perPerson[p];
+        }
+        long[] personHourColumn = new long[participants];
+        int[] personMeetingColumn = new int[participants];
+        int[] fill = Arrays.copyOf(perPerson, people.size());
+        for (int m = 0; m < order.length; m++) {
+            // Meetings are visited in hour order, so each person's hours come out sorted
+            for (int id : participantsOf[order[m]]) {
+                int slot = fill[id]++;
+                personHourColumn[slot] = hourOf[order[m]];
+                personMeetingColumn[slot] = m;
+            }
+        }
+        int exceptionCount = 0;
+        int seriesParticipants = 0;
+        for (MeetingSeries meetingSeries : series) {
+            exceptionCount += meetingSeries.getRecurrence().getExceptions().length;
+            seriesParticipants += meetingSeries.getParticipants().size();
+        }
+        int tableLength = Integer.highestOneBit(Math.max(1, people.size()) * 2 - 1) * 2;
+        int[] table = new int[tableLength];   // id + 1, 0 for empty
+        byte[][] emails = new byte[people.size()][];
+        for (int p = 0; p < people.size(); p++) {
+            emails[p] = people.get(p).getEmail().getBytes(StandardCharsets.UTF_8);
+            byte[] key = keys.key(people.get(p).getEmail()).getBytes(StandardCharsets.UTF_8);
+            int slot = hash(key) & (tableLength - 1);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & (tableLength - 1);
+            }
+            table[slot] = p + 1;
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(temporary.toFile())) {
+            CountingOutput out = new CountingOutput(new BufferedOutputStream(stream, 1 << 16));
+            int[] header = {MAGIC, VERSION, keyMode.ordinal(), people.size(), sorted.length, participants,
+                    participants, series.size(), exceptionCount, seriesParticipants, tableLength};
+            for (int value : header) {
+                out.writeInt(value);
+            }
+            // Emails, names
+            writeStrings(out, emails);
+            byte[][] names = new byte[people.size()][];
+            for (int p = 0; p < people.size(); p++) {
+                names[p] = people.get(p).getName().getBytes(StandardCharsets.UTF_8);
+            }
+            writeStrings(out, names);
+            out.align();
+            for (int slot : table) {
+                out.writeInt(slot);
+            }
+            // Per person hours
+            out.align();
+            for (int start : perPerson) {
+                out.writeInt(start);
+            }
+            out.align();
+            for (long hour : personHourColumn) {
+                out.writeLong(hour);
+            }
+            out.align();
+            for (int m : personMeetingColumn) {
+                out.writeInt(m);
+            }
+            // Meetings
+            out.align();
+            for (int m : order) {
+                out.writeLong(hourOf[m]);
+            }
+            out.align();
+            int start = 0;
+            for (int m : order) {
+                out.writeInt(start);
+                start += participantsOf[m].length;
+            }
+            out.writeInt(start);
+            out.align();
+            for (int m : order) {
+                for (int id : participantsOf[m]) {
+                    out.writeInt(id);
+                }
+            }
+            // Series
+            out.align();
+            for (MeetingSeries meetingSeries : series) {
+                out.writeInt(meetingSeries.getRecurrence().getFrequency().ordinal());
+            }
+            out.align();
+            for (MeetingSeries meetingSeries : series) {
+                out.writeInt(meetingSeries.getRecurrence().getInterval());
+            }
+            out.align();
+            for (MeetingSeries meetingSeries : series) {
+                out.writeLong(meetingSeries.getRecurrence().getStartHour());
+            }
+            out.align();
+            for (MeetingSeries meetingSeries : series) {
+                out.writeLong(meetingSeries.getRecurrence().getUntilHour());
+            }
+            out.align();
+            start = 0;
+            for (MeetingSeries meetingSeries : series) {
+                out.writeInt(start);
+                start += meetingSeries.getRecurrence().getExceptions().length;
+            }
+            out.writeInt(start);
+            out.align();
+            for (MeetingSeries meetingSeries : series) {
+                for (long exception : meetingSeries.getRecurrence().getExceptions()) {
+                    out.writeLong(exception);
+                }
+            }
+            out.align();
+            start = 0;
+            for (MeetingSeries meetingSeries : series) {
+                out.writeInt(start);
+                start += meetingSeries.getParticipants().size();
+            }
+            out.writeInt(start);
+            out.align();
+            for (MeetingSeries meetingSeries : series) {
+                for (Person person : meetingSeries.getParticipants()) {
+                    out.writeInt(ids.get(person));
+                }
+            }
+            out.checkLimit();
+            out.flush();
+            stream.getFD().sync();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    PersonRegistry.KeyMode getKeyMode() {
+        return keyMode;
+    }
+
+    int getPeopleCount() {
+        return people;
+    }
+
+    int getMeetingCount() {
+        return meetings;
+    }
+
+    int getSeriesCount() {
+        return series;
+    }
+
+    /**
+     * @param key String email key, see PersonRegistry.key()
+     * @return int id of the person, or -1 if there is none
+     */
+    int find(String key) {
+        byte[] wanted = key.getBytes(StandardCharsets.UTF_8);
+        for (int slot = hash(wanted) & hashMask; ; slot = (slot + 1) & hashMask) {
+            int id = buffer.getInt(hashTable + slot * Integer.BYTES) - 1;
+            if (id < 0) return -1;
+            // Emails are stored as given, so compare keys when the KeyMode changes them
+            if (keyMode == PersonRegistry.KeyMode.EXACT ? equalsBytes(emailStart, emailBytes, id, wanted)
+                    : keys.key(email(id)).equals(key)) {
+                return id;
+            }
+        }
+    }
+
+    String email(int id) {
+        return string(emailStart, emailBytes, id);
+    }
+
+    String name(int id) {
+        return string(nameStart, nameBytes, id);
+    }
+
+    /**
+     * @return PersonView reading the busy hours of a person straight from the mapped columns
+     */
+    PersonView view(int id) {
+        return new PersonView(buffer.getInt(personHourStart + id * Integer.BYTES),
+                buffer.getInt(personHourStart + (id + 1) * Integer.BYTES));
+    }
+
+    /**
+     * @return Meeting view of the given meeting index, reading the mapped columns whenever it is read
+     */
+    Meeting meeting(int m) {
+        return new Meeting(this, m);
+    }
+
+    @Override
+    public long epochHour(int meeting) {
+        return buffer.getLong(meetingHours + meeting * Long.BYTES);
+    }
+
+    @Override
+    public int participantCount(int meeting) {
+        return buffer.getInt(participantStart + (meeting + 1) * Integer.BYTES)
+                - buffer.getInt(participantStart + meeting * Integer.BYTES);
+    }
+
+    @Override
+    public Person participant(int meeting, int i) {
+        int slot = buffer.getInt(participantStart + meeting * Integer.BYTES) + i;
+        return resolver.apply(buffer.getInt(participantIds + slot * Integer.BYTES));
+    }
+
+    /**
+     * @return MeetingSeries object of the given series index, built anew on every call
+     */
+    MeetingSeries series(int s) {
+        Recurrence recurrence = new Recurrence(
+                Recurrence.Frequency.values()[buffer.getInt(seriesFrequency + s * Integer.BYTES)],
+                buffer.getInt(seriesInterval + s * Integer.BYTES),
+                buffer.getLong(seriesStartHour + s * Long.BYTES), buffer.getLong(seriesUntilHour + s * Long.BYTES));
+        for (int i = buffer.getInt(exceptionStart + s * Integer.BYTES);
+             i < buffer.getInt(exceptionStart + (s + 1) * Integer.BYTES); i++) {
+            recurrence.addException(buffer.getLong(exceptions + i * Long.BYTES));
+        }
+        int from = buffer.getInt(seriesParticipantStart + s * Integer.BYTES);
+        int to = buffer.getInt(seriesParticipantStart + (s + 1) * Integer.BYTES);
+        ArrayList<Person> participants = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            participants.add(resolver.apply(buffer.getInt(seriesParticipantIds + i * Integer.BYTES)));
+        }
+        return new MeetingSeries(recurrence, participants);
+    }
+
+    /**
+     * Busy hours of one person of the snapshot, read from the mapped columns without copying them.
+     */
+    final class PersonView implements BusySource {
+        private final int from;     // range of the person's entries in the per-person hour column
+        private final int to;
+
+        private PersonView(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public long busyWord(long wordIndex) {
+            long wordStart = wordIndex << AvailabilityCalendar.WORD_BITS;
+            long word = 0L;
+            for (int i = lowerBound(wordStart); i < to; i++) {
+                long hour = hour(i);
+                if (hour >= wordStart + Long.SIZE) break;
+                word |= 1L << (hour - wordStart);
+            }
+            return word;
+        }
+
+        boolean isBusy(long epochHour) {
+            int i = lowerBound(epochHour);
+            return i < to && hour(i) == epochHour;
+        }
+
+        /**
+         * @return long epoch hour of the first meeting, or Long.MAX_VALUE without meetings
+         */
+        long firstHour() {
+            return from < to ? hour(from) : Long.MAX_VALUE;
+        }
+
+        /**
+         * @return long epoch hour of the last meeting, or Long.MIN_VALUE without meetings
+         */
+        long lastHour() {
+            return from < to ? hour(to - 1) : Long.MIN_VALUE;
+        }
+
+        /**
+         * @return int amount of meetings of the person
+         */
+        int size() {
+            return to - from;
+        }
+
+        /**
+         * @return int position of the person's first meeting at or after the epoch hour, size() if there is none
+         */
+        int indexFrom(long epochHour) {
+            return lowerBound(epochHour) - from;
+        }
+
+        /**
+         * @return long epoch hour of the person's i-th meeting, in hour order
+         */
+        long hourAt(int i) {
+            return hour(from + i);
+        }
+
+        /**
+         * @return Meeting view of the person's i-th meeting, in hour order
+         */
+        Meeting meetingAt(int i) {
+            return meeting(buffer.getInt(personMeetings + (from + i) * Integer.BYTES));
+        }
+
+        private long hour(int i) {
+            return buffer.getLong(personHours + i * Long.BYTES);
+        }
+
+        private int lowerBound(long epochHour) {
+            int low = from;
+            int high = to;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (hour(mid) < epochHour) low = mid + 1; else high = mid;
+            }
+            return low;
+        }
+    }
+
+    private String string(int startColumn, int bytesColumn, int id) {
+        int from = buffer.getInt(startColumn + id * Integer.BYTES);
+        int to = buffer.getInt(startColumn + (id + 1) * Integer.BYTES);
+        byte[] bytes = new byte[to - from];
+        buffer.get(bytesColumn + from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean equalsBytes(int startColumn, int bytesColumn, int id, byte[] wanted) {
+        int from = buffer.getInt(startColumn + id * Integer.BYTES);
+        int to = buffer.getInt(startColumn + (id + 1) * Integer.BYTES);
+        if (to - from != wanted.length) return false;
+        for (int i = 0; i < wanted.length; i++) {
+            if (buffer.get(bytesColumn + from + i) != wanted[i]) return false;
+        }
+        return true;
+    }
+
+    private static void writeStrings(CountingOutput out, byte[][] strings) throws IOException {
+        out.align();
+        int start = 0;
+        for (byte[] string : strings) {
+            out.writeInt(start);
+            start += string.length;
+        }
+        out.writeInt(start);
+        out.align();
+        for (byte[] string : strings) {
+            out.write(string);
+        }
+    }
+
+    private static int hash(byte[] key) {
+        int h = Arrays.hashCode(key);
+        return h ^ (h >>> 16);
+    }
+
+    private static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    /**
+     * DataOutputStream able to pad to the 8-byte alignment of the columns, and to tell when the file outgrows
+     * the int offsets of the columns: size() then sticks at Integer.MAX_VALUE.
+     */
+    private static final class CountingOutput extends DataOutputStream {
+        private CountingOutput(BufferedOutputStream out) {
+            super(out);
+        }
+
+        private void align() throws IOException {
+            checkLimit();
+            while ((size() & 7) != 0) {
+                writeByte(0);
+                checkLimit();
+            }
+        }
+
+        private void checkLimit() throws IOException {
+            if (size() == Integer.MAX_VALUE) {
+                throw new IOException("Columnar snapshot would exceed the 2 GB limit");
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Prints Scheduler reports to console, as used by the console demo in Main.
+ */
+public class ConsoleSchedulerListener implements SchedulerListener {
+
+    private final Level minimumLevel;
+    private final PrintStream out;
+
+    /**
+     * Prints reports of every level to System.out.
+     */
+    public ConsoleSchedulerListener() {
+        this(Level.DEBUG, System.out);
+    }
+
+    /**
+     * @param minimumLevel Level of least severe reports to print
+     * @param out          PrintStream to print to
+     */
+    public ConsoleSchedulerListener(Level minimumLevel, PrintStream out) {
+        this.minimumLevel = minimumLevel;
+        this.out = out;
+    }
+
+    @Override
+    public boolean isEnabled(Level level) {
+        return level.compareTo(minimumLevel) >= 0;
+    }
+
+    @Override
+    public void personCreated(Person person) {
+        out.println("> Successfully added new person: " + person.getName() + " " + person.getEmail());
+    }
+
+    @Override
+    public void peopleCreated(int count) {
+        out.println("> Successfully added " + count + " new persons");
+    }
+
+    @Override
+    public void meetingCreated(Meeting meeting) {
+        out.println("\n> Successfully created new meeting.");
+        meeting.print(out);
+    }
+
+    @Override
+    public void seriesCreated(MeetingSeries series) {
+        out.println("\n> Successfully created new recurring meeting.");
+        series.print(out);
+    }
+
+    @Override
+    public void meetingRejected(LocalDateTime timeSlot, BookingResult result) {
+        out.println("\n¤ attempted createMeeting at: " + timeSlot
+                + " - Some participants not available at timeslot");
+    }
+
+    @Override
+    public void timeslotsSuggested(List<String> emailParticipants, List<Scheduler.MeetingDays> preferredDays,
+                                   List<Integer> preferredHours, LocalDateTime searchStart,
+                                   List<LocalDateTime> timeslots, int count) {
+        if (isEnabled(Level.DEBUG)) {
+            out.println("\nPreferred days: " + preferredDays + "\nPreferred hours: " + preferredHours);
+            out.println("    checking forward starting at: " + searchStart + " " + searchStart.getDayOfWeek());
+            for (int i = 0; i < timeslots.size(); i++) {
+                LocalDateTime timeslot = timeslots.get(i);
+                out.println("    " + timeslot + " " + timeslot.getDayOfWeek()
+                        + " is available for all participants!  (Timeslots found: " + (i + 1) + " / " + count + ")");
+            }
+        }
+        out.println("> Suggesting Timeslots for Meeting with Participants: " + emailParticipants + "\n " + timeslots);
+    }
+
+    @Override
+    public void warning(Exception cause) {
+        out.println(cause);
+    }
+}
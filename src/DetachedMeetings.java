@@ -0,0 +1,56 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Meetings held as plain values rather than booked in a Scheduler, e.g. as gathered from the shards of a
+ * ShardedScheduler. Filled by one thread, and only read once handed out.
+ */
+final class DetachedMeetings implements MeetingSource {
+
+    private long[] hours = new long[4];
+    private final ArrayList<Person[]> participants = new ArrayList<>();
+    private final ArrayList<Meeting> views = new ArrayList<>();
+
+    /**
+     * @return Meeting of a single detached meeting
+     */
+    static Meeting of(long epochHour, List<Person> participants) {
+        DetachedMeetings meetings = new DetachedMeetings();
+        meetings.add(epochHour, participants);
+        return meetings.views.getFirst();
+    }
+
+    void add(long epochHour, List<Person> meetingParticipants) {
+        int meeting = views.size();
+        if (meeting == hours.length) {
+            hours = Arrays.copyOf(hours, meeting * 2);
+        }
+        hours[meeting] = epochHour;
+        participants.add(meetingParticipants.toArray(new Person[0]));
+        views.add(new Meeting(this, meeting));
+    }
+
+    /**
+     * @return List<Meeting> of the meetings added, in order of adding, unmodifiable
+     */
+    List<Meeting> asList() {
+        return Collections.unmodifiableList(views);
+    }
+
+    @Override
+    public long epochHour(int meeting) {
+        return hours[meeting];
+    }
+
+    @Override
+    public int participantCount(int meeting) {
+        return participants.get(meeting).length;
+    }
+
+    @Override
+    public Person participant(int meeting, int i) {
+        return participants.get(meeting)[i];
+    }
+}
@@ -0,0 +1,55 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds timeslots where every participant is free, 64 hours at a time.
+ * For each word of epoch hours the preferred-hours word of a WeeklyMask is AND'ed with each participant's
+ * available word and the complement of their busy word, leaving set bits only for preferred hours where all
+ * are available and free. Candidates are then read off the remaining bits in chronological order, without
+ * creating objects per candidate timeslot.
+ * A search gives up after HORIZON_HOURS, as working hours that never overlap would otherwise keep it going forever.
+ */
+public final class FreeSlotSearch {
+
+    /** How far ahead of its start a search looks, roughly 10 years */
+    public static final long HORIZON_HOURS = 10L * 365 * TimeSlots.HOURS_PER_DAY;
+
+    /** Most timeslots a single search may ask for, bounding what a caller's count allocates */
+    public static final int MAX_COUNT = 1000;
+
+    private FreeSlotSearch() {
+    }
+
+    /**
+     * Collects the earliest common free timeslots at or after the given start.
+     * @param participants List of BusySources of the participants, e.g. Persons
+     * @param preferred WeeklyMask of preferred timeslots, must not be empty
+     * @param fromHour  long epoch hour to start searching from (inclusive)
+     * @param count     int amount of timeslots to find
+     * @return long[] of epoch hours of found timeslots, in chronological order; fewer than count only if
+     *         the horizon was reached
+     */
+    public static long[] findCommonFreeSlots(List<? extends BusySource> participants, WeeklyMask preferred,
+                                             long fromHour, int count) {
+        long[] found = new long[count];
+        int size = 0;
+        long wordIndex = fromHour >> AvailabilityCalendar.WORD_BITS;
+        // Ignore hours before 'fromHour' within the first word
+        long startMask = -1L << fromHour;
+        long lastWord = (fromHour + HORIZON_HOURS) >> AvailabilityCalendar.WORD_BITS;
+        while (size < count && wordIndex <= lastWord) {
+            long free = preferred.word(wordIndex) & startMask;
+            for (int i = 0; i < participants.size() && free != 0; i++) {
+                BusySource participant = participants.get(i);
+                free &= participant.availableWord(wordIndex) & ~participant.busyWord(wordIndex);
+            }
+            while (free != 0 && size < count) {
+                found[size++] = (wordIndex << AvailabilityCalendar.WORD_BITS) + Long.numberOfTrailingZeros(free);
+                free &= free - 1;   // clear lowest set bit
+            }
+            startMask = -1L;
+            wordIndex++;
+        }
+        return size == count ? found : Arrays.copyOf(found, size);
+    }
+}
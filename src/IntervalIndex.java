@@ -0,0 +1,134 @@
+import java.util.Arrays;
+
+/**
+ * One person's meetings that do not fill whole hours, as sorted [start, end) intervals of epoch minutes.
+ * A person's meetings never overlap, so intervals sorted by start are sorted by end too, and whether a new
+ * interval overlaps any is answered by a binary search for its neighbour: O(log n), without tree nodes.
+ * Every hour an interval touches is reported busy by busyWord(), so searches for whole-hour timeslots
+ * need not know about minutes.
+ * Thread-safe: all access is synchronized, except isEmpty(), which lets a Person without such meetings
+ * skip the index lock-free.
+ */
+final class IntervalIndex implements BusySource {
+
+    private static final long[] EMPTY = new long[0];
+
+    private long[] starts = EMPTY;  // epoch minutes, inclusive
+    private long[] ends = EMPTY;    // epoch minutes, exclusive
+    private volatile int size;
+
+    /**
+     * Adds the interval, unless it overlaps one already added.
+     * @param fromMinute long epoch minute of start (inclusive)
+     * @param toMinute   long epoch minute of end (exclusive)
+     * @return true if added, false on overlap
+     */
+    synchronized boolean tryAdd(long fromMinute, long toMinute) {
+        int position = firstStartingAtOrAfter(toMinute);
+        if (position > 0 && ends[position - 1] > fromMinute) return false;
+        int count = size;
+        if (count == starts.length) {
+            int capacity = Math.max(4, count + (count >> 1));
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        System.arraycopy(starts, position, starts, position + 1, count - position);
+        System.arraycopy(ends, position, ends, position + 1, count - position);
+        starts[position] = fromMinute;
+        ends[position] = toMinute;
+        size = count + 1;
+        return true;
+    }
+
+    /**
+     * Removes the interval starting at the given minute, e.g. to roll back a tryAdd().
+     */
+    synchronized void remove(long fromMinute) {
+        int position = firstStartingAtOrAfter(fromMinute);
+        int count = size;
+        if (position == count || starts[position] != fromMinute) return;
+        System.arraycopy(starts, position + 1, starts, position, count - position - 1);
+        System.arraycopy(ends, position + 1, ends, position, count - position - 1);
+        size = count - 1;
+    }
+
+    /**
+     * @return true if any interval overlaps [fromMinute, toMinute)
+     */
+    synchronized boolean overlaps(long fromMinute, long toMinute) {
+        int position = firstStartingAtOrAfter(toMinute);
+        return position > 0 && ends[position - 1] > fromMinute;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return long with a set bit for each hour of the word that any interval touches
+     */
+    @Override
+    public synchronized long busyWord(long wordIndex) {
+        long firstHour = wordIndex << AvailabilityCalendar.WORD_BITS;
+        long fromMinute = firstHour * TimeSlots.MINUTES_PER_HOUR;
+        long toMinute = fromMinute + Long.SIZE * TimeSlots.MINUTES_PER_HOUR;
+        long word = 0L;
+        for (int i = firstEndingAfter(fromMinute); i < size && starts[i] < toMinute; i++) {
+            long first = Math.floorDiv(Math.max(starts[i], fromMinute), TimeSlots.MINUTES_PER_HOUR) - firstHour;
+            long last = Math.floorDiv(Math.min(ends[i], toMinute) - 1, TimeSlots.MINUTES_PER_HOUR) - firstHour;
+            word |= (-1L << first) & (-1L >>> (Long.SIZE - 1 - last));
+        }
+        return word;
+    }
+
+    /**
+     * @param fromMinute long epoch minute of start of window (inclusive)
+     * @param toMinute   long epoch minute of end of window (exclusive)
+     * @return long[] of the intervals overlapping the window, as start and end pairs in chronological order
+     */
+    synchronized long[] between(long fromMinute, long toMinute) {
+        int first = firstEndingAfter(fromMinute);
+        int last = firstStartingAtOrAfter(toMinute);
+        if (first >= last) return EMPTY;
+        long[] pairs = new long[2 * (last - first)];
+        for (int i = first; i < last; i++) {
+            pairs[2 * (i - first)] = starts[i];
+            pairs[2 * (i - first) + 1] = ends[i];
+        }
+        return pairs;
+    }
+
+    /**
+     * @return long epoch hour of the first hour any interval touches, or Long.MAX_VALUE without intervals
+     */
+    synchronized long firstHour() {
+        return size == 0 ? Long.MAX_VALUE : Math.floorDiv(starts[0], TimeSlots.MINUTES_PER_HOUR);
+    }
+
+    /**
+     * @return long epoch hour of the last hour any interval touches, or Long.MIN_VALUE without intervals
+     */
+    synchronized long lastHour() {
+        return size == 0 ? Long.MIN_VALUE : Math.floorDiv(ends[size - 1] - 1, TimeSlots.MINUTES_PER_HOUR);
+    }
+
+    private int firstStartingAtOrAfter(long minute) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < minute) low = mid + 1; else high = mid;
+        }
+        return low;
+    }
+
+    private int firstEndingAfter(long minute) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] <= minute) low = mid + 1; else high = mid;
+        }
+        return low;
+    }
+}
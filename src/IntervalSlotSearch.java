@@ -0,0 +1,101 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the earliest timeslots of any length where every participant is free, to the minute.
+ * Sweeps 64 hours at a time. Hours closed to all, i.e. outside the preferred hours or anyone's working hours,
+ * or busy for any participant as a whole, are merged by OR'ing their words, and become one busy interval
+ * per run of closed hours. The intervals of meetings not at whole hours are added to them, and all are
+ * sorted by start, so a single pass finds the gaps long enough for the meeting.
+ * Candidates start at multiples of the granularity, and follow each other back to back within a gap.
+ * A search gives up after FreeSlotSearch.HORIZON_HOURS, like FreeSlotSearch.
+ */
+final class IntervalSlotSearch {
+
+    private static final long WINDOW_MINUTES = (long) Long.SIZE * TimeSlots.MINUTES_PER_HOUR;
+
+    private IntervalSlotSearch() {
+    }
+
+    /**
+     * @param participants    List of BusySources of the participants, e.g. Persons
+     * @param preferred       WeeklyMask of preferred timeslots, which meetings must lie within
+     * @param fromMinute      long epoch minute to start searching from (inclusive)
+     * @param durationMinutes int length of the meeting in minutes
+     * @param granularity     int minutes that start minutes are multiples of, dividing an hour
+     * @param count           int amount of timeslots to find
+     * @return long[] of epoch minutes of found timeslots, in chronological order; fewer than count only if
+     *         the horizon was reached
+     */
+    static long[] findCommonFreeIntervals(List<? extends BusySource> participants, WeeklyMask preferred,
+                                          long fromMinute, int durationMinutes, int granularity, int count) {
+        long[] found = new long[count];
+        int size = 0;
+        long next = alignUp(fromMinute, granularity);   // start of the next candidate
+        long window = Math.floorDiv(fromMinute, WINDOW_MINUTES);
+        long lastWindow = Math.floorDiv(fromMinute + FreeSlotSearch.HORIZON_HOURS * TimeSlots.MINUTES_PER_HOUR,
+                WINDOW_MINUTES);
+        long[] keys = new long[16];
+        while (size < count && window <= lastWindow) {
+            long windowStart = window * WINDOW_MINUTES;
+            long windowEnd = windowStart + WINDOW_MINUTES;
+            // Busy intervals within the window, as (start << 32 | end) relative to its start, so sorting
+            // the longs sorts them by start
+            int keyCount = 0;
+            long closed = ~preferred.word(window);
+            for (BusySource participant : participants) {
+                closed |= ~participant.availableWord(window) | participant.wholeHourBusyWord(window);
+                long[] intervals = participant.busyIntervals(windowStart, windowEnd);
+                if (keyCount + intervals.length / 2 > keys.length) {
+                    keys = Arrays.copyOf(keys, Math.max(2 * keys.length, keyCount + intervals.length / 2));
+                }
+                for (int i = 0; i < intervals.length; i += 2) {
+                    keys[keyCount++] = key(intervals[i], intervals[i + 1], windowStart);
+                }
+            }
+            while (closed != 0) {
+                int first = Long.numberOfTrailingZeros(closed);
+                int end = first + Long.numberOfTrailingZeros(~(closed >>> first));   // first open hour after the run
+                if (keyCount == keys.length) {
+                    keys = Arrays.copyOf(keys, 2 * keys.length);
+                }
+                keys[keyCount++] = ((long) first * TimeSlots.MINUTES_PER_HOUR << 32)
+                        | (end >= Long.SIZE ? WINDOW_MINUTES : (long) end * TimeSlots.MINUTES_PER_HOUR);
+                closed = end >= Long.SIZE ? 0 : closed & (-1L << end);
+            }
+            Arrays.sort(keys, 0, keyCount);
+            // Fill the gap before each busy interval with candidates, then skip past it
+            for (int i = 0; i < keyCount && size < count; i++) {
+                long busyStart = windowStart + (keys[i] >>> 32);
+                long busyEnd = windowStart + (keys[i] & 0xFFFFFFFFL);
+                while (size < count && next + durationMinutes <= busyStart) {
+                    found[size++] = next;
+                    next += durationMinutes;
+                }
+                if (next < busyEnd) {
+                    next = alignUp(busyEnd, granularity);
+                }
+            }
+            // A gap still open at the end of the window may continue into the next one
+            while (size < count && next + durationMinutes <= windowEnd) {
+                found[size++] = next;
+                next += durationMinutes;
+            }
+            window++;
+        }
+        return size == count ? found : Arrays.copyOf(found, size);
+    }
+
+    /**
+     * @return long of the interval clipped to the window, relative to its start
+     */
+    private static long key(long fromMinute, long toMinute, long windowStart) {
+        long start = Math.max(fromMinute, windowStart) - windowStart;
+        long end = Math.min(toMinute, windowStart + WINDOW_MINUTES) - windowStart;
+        return start << 32 | end;
+    }
+
+    private static long alignUp(long minute, int granularity) {
+        return Math.ceilDiv(minute, granularity) * granularity;
+    }
+}
@@ -0,0 +1,253 @@
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Minimal streaming JSON reader, pulling one token at a time from a Reader instead of parsing a whole
+ * document into a tree first. Callers read values in the order they expect them, and skip the rest.
+ * Malformed input is reported as an IOException. Not thread-safe: one reader per request.
+ */
+final class JsonReader {
+
+    private final Reader in;
+    private final char[] buffer = new char[4096];
+    private int position;
+    private int limit;
+    private boolean expectComma;    // a value was read, so a comma or closing bracket is next, see hasNext()
+
+    JsonReader(Reader in) {
+        this.in = in;
+    }
+
+    void beginObject() throws IOException {
+        expect('{');
+        expectComma = false;
+    }
+
+    void endObject() throws IOException {
+        expect('}');
+        expectComma = true;
+    }
+
+    void beginArray() throws IOException {
+        expect('[');
+        expectComma = false;
+    }
+
+    void endArray() throws IOException {
+        expect(']');
+        expectComma = true;
+    }
+
+    /**
+     * Consumes the comma before the next member, which must separate every member from the one before.
+     * @return true if the current object or array has another member
+     */
+    boolean hasNext() throws IOException {
+        int c = peekToken();
+        if (c == '}' || c == ']') return false;
+        if (expectComma) {
+            if (c != ',') {
+                throw syntaxError("',' or closing bracket");
+            }
+            position++;
+            expectComma = false;
+            c = peekToken();
+            if (c == '}' || c == ']') {
+                throw syntaxError("value after ','");
+            }
+        }
+        return true;
+    }
+
+    String nextName() throws IOException {
+        String name = nextString();
+        expect(':');
+        expectComma = false;
+        return name;
+    }
+
+    String nextString() throws IOException {
+        if (peekToken() != '"') {
+            throw syntaxError("string");
+        }
+        position++;
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            char c = read();
+            if (c == '"') break;
+            if (c == '\\') {
+                c = read();
+                switch (c) {
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    case 't':
+                        c = '\t';
+                        break;
+                    case 'b':
+                        c = '\b';
+                        break;
+                    case 'f':
+                        c = '\f';
+                        break;
+                    case 'u':
+                        c = nextHexChar();
+                        break;
+                    default:
+                        break;      // '"', '\\' and '/' stand for themselves
+                }
+            }
+            value.append(c);
+        }
+        expectComma = true;
+        return value.toString();
+    }
+
+    /**
+     * Reads the four hex digits of a unicode escape, after its backslash and 'u'.
+     */
+    private char nextHexChar() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            char c = read();
+            int digit = c < 128 ? Character.digit(c, 16) : -1;
+            if (digit < 0) {
+                throw new IOException("Expected hex digit of unicode escape in JSON input, was: '" + c + "'");
+            }
+            value = value << 4 | digit;
+        }
+        return (char) value;
+    }
+
+    long nextLong() throws IOException {
+        String number = nextLiteral();
+        try {
+            return Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            throw new IOException("Expected whole number, was: " + number);
+        }
+    }
+
+    int nextInt() throws IOException {
+        long value = nextLong();
+        if (value != (int) value) {
+            throw new IOException("Number out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    boolean nextBoolean() throws IOException {
+        String literal = nextLiteral();
+        switch (literal) {
+            case "true":
+                return true;
+            case "false":
+                return false;
+            default:
+                throw new IOException("Expected true or false, was: " + literal);
+        }
+    }
+
+    /**
+     * @return true if the next value is null, which is then consumed
+     */
+    boolean nextNull() throws IOException {
+        if (peekToken() != 'n') return false;
+        if (!nextLiteral().equals("null")) {
+            throw syntaxError("null");
+        }
+        return true;
+    }
+
+    /**
+     * Skips the next value, including everything nested in it.
+     */
+    void skipValue() throws IOException {
+        int c = peekToken();
+        if (c == '"') {
+            nextString();
+        } else if (c == '{') {
+            beginObject();
+            while (hasNext()) {
+                nextName();
+                skipValue();
+            }
+            endObject();
+        } else if (c == '[') {
+            beginArray();
+            while (hasNext()) {
+                skipValue();
+            }
+            endArray();
+        } else {
+            nextLiteral();
+        }
+    }
+
+    /**
+     * Reads a number, true, false or null as its text.
+     */
+    private String nextLiteral() throws IOException {
+        peekToken();
+        StringBuilder literal = new StringBuilder();
+        while (true) {
+            if (position == limit && !fill()) break;
+            char c = buffer[position];
+            if (!(Character.isLetterOrDigit(c) || c == '-' || c == '+' || c == '.')) break;
+            literal.append(c);
+            position++;
+        }
+        if (literal.isEmpty()) {
+            throw syntaxError("value");
+        }
+        expectComma = true;
+        return literal.toString();
+    }
+
+    private void expect(char wanted) throws IOException {
+        if (peekToken() != wanted) {
+            throw syntaxError("'" + wanted + "'");
+        }
+        position++;
+    }
+
+    /**
+     * Skips whitespace.
+     * @return int next character without consuming it, or -1 at the end of input
+     */
+    private int peekToken() throws IOException {
+        while (true) {
+            if (position == limit && !fill()) return -1;
+            char c = buffer[position];
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                position++;
+            } else {
+                return c;
+            }
+        }
+    }
+
+    private char read() throws IOException {
+        if (position == limit && !fill()) {
+            throw new IOException("Unexpected end of JSON input");
+        }
+        return buffer[position++];
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer, 0, buffer.length);
+        if (read <= 0) return false;
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private IOException syntaxError(String expected) throws IOException {
+        int c = peekToken();
+        return new IOException("Expected " + expected + " in JSON input, was: "
+                + (c < 0 ? "end of input" : "'" + (char) c + "'"));
+    }
+}
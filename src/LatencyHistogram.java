@@ -0,0 +1,96 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of non-negative values, e.g. latencies in nanoseconds, in log-linear buckets like HdrHistogram:
+ * each power of two is split into 8 buckets, so a value is known to within 12.5%, with 312 buckets covering
+ * 0 to 2^40 (about 18 minutes in nanoseconds). Larger values are counted in the last bucket.
+ * Recording finds the bucket with a few shifts and adds to its LongAdder, which spreads contended updates
+ * over cells, so recording is lock-free and costs a few nanoseconds. Reading sums the buckets, and may
+ * miss values recorded meanwhile.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;                  // 8 buckets per power of two
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param value long value to count, negative values counting as 0
+     */
+    void record(long value) {
+        value = Math.max(value, 0L);
+        buckets[bucketOf(value)].increment();
+        sum.add(value);
+        if (value > max.get()) {
+            max.accumulate(value);      // rarely, once latencies have settled
+        }
+    }
+
+    long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    long getSum() {
+        return sum.sum();
+    }
+
+    long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param quantile double between 0 and 1, e.g. 0.99
+     * @return long highest value of the bucket holding the quantile, at most the maximum; 0 without values
+     */
+    long valueAt(double quantile) {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        if (count == 0) return 0L;
+        long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = Math.min(Long.SIZE - 1 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+        if (exponent == MAX_EXPONENT && value >>> MAX_EXPONENT != 1) return BUCKETS - 1;
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        if (bucket == BUCKETS - 1) return Long.MAX_VALUE;
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long lowest = (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+        return lowest + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,248 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Load test of SchedulerServer: fires many concurrent suggestTimeslots requests over HTTP, each from its own
+ * virtual thread, after creating people and booking meetings through the same API.
+ * Without a url it serves a Scheduler in-process on a free localhost port, and checks every suggestion
+ * received against the one the Scheduler gives when called directly. Against a url it only checks that
+ * each response is well-formed. Exits with status 1 on any failed request or mismatch.
+ * Run with optional args: [requests] [concurrency] [url]
+ */
+public class LoadTestClient {
+
+    private static final int PEOPLE = 1_000;
+    private static final int MEETINGS = 5_000;
+    private static final int COUNT = 3;     // timeslots per suggestion
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 1_000;
+        Scheduler scheduler = null;
+        SchedulerServer server = null;
+        String url;
+        Clock clock;
+        if (args.length > 2) {
+            url = args[2].endsWith("/") ? args[2].substring(0, args[2].length() - 1) : args[2];
+            clock = Clock.systemUTC();
+        } else {
+            // Fixed clock, so direct calls suggest the same timeslots however long the test runs
+            clock = Clock.fixed(Instant.parse("2030-01-01T00:00:00Z"), ZoneOffset.UTC);
+            scheduler = new Scheduler(PersonRegistry.KeyMode.EXACT, Scheduler.Mode.CONCURRENT, clock);
+            server = new SchedulerServer(scheduler, new InetSocketAddress("localhost", 0));
+            server.start();
+            url = "http://localhost:" + server.getPort();
+        }
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(threads).build()) {
+            // People and meetings, created through the API; repeated runs against a url get 409s, which is fine
+            Semaphore inFlight = new Semaphore(concurrency);
+            AtomicInteger failures = new AtomicInteger();
+            long firstHour = TimeSlots.toEpochHour(LocalDateTime.now(clock)) + 24;
+            Random random = new Random(42);
+            List<String> setup = new ArrayList<>(PEOPLE + MEETINGS);
+            for (int i = 0; i < PEOPLE; i++) {
+                setup.add(toJson("name", "Load" + i, "email", email(i)));
+            }
+            try (ExecutorService setupThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (String person : setup) {
+                    setupThreads.submit(() -> post(client, inFlight, url + "/people", person, failures, 201, 409));
+                }
+            }
+            setup.clear();
+            for (int i = 0; i < MEETINGS; i++) {
+                long epochHour = firstHour + random.nextInt(14 * 24);
+                setup.add("{\"epochHour\":" + epochHour + ",\"participants\":" + emails(random, 2 + random.nextInt(3)) + "}");
+            }
+            try (ExecutorService setupThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (String meeting : setup) {
+                    setupThreads.submit(() -> post(client, inFlight, url + "/meetings", meeting, failures, 201, 409));
+                }
+            }
+
+            // Suggestions, all in flight together up to the concurrency limit
+            String[] bodies = new String[requests];
+            for (int i = 0; i < requests; i++) {
+                bodies[i] = "{\"participants\":" + emails(random, 2 + random.nextInt(3)) + ",\"count\":" + COUNT + "}";
+            }
+            AtomicReferenceArray<List<String>> received = new AtomicReferenceArray<>(requests);
+            long[] latencies = new long[requests];
+            long startNanos = System.nanoTime();
+            try (ExecutorService requestThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < requests; i++) {
+                    final int request = i;
+                    requestThreads.submit(() -> received.set(request,
+                            suggest(client, inFlight, url, bodies[request], failures, latencies, request)));
+                }
+            }
+            long millis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+
+            int mismatches = 0;
+            for (int i = 0; i < requests; i++) {
+                List<String> timeslots = received.get(i);
+                if (timeslots == null) continue;    // counted as failure
+                if (scheduler != null) {
+                    List<String> expected = expectedSuggestion(scheduler, bodies[i]);
+                    if (!expected.equals(timeslots)) {
+                        System.out.println("MISMATCH: " + bodies[i] + " got " + timeslots + " expected " + expected);
+                        mismatches++;
+                    }
+                } else if (timeslots.size() != COUNT) {
+                    System.out.println("MISMATCH: " + bodies[i] + " got " + timeslots);
+                    mismatches++;
+                }
+            }
+            Arrays.sort(latencies);
+            System.out.println("> " + requests + " suggestions, " + concurrency + " concurrent, in " + millis + " ms ("
+                    + requests * 1000L / millis + " req/s), latency p50 " + latencies[requests / 2] / 1_000_000
+                    + " ms, p99 " + latencies[(int) (requests * 0.99)] / 1_000_000 + " ms: "
+                    + failures + " failures, " + mismatches + " mismatches");
+            if (failures.get() > 0 || mismatches > 0) {
+                System.exit(1);
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    /**
+     * @return List<String> of suggested timeslots, or null if the request failed
+     */
+    private static List<String> suggest(HttpClient client, Semaphore inFlight, String url, String body,
+                                        AtomicInteger failures, long[] latencies, int request) {
+        inFlight.acquireUninterruptibly();
+        long sent = System.nanoTime();  // latency of the request itself, not of waiting for its turn
+        try {
+            HttpResponse<InputStream> response = client.send(request(url + "/suggestions", body),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            try (InputStream in = response.body()) {
+                if (response.statusCode() != 200) {
+                    System.out.println("FAILED: " + body + " status " + response.statusCode());
+                    failures.incrementAndGet();
+                    return null;
+                }
+                // Decoded while streaming in, as the server encodes it
+                JsonReader json = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+                ArrayList<String> timeslots = new ArrayList<>(COUNT);
+                json.beginObject();
+                while (json.hasNext()) {
+                    if (json.nextName().equals("timeslots")) {
+                        json.beginArray();
+                        while (json.hasNext()) {
+                            timeslots.add(json.nextString());
+                        }
+                        json.endArray();
+                    } else {
+                        json.skipValue();
+                    }
+                }
+                json.endObject();
+                latencies[request] = System.nanoTime() - sent;
+                return timeslots;
+            }
+        } catch (IOException | InterruptedException e) {
+            System.out.println("FAILED: " + body + " " + e);
+            failures.incrementAndGet();
+            return null;
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private static void post(HttpClient client, Semaphore inFlight, String url, String body, AtomicInteger failures,
+                             int... accepted) {
+        inFlight.acquireUninterruptibly();
+        try {
+            int status = client.send(request(url, body), HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (Arrays.stream(accepted).noneMatch(code -> code == status)) {
+                System.out.println("FAILED: " + url + " " + body + " status " + status);
+                failures.incrementAndGet();
+            }
+        } catch (IOException | InterruptedException e) {
+            System.out.println("FAILED: " + url + " " + body + " " + e);
+            failures.incrementAndGet();
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private static HttpRequest request(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static List<String> expectedSuggestion(Scheduler scheduler, String body) {
+        try {
+            JsonReader json = new JsonReader(new java.io.StringReader(body));
+            List<String> participants = new ArrayList<>();
+            json.beginObject();
+            while (json.hasNext()) {
+                if (json.nextName().equals("participants")) {
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        participants.add(json.nextString());
+                    }
+                    json.endArray();
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+            return scheduler.suggestTimeslots(participants, COUNT).stream().map(LocalDateTime::toString).toList();
+        } catch (IOException e) {
+            throw new AssertionError(e);    // bodies are built above
+        }
+    }
+
+    private static String email(int i) {
+        return "load" + i + "@person.com";
+    }
+
+    private static String emails(Random random, int count) {
+        StringBuilder list = new StringBuilder("[");
+        for (int k = 0; k < count; k++) {
+            list.append(k == 0 ? "\"" : ",\"").append(email(random.nextInt(PEOPLE))).append('"');
+        }
+        return list.append(']').toString();
+    }
+
+    private static String toJson(String... namesAndValues) {
+        StringWriter text = new StringWriter();
+        try (JsonWriter json = new JsonWriter(text)) {
+            json.beginObject();
+            for (int i = 0; i < namesAndValues.length; i += 2) {
+                json.name(namesAndValues[i]).value(namesAndValues[i + 1]);
+            }
+            json.endObject();
+        } catch (IOException e) {
+            throw new AssertionError(e);    // writing to memory does not fail
+        }
+        return text.toString();
+    }
+}
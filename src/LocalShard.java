@@ -0,0 +1,220 @@
+import java.security.InvalidParameterException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SchedulerShard served by a Scheduler in the same process, e.g. to run several shards in one JVM,
+ * or behind a SchedulerServer for a coordinator on another node.
+ * Reservations claim each participant's calendar with compare-and-set, like Scheduler.tryCreateMeeting(),
+ * so preparing never blocks, and a conflicting concurrent booking of any kind fails instead of double-booking.
+ * A reservation whose coordinator neither commits nor aborts it, e.g. as it crashed, expires after a timeout
+ * and is released, so its timeslot is not blocked for good. Expired reservations are looked for while preparing.
+ * A commit arriving within another timeout after expiry claims the timeslot again, and books the meeting only
+ * if every participant is still free then; otherwise it fails, and the coordinator reports a partial booking.
+ */
+public class LocalShard implements SchedulerShard {
+
+    /** How long a prepared reservation is held for its commit, unless given to the constructor */
+    public static final Duration DEFAULT_PREPARED_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Scheduler scheduler;
+    private final long timeoutNanos;
+    private final ConcurrentHashMap<Long, Reservation> prepared = new ConcurrentHashMap<>();
+    private volatile long nextExpiry;   // System.nanoTime() of the next look for expired reservations
+
+    /**
+     * Reserved timeslot of a prepared transaction, and the participants it was reserved for.
+     */
+    private static final class Reservation {
+        private final long epochHour;
+        private final ArrayList<Person> participants;
+        private final long expires;     // System.nanoTime() after which the reservation may be released
+        private volatile boolean released;  // timeslot released on expiry, only set within the map's compute
+
+        private Reservation(long epochHour, ArrayList<Person> participants, long expires) {
+            this.epochHour = epochHour;
+            this.participants = participants;
+            this.expires = expires;
+        }
+    }
+
+    /**
+     * @param scheduler Scheduler owning this shard's people, which must be in Mode.CONCURRENT
+     */
+    public LocalShard(Scheduler scheduler) {
+        this(scheduler, DEFAULT_PREPARED_TIMEOUT);
+    }
+
+    /**
+     * @param scheduler       Scheduler owning this shard's people, which must be in Mode.CONCURRENT
+     * @param preparedTimeout Duration a prepared reservation is held for its commit or abort
+     */
+    public LocalShard(Scheduler scheduler, Duration preparedTimeout) {
+        if (scheduler == null || scheduler.getMode() != Scheduler.Mode.CONCURRENT) {
+            throw new InvalidParameterException("Scheduler must be not-null and in Mode.CONCURRENT");
+        }
+        if (preparedTimeout == null || preparedTimeout.isNegative() || preparedTimeout.isZero()) {
+            throw new InvalidParameterException("preparedTimeout must be not-null and positive");
+        }
+        this.scheduler = scheduler;
+        timeoutNanos = preparedTimeout.toNanos();
+        nextExpiry = System.nanoTime() + timeoutNanos;
+    }
+
+    @Override
+    public void createPerson(String name, String email) throws Exception {
+        scheduler.createPerson(name, email);
+    }
+
+    @Override
+    public ShardVote prepareMeeting(long transaction, long epochHour, List<String> emails) throws Exception {
+        if (emails == null || emails.isEmpty()) {
+            throw new InvalidParameterException("Meeting must have at least 1 participant.");
+        }
+        if (!TimeSlots.isSupported(epochHour)) {
+            throw new InvalidParameterException("Timeslot must be within years 0000-9999, was epoch hour "
+                    + epochHour);
+        }
+        long now = System.nanoTime();
+        if (now - nextExpiry >= 0) {
+            releaseExpired(now);
+        }
+        ArrayList<Person> participants = new ArrayList<>(emails.size());
+        for (String email : emails) {
+            Person person = scheduler.getPersonFromEmail(email);
+            if (!participants.contains(person)) {
+                participants.add(person);
+            }
+        }
+        Person conflict = reserve(epochHour, participants);
+        if (conflict != null) {
+            // Report everyone busy, not just the first found
+            ArrayList<String> conflictingEmails = new ArrayList<>();
+            for (Person person : participants) {
+                if (person == conflict || person.isBusy(epochHour)) {
+                    conflictingEmails.add(person.getEmail());
+                }
+            }
+            return ShardVote.conflict(conflictingEmails);
+        }
+        if (prepared.putIfAbsent(transaction, new Reservation(epochHour, participants, now + timeoutNanos)) != null) {
+            release(epochHour, participants);
+            throw new InvalidParameterException("Transaction already prepared: " + transaction);
+        }
+        ArrayList<String> names = new ArrayList<>(participants.size());
+        for (Person person : participants) {
+            names.add(person.getName());
+        }
+        return ShardVote.reserved(names);
+    }
+
+    @Override
+    public void commitMeeting(long transaction, List<String> names, List<String> emails) throws Exception {
+        // Validated before taking the reservation, which an invalid commit leaves prepared
+        if (names == null || emails == null || names.size() != emails.size() || emails.isEmpty()
+                || containsNull(names) || containsNull(emails)) {
+            throw new InvalidParameterException("names and emails must be not-null and of the same participants");
+        }
+        Reservation reservation = prepared.remove(transaction);
+        if (reservation == null) {
+            throw new Exception("Transaction not prepared, or expired too long ago: " + transaction);
+        }
+        // Released on expiry, so claim the timeslot again, as other bookings may have taken it meanwhile
+        if (reservation.released && reserve(reservation.epochHour, reservation.participants) != null) {
+            throw new Exception("Transaction expired, and its timeslot was taken meanwhile: " + transaction);
+        }
+        try {
+            scheduler.bookShardMeeting(reservation.epochHour, reservation.participants, names, emails);
+        } catch (RuntimeException e) {
+            // Nothing was stored, so the timeslot must not stay claimed. An IOException of the journal is not
+            // caught: the meeting is booked by then, as with Scheduler.createMeeting()
+            release(reservation.epochHour, reservation.participants);
+            throw e;
+        }
+    }
+
+    @Override
+    public void abortMeeting(long transaction) {
+        Reservation reservation = prepared.remove(transaction);
+        if (reservation != null && !reservation.released) {
+            release(reservation.epochHour, reservation.participants);
+        }
+    }
+
+    @Override
+    public long[] busyWords(List<String> emails, long fromWord, int words) {
+        long[] busy = new long[words];
+        for (String email : emails) {
+            Person person = scheduler.lookup(email);
+            if (person == null) continue;
+            for (int w = 0; w < words; w++) {
+                busy[w] |= person.busyWord(fromWord + w) | ~person.availableWord(fromWord + w);
+            }
+        }
+        return busy;
+    }
+
+    @Override
+    public Collection<Meeting> getMeetingsBetween(String email, long fromHour, long toHour) throws Exception {
+        return scheduler.getPersonFromEmail(email).getMeetingsBetween(fromHour, toHour);
+    }
+
+    Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Releases every reservation past its timeout, unless committed or aborted meanwhile, keeping it for a late
+     * commit, and forgets those expired more than another timeout ago.
+     */
+    private void releaseExpired(long now) {
+        nextExpiry = now + timeoutNanos / 4;
+        for (Map.Entry<Long, Reservation> entry : prepared.entrySet()) {
+            Reservation reservation = entry.getValue();
+            if (now - reservation.expires < 0) continue;
+            boolean forget = now - reservation.expires - timeoutNanos >= 0;
+            // Atomic with a commit or abort removing the reservation, which then sees whether it was released
+            prepared.computeIfPresent(entry.getKey(), (transaction, current) -> {
+                if (current != reservation) return current;
+                if (!current.released) {
+                    release(current.epochHour, current.participants);
+                    current.released = true;
+                }
+                return forget ? null : current;
+            });
+        }
+    }
+
+    /**
+     * Claims the timeslot for every participant, or for none of them.
+     * @return Person found busy, or null if claimed for everyone
+     */
+    private static Person reserve(long epochHour, ArrayList<Person> participants) {
+        for (int i = 0; i < participants.size(); i++) {
+            if (!participants.get(i).tryReserve(epochHour)) {
+                for (int j = i - 1; j >= 0; j--) {
+                    participants.get(j).releaseReservation(epochHour);
+                }
+                return participants.get(i);
+            }
+        }
+        return null;
+    }
+
+    private static boolean containsNull(List<String> values) {
+        for (String value : values) {
+            if (value == null) return true;
+        }
+        return false;
+    }
+
+    private static void release(long epochHour, ArrayList<Person> participants) {
+        for (Person person : participants) {
+            person.releaseReservation(epochHour);
+        }
+    }
+}
@@ -5,8 +5,9 @@ public class Main {
 
     public static void main(String[] args) {
 
-        // Initiate Scheduler
+        // Initiate Scheduler, reporting everything it does to console
         Scheduler scheduler = new Scheduler();
+        scheduler.setListener(new ConsoleSchedulerListener());
 
         // Creating persons
         try {
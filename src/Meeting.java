@@ -1,35 +1,121 @@
+import java.io.PrintStream;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 
+/**
+ * A booked meeting, as a view of one meeting of a MeetingSource. Holds no data of its own, so Meeting
+ * objects only exist while used, and two views of the same meeting are equal.
+ */
 public class Meeting {
 
-    // For database integration: add ID field as primary key
-    private final LocalDateTime timeSlot;
-    private final ArrayList<Person> participants;
+    // For database integration: the index identifies the meeting within its source, e.g. as primary key
+    private final MeetingSource source;
+    private final int index;
 
 
-    public Meeting(LocalDateTime timeSlot, ArrayList<Person> participants) {
-        this.timeSlot = timeSlot;
-        this.participants = participants;
+    Meeting(MeetingSource source, int index) {
+        this.source = source;
+        this.index = index;
     }
 
     public void print() {
-        System.out.println("Displaying Meeting at: "+timeSlot+" - "+timeSlot.getDayOfWeek());
-        System.out.println("    Participants:");
-        for(Person person : participants) {
-            System.out.println("    "+person.getName()+"|"+person.getEmail());
+        print(System.out);
+    }
+
+    public void print(PrintStream out) {
+        LocalDateTime timeSlot = getTimeslot();
+        if (isWholeHour()) {
+            out.println("Displaying Meeting at: "+timeSlot+" - "+timeSlot.getDayOfWeek());
+        } else {
+            out.println("Displaying Meeting at: "+timeSlot+" until "+getEnd().toLocalTime()
+                    +" - "+timeSlot.getDayOfWeek());
+        }
+        out.println("    Participants:");
+        for (int i = 0; i < getParticipantCount(); i++) {
+            Person person = getParticipant(i);
+            out.println("    "+person.getName()+"|"+person.getEmail());
         }
     }
 
+    /**
+     * @return LocalDateTime the meeting starts at
+     */
     public LocalDateTime getTimeslot() {
-        return timeSlot;
+        return TimeSlots.fromEpochMinute(getStartMinute());
+    }
+
+    /**
+     * @return LocalDateTime the meeting ends at (exclusive)
+     */
+    public LocalDateTime getEnd() {
+        return TimeSlots.fromEpochMinute(getStartMinute() + getDurationMinutes());
+    }
+
+    public Duration getDuration() {
+        return Duration.ofMinutes(getDurationMinutes());
+    }
+
+    /**
+     * @return long epoch hour of the timeslot, see TimeSlots; the hour the meeting starts in, if not at a whole hour
+     */
+    public long getEpochHour() {
+        return source.epochHour(index);
+    }
+
+    /**
+     * @return long epoch minute the meeting starts at, see TimeSlots
+     */
+    public long getStartMinute() {
+        return source.startMinute(index);
+    }
+
+    public int getDurationMinutes() {
+        return source.durationMinutes(index);
     }
 
-    public void addParticipant(Person p) {
-        participants.add(p);
+    /**
+     * @return true if the meeting starts at the hour mark and lasts exactly one hour
+     */
+    public boolean isWholeHour() {
+        return getDurationMinutes() == TimeSlots.MINUTES_PER_HOUR
+                && Math.floorMod(getStartMinute(), TimeSlots.MINUTES_PER_HOUR) == 0;
     }
 
+    public int getParticipantCount() {
+        return source.participantCount(index);
+    }
+
+    public Person getParticipant(int i) {
+        return source.participant(index, i);
+    }
+
+    /**
+     * @return ArrayList<Person> of participants, a new list on every call
+     */
     public ArrayList<Person> getParticipants(){
+        ArrayList<Person> participants = new ArrayList<>(getParticipantCount());
+        for (int i = 0; i < getParticipantCount(); i++) {
+            participants.add(getParticipant(i));
+        }
         return participants;
     }
+
+    MeetingSource getSource() {
+        return source;
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Meeting meeting && meeting.source == source && meeting.index == index;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(source) * 31 + index;
+    }
 }
@@ -0,0 +1,66 @@
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+
+/**
+ * One person's meetings, as an int[] of meeting indices of a MeetingSource sorted by start minute.
+ * Costs 4 bytes per meeting, instead of the entry, node and boxed key objects of a sorted map.
+ * A person's meetings never overlap, so start minutes identify entries.
+ * Thread-safe: all access is synchronized, each call being a binary search or a single insert.
+ */
+final class MeetingIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    private MeetingSource source;   // of all meetings of the index, set by the first added
+    private int[] meetings = EMPTY;
+    private int size;
+
+    /**
+     * @param source  MeetingSource of the meeting, the same for every meeting added
+     * @param meeting int index of the meeting within the source
+     */
+    synchronized void add(MeetingSource source, int meeting) {
+        if (this.source == null) {
+            this.source = source;
+        } else if (this.source != source) {
+            throw new InvalidParameterException("Meetings of a Person must all be booked by the same Scheduler");
+        }
+        int position = lowerBound(source.startMinute(meeting));
+        if (size == meetings.length) {
+            meetings = Arrays.copyOf(meetings, Math.max(4, size + (size >> 1)));
+        }
+        System.arraycopy(meetings, position, meetings, position + 1, size - position);
+        meetings[position] = meeting;
+        size++;
+    }
+
+    /**
+     * @param fromMinute long epoch minute (inclusive)
+     * @return int index of the first meeting starting at or after fromMinute, or -1 if there is none
+     */
+    synchronized int firstFrom(long fromMinute) {
+        int position = lowerBound(fromMinute);
+        return position < size ? meetings[position] : -1;
+    }
+
+    /**
+     * @return int amount of meetings starting within fromMinute (inclusive) and toMinute (exclusive)
+     */
+    synchronized int count(long fromMinute, long toMinute) {
+        return Math.max(0, lowerBound(toMinute) - lowerBound(fromMinute));
+    }
+
+    synchronized MeetingSource getSource() {
+        return source;
+    }
+
+    private int lowerBound(long epochMinute) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (source.startMinute(meetings[mid]) < epochMinute) low = mid + 1; else high = mid;
+        }
+        return low;
+    }
+}
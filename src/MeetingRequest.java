@@ -0,0 +1,56 @@
+import java.security.InvalidParameterException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A meeting to be booked as part of a batch, see Scheduler.createMeetings().
+ */
+public class MeetingRequest {
+
+    private final long epochHour;
+    private final List<String> emailParticipants;
+
+    /**
+     * @param epochHour         long hours since 1970-01-01T00:00, see TimeSlots
+     * @param emailParticipants List of Strings of emails of participants
+     */
+    public MeetingRequest(long epochHour, List<String> emailParticipants) {
+        if (emailParticipants == null) {
+            throw new InvalidParameterException("List<String> emailParticipants must be not-null");
+        }
+        this.epochHour = epochHour;
+        this.emailParticipants = emailParticipants;
+    }
+
+    /**
+     * @param stringTimeSlot    String with date pattern "HH-dd-MM-yyyy", using 24-hour count.
+     * @param emailParticipants List of Strings of emails of participants
+     */
+    public MeetingRequest(String stringTimeSlot, List<String> emailParticipants) {
+        this(TimeSlots.parseEpochHour(stringTimeSlot), emailParticipants);
+    }
+
+    /**
+     * @param timeSlot          LocalDateTime, minutes and smaller units are disregarded
+     * @param emailParticipants List of Strings of emails of participants
+     */
+    public MeetingRequest(LocalDateTime timeSlot, List<String> emailParticipants) {
+        this(TimeSlots.toEpochHour(timeSlot), emailParticipants);
+    }
+
+    public long getEpochHour() {
+        return epochHour;
+    }
+
+    public LocalDateTime getTimeslot() {
+        return TimeSlots.fromEpochHour(epochHour);
+    }
+
+    public List<String> getEmailParticipants() {
+        return emailParticipants;
+    }
+
+    public String toString() {
+        return getTimeslot() + " " + emailParticipants;
+    }
+}
@@ -0,0 +1,61 @@
+import java.io.PrintStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+/**
+ * A recurring meeting: one set of participants meeting by a Recurrence rule.
+ * Stored once, however many occurrences it has, and only expanded into timeslots within a queried window.
+ */
+public class MeetingSeries {
+
+    private final Recurrence recurrence;
+    private final ArrayList<Person> participants;
+
+    public MeetingSeries(Recurrence recurrence, ArrayList<Person> participants) {
+        this.recurrence = recurrence;
+        this.participants = participants;
+    }
+
+    /**
+     * Expands the occurrences within a window.
+     * @param from LocalDateTime start of window (inclusive)
+     * @param to   LocalDateTime end of window (exclusive)
+     * @return ArrayList<LocalDateTime> of timeslots of occurrences within the window, in chronological order
+     */
+    public ArrayList<LocalDateTime> getOccurrences(LocalDateTime from, LocalDateTime to) {
+        ArrayList<LocalDateTime> occurrences = new ArrayList<>();
+        long end = TimeSlots.toEpochHour(to);
+        for (long h = recurrence.nextOccurrence(TimeSlots.toEpochHour(from)); h < end;
+             h = recurrence.nextOccurrence(h + 1)) {
+            occurrences.add(TimeSlots.fromEpochHour(h));
+        }
+        return occurrences;
+    }
+
+    /**
+     * Cancels a single occurrence, freeing its timeslot for all participants, see Scheduler.cancelOccurrence().
+     * @param epochHour long epoch hour of the occurrence
+     */
+    void cancelOccurrence(long epochHour) {
+        recurrence.addException(epochHour);
+        for (Person person : participants) {
+            person.availabilityChanged(epochHour, epochHour);
+        }
+    }
+
+    public void print(PrintStream out) {
+        out.println("Displaying recurring Meeting: " + recurrence);
+        out.println("    Participants:");
+        for (Person person : participants) {
+            out.println("    " + person.getName() + "|" + person.getEmail());
+        }
+    }
+
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    public ArrayList<Person> getParticipants() {
+        return participants;
+    }
+}
@@ -0,0 +1,41 @@
+/**
+ * Columns of meetings, each meeting identified by an int index, which a Meeting is a view of.
+ * Implemented by the MeetingStore of a Scheduler, and by a mapped ColumnarSnapshot.
+ */
+interface MeetingSource {
+
+    /**
+     * @param meeting int index of meeting
+     * @return long epoch hour of the meeting's timeslot
+     */
+    long epochHour(int meeting);
+
+    /**
+     * @param meeting int index of meeting
+     * @return long epoch minute the meeting starts at, at the start of its epoch hour by default
+     */
+    default long startMinute(int meeting) {
+        return epochHour(meeting) * TimeSlots.MINUTES_PER_HOUR;
+    }
+
+    /**
+     * @param meeting int index of meeting
+     * @return int length of the meeting in minutes, a whole hour by default
+     */
+    default int durationMinutes(int meeting) {
+        return TimeSlots.MINUTES_PER_HOUR;
+    }
+
+    /**
+     * @param meeting int index of meeting
+     * @return int amount of participants of the meeting
+     */
+    int participantCount(int meeting);
+
+    /**
+     * @param meeting int index of meeting
+     * @param i       int position of participant, 0 to participantCount() - 1
+     * @return Person participating in the meeting
+     */
+    Person participant(int meeting, int i);
+}
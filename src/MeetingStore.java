@@ -0,0 +1,145 @@
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * All meetings booked in a Scheduler, as primitive columns rather than one object graph per meeting.
+ * A meeting is its int index: its start minute is kept in a long column and its length in minutes in an
+ * int column, its participants as person ids, see PersonRegistry, in one shared int column (CSR layout:
+ * participants of meeting m are the ids from the end of meeting m - 1 up to the end of meeting m).
+ * With three participants a meeting takes 28 bytes, and Meeting objects are only created as views, when asked for.
+ * Columns are allocated in chunks of 4096 entries, so growing never copies meetings already stored.
+ * Thread-safe: appending is synchronized, reading is lock-free. An index is only handed out once
+ * its meeting is fully stored, so readers never see a partly stored meeting.
+ */
+final class MeetingStore implements MeetingSource {
+
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final PersonRegistry people;
+    // Chunk directories, replaced as a whole when a chunk is added
+    private volatile long[][] starts = new long[0][];          // by meeting, epoch minute
+    private volatile int[][] durations = new int[0][];         // by meeting, minutes
+    private volatile int[][] participantEnds = new int[0][];   // by meeting, position after its last participant
+    private volatile int[][] participantIds = new int[0][];    // by position
+    private volatile int size;
+    private int participants;   // positions used, guarded by the store's monitor
+
+    /**
+     * @param people PersonRegistry resolving the person ids of participants
+     */
+    MeetingStore(PersonRegistry people) {
+        this.people = people;
+    }
+
+    /**
+     * @param epochHour long epoch hour of timeslot
+     * @param ids       int[] of ids of distinct participants
+     * @return int index of the new meeting, lasting the whole hour
+     */
+    int add(long epochHour, int[] ids) {
+        return add(epochHour * TimeSlots.MINUTES_PER_HOUR, TimeSlots.MINUTES_PER_HOUR, ids);
+    }
+
+    /**
+     * @param startMinute     long epoch minute the meeting starts at
+     * @param durationMinutes int length of the meeting in minutes
+     * @param ids             int[] of ids of distinct participants
+     * @return int index of the new meeting
+     */
+    synchronized int add(long startMinute, int durationMinutes, int[] ids) {
+        int meeting = size;
+        if (participants + ids.length < 0) {
+            throw new IllegalStateException("MeetingStore is full");
+        }
+        if ((meeting & CHUNK_MASK) == 0) {
+            starts = grow(starts, meeting);
+            durations = grow(durations, meeting);
+            participantEnds = grow(participantEnds, meeting);
+        }
+        for (int id : ids) {
+            if ((participants & CHUNK_MASK) == 0) {
+                participantIds = grow(participantIds, participants);
+            }
+            participantIds[participants >>> CHUNK_BITS][participants & CHUNK_MASK] = id;
+            participants++;
+        }
+        starts[meeting >>> CHUNK_BITS][meeting & CHUNK_MASK] = startMinute;
+        durations[meeting >>> CHUNK_BITS][meeting & CHUNK_MASK] = durationMinutes;
+        participantEnds[meeting >>> CHUNK_BITS][meeting & CHUNK_MASK] = participants;
+        size = meeting + 1;     // publishes the meeting
+        return meeting;
+    }
+
+    /**
+     * @return int amount of meetings stored
+     */
+    int size() {
+        return size;
+    }
+
+    @Override
+    public long epochHour(int meeting) {
+        return Math.floorDiv(startMinute(meeting), TimeSlots.MINUTES_PER_HOUR);
+    }
+
+    @Override
+    public long startMinute(int meeting) {
+        return starts[meeting >>> CHUNK_BITS][meeting & CHUNK_MASK];
+    }
+
+    @Override
+    public int durationMinutes(int meeting) {
+        return durations[meeting >>> CHUNK_BITS][meeting & CHUNK_MASK];
+    }
+
+    @Override
+    public int participantCount(int meeting) {
+        return end(meeting) - end(meeting - 1);
+    }
+
+    @Override
+    public Person participant(int meeting, int i) {
+        int position = end(meeting - 1) + i;
+        return people.get(participantIds[position >>> CHUNK_BITS][position & CHUNK_MASK]);
+    }
+
+    /**
+     * @return int position after the last participant of the meeting, 0 for meeting -1
+     */
+    private int end(int meeting) {
+        return meeting < 0 ? 0 : participantEnds[meeting >>> CHUNK_BITS][meeting & CHUNK_MASK];
+    }
+
+    private static long[][] grow(long[][] chunks, int position) {
+        long[][] grown = Arrays.copyOf(chunks, (position >>> CHUNK_BITS) + 1);
+        grown[position >>> CHUNK_BITS] = new long[CHUNK_SIZE];
+        return grown;
+    }
+
+    private static int[][] grow(int[][] chunks, int position) {
+        int[][] grown = Arrays.copyOf(chunks, (position >>> CHUNK_BITS) + 1);
+        grown[position >>> CHUNK_BITS] = new int[CHUNK_SIZE];
+        return grown;
+    }
+
+    /**
+     * @return List<Meeting> of views of the meetings stored so far, created one at a time as they are read
+     */
+    List<Meeting> asList() {
+        int count = size;
+        return new AbstractList<>() {
+            @Override
+            public Meeting get(int index) {
+                return new Meeting(MeetingStore.this, index);
+            }
+
+            @Override
+            public int size() {
+                return count;
+            }
+        };
+    }
+}
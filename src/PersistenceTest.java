@@ -0,0 +1,87 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Test of restoring a persistent Scheduler, see Scheduler.open(). Two series are booked with one Recurrence
+ * and an occurrence of one of them is cancelled, then the freed hour is booked. The directory is reopened
+ * from the journal alone, and again after a checkpoint, and each time the schedules must equal the ones
+ * before. Exits with status 1 on any violation.
+ */
+public class PersistenceTest {
+
+    private static final long FIRST_HOUR = TimeSlots.toEpochHour(LocalDateTime.of(2030, 1, 7, 9, 0));
+    private static final LocalDateTime FROM = TimeSlots.fromEpochHour(FIRST_HOUR);
+    private static final LocalDateTime TO = TimeSlots.fromEpochHour(FIRST_HOUR + 8 * TimeSlots.HOURS_PER_WEEK);
+    private static final List<String> EMAILS = List.of("a@person.com", "b@person.com");
+
+    public static void main(String[] args) throws Exception {
+        int violations = 0;
+        Path directory = Files.createTempDirectory("persistence");
+        Scheduler scheduler = Scheduler.open(directory, PersonRegistry.KeyMode.EXACT, Scheduler.Mode.CONCURRENT);
+        scheduler.createPerson("A", "a@person.com");
+        scheduler.createPerson("B", "b@person.com");
+        Recurrence weekly = new Recurrence(Recurrence.Frequency.WEEKLY, 1, FIRST_HOUR, Recurrence.NO_END);
+        MeetingSeries seriesOfA = scheduler.createMeetingSeries(weekly, List.of("a@person.com")).getSeries();
+        scheduler.createMeetingSeries(weekly, List.of("b@person.com"));
+        long cancelled = FIRST_HOUR + TimeSlots.HOURS_PER_WEEK;
+        scheduler.cancelOccurrence(seriesOfA, TimeSlots.fromEpochHour(cancelled));
+
+        violations += expect(scheduler.tryCreateMeeting(cancelled, List.of("a@person.com")).isBooked(),
+                "freed hour booked for the cancelling series");
+        violations += expect(!scheduler.tryCreateMeeting(cancelled, List.of("b@person.com")).isBooked(),
+                "hour still taken for the series sharing the Recurrence");
+        ArrayList<String> expected = describe(scheduler);
+        scheduler.close();
+
+        for (String restore : List.of("journal", "snapshot")) {
+            try (Scheduler restored = Scheduler.open(directory, PersonRegistry.KeyMode.EXACT,
+                    Scheduler.Mode.CONCURRENT)) {
+                ArrayList<String> actual = describe(restored);
+                violations += expect(expected.equals(actual), "restored from " + restore + ": " + actual
+                        + ", expected " + expected);
+                restored.checkpoint();
+            } catch (Exception e) {
+                violations += expect(false, "restoring from " + restore + " failed: " + e);
+            }
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+
+        System.out.println("> persistence: " + violations + " violations");
+        if (violations > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return ArrayList<String> of each person's meetings and series occurrences within the tested weeks
+     */
+    private static ArrayList<String> describe(Scheduler scheduler) throws Exception {
+        ArrayList<String> described = new ArrayList<>();
+        for (String email : EMAILS) {
+            for (Meeting meeting : scheduler.getScheduleForPerson(email, FROM, TO)) {
+                described.add(email + " meeting " + meeting.getTimeslot());
+            }
+            for (MeetingSeries meetingSeries : scheduler.getPersonFromEmail(email).getSeries()) {
+                described.add(email + " series " + meetingSeries.getOccurrences(FROM, TO));
+            }
+        }
+        return described;
+    }
+
+    private static int expect(boolean condition, String description) {
+        if (!condition) {
+            System.out.println("VIOLATION: " + description);
+            return 1;
+        }
+        return 0;
+    }
+}
@@ -1,59 +1,412 @@
+import java.time.Clock;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.StampedLock;
 
-public class Person {
+public class Person implements BusySource {
+
+    private static final MeetingSeries[] NO_SERIES = new MeetingSeries[0];
 
     private String name;
     private final String email; // Unique identifier
-    private final Schedule schedule;
+    private int id = -1;        // dense id assigned by PersonRegistry, meetings refer to participants by it
+    // Schedule: meetings are kept sorted by timeslot for display, while availability is answered by the
+    // AvailabilityCalendar. A Person has at most one meeting per timeslot, as the calendar claims each
+    // timeslot once. Recurring meetings answer availability by their Recurrence rules. Meetings not at
+    // whole hours are claimed as intervals of minutes instead, which never overlap.
+    private final AvailabilityCalendar calendar;
+    private final IntervalIndex intervals;
+    private final MeetingIndex meetings;
+    private volatile MeetingSeries[] series = NO_SERIES;   // copy-on-write: rarely changed, read on every check
+    private final StampedLock lock; // serializes locked bookings when Scheduler runs concurrently, see Scheduler.Mode
+    private final Clock clock;      // tells which meetings are upcoming
+    private final ColumnarSnapshot.PersonView base; // meetings read from a columnar snapshot, or null
+    private SuggestionCache suggestionCache;        // told about changes of availability, or null
+    private volatile WorkingHours.Mask workingHours; // hours meetings may be suggested at, or null for any
 
 
     public Person(String name, String email) {
+        this(name, email, Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param name  String for name
+     * @param email String for email, unique identifier
+     * @param clock Clock telling the current time, e.g. a fixed Clock for reproducible schedules
+     */
+    public Person(String name, String email, Clock clock) {
+        this(name, email, clock, null);
+    }
+
+    /**
+     * @param base ColumnarSnapshot.PersonView of the Person's meetings in a columnar snapshot, or null.
+     *             Availability and schedules are read straight from it.
+     */
+    Person(String name, String email, Clock clock, ColumnarSnapshot.PersonView base) {
         this.name = name;
         this.email = email;
-        schedule = new Schedule();
+        this.clock = clock;
+        this.base = base;
+        calendar = new AvailabilityCalendar();
+        intervals = new IntervalIndex();
+        meetings = new MeetingIndex();
+        lock = new StampedLock();
     }
 
+    /**
+     * Reads availability lock-free, without blocking concurrent bookings of this Person.
+     */
     public boolean isAvailableThen(LocalDateTime timeSlot) {
-        for (Meeting m : schedule.getMeetings()) {
-            if (m.getTimeslot().equals(timeSlot)) return false;
+        return !isBusy(TimeSlots.toEpochHour(timeSlot));
+    }
+
+    /**
+     * Reads busy hours lock-free, without blocking concurrent bookings of this Person.
+     * Combines single meetings from the calendar with the rules of recurring meetings, and counts
+     * every hour a meeting not at whole hours touches as busy.
+     */
+    @Override
+    public long busyWord(long wordIndex) {
+        long word = wholeHourBusyWord(wordIndex);
+        return intervals.isEmpty() ? word : word | intervals.busyWord(wordIndex);
+    }
+
+    @Override
+    public long wholeHourBusyWord(long wordIndex) {
+        long word = calendar.busyWord(wordIndex);
+        if (base != null) {
+            word |= base.busyWord(wordIndex);
         }
-        return true;
+        for (MeetingSeries meetingSeries : series) {
+            word |= meetingSeries.getRecurrence().busyWord(wordIndex);
+        }
+        return word;
     }
 
+    @Override
+    public long[] busyIntervals(long fromMinute, long toMinute) {
+        return intervals.between(fromMinute, toMinute);
+    }
+
+    /**
+     * Hours at which meetings may be suggested: working hours outside blackouts, or every hour if not set.
+     * Bookings are not held to them.
+     */
+    @Override
+    public long availableWord(long wordIndex) {
+        WorkingHours.Mask mask = workingHours;
+        return mask == null ? -1L : mask.word(wordIndex);
+    }
+
+    /**
+     * @return WorkingHours of this Person, or null if meetings may be suggested at any hour
+     */
+    public WorkingHours getWorkingHours() {
+        WorkingHours.Mask mask = workingHours;
+        return mask == null ? null : mask.getWorkingHours();
+    }
+
+    /**
+     * @param mask WorkingHours.Mask compiled for the Scheduler's zone, or null for any hour
+     */
+    void setWorkingHours(WorkingHours.Mask mask) {
+        workingHours = mask;
+        availabilityChanged(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param epochHour long epoch hour of timeslot
+     * @return true if a single or recurring meeting takes place at the timeslot, during all or part of it
+     */
+    boolean isBusy(long epochHour) {
+        return isBusyAllHour(epochHour) || (!intervals.isEmpty() && intervals.overlaps(
+                epochHour * TimeSlots.MINUTES_PER_HOUR, (epochHour + 1) * TimeSlots.MINUTES_PER_HOUR));
+    }
+
+    /**
+     * @param fromMinute long epoch minute of start (inclusive)
+     * @param toMinute   long epoch minute of end (exclusive)
+     * @return true if any single or recurring meeting takes place during any of the interval
+     */
+    boolean isBusy(long fromMinute, long toMinute) {
+        if (!intervals.isEmpty() && intervals.overlaps(fromMinute, toMinute)) return true;
+        long firstHour = Math.floorDiv(fromMinute, TimeSlots.MINUTES_PER_HOUR);
+        long lastHour = Math.floorDiv(toMinute - 1, TimeSlots.MINUTES_PER_HOUR);
+        for (long epochHour = firstHour; epochHour <= lastHour; epochHour++) {
+            if (isBusyAllHour(epochHour)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if a whole-hour single or recurring meeting takes place at the timeslot
+     */
+    private boolean isBusyAllHour(long epochHour) {
+        return calendar.isBusy(epochHour) || seriesOccursAt(epochHour)
+                || (base != null && base.isBusy(epochHour));
+    }
+
+    /**
+     * Adds meeting to schedule if its timeslot is available.
+     * The timeslot is claimed atomically, so concurrent callers can never both book it.
+     */
     public void scheduleMeeting(Meeting meeting) throws Exception {
-        // check availability
-        for (Meeting m : schedule.getMeetings()) {
-            if (m.getTimeslot().equals(meeting.getTimeslot())){
-                throw new Exception("Meeting timeslot is unavailable for "+this+" at: "+meeting.getTimeslot());
+        boolean reserved = meeting.isWholeHour() ? tryReserve(meeting.getEpochHour())
+                : tryReserve(meeting.getStartMinute(), meeting.getStartMinute() + meeting.getDurationMinutes());
+        if (!reserved) {
+            throw new Exception("Meeting timeslot is unavailable for "+this+" at: "+meeting.getTimeslot());
+        }
+        meetings.add(meeting.getSource(), meeting.getIndex());
+    }
+
+    /**
+     * Claims the timeslot on this Person's calendar without adding a meeting yet.
+     * Must be followed by either addReservedMeeting() or releaseReservation().
+     * @param epochHour long epoch hour of timeslot
+     * @return true if claimed, false if this Person is busy then
+     */
+    boolean tryReserve(long epochHour) {
+        if (base != null && base.isBusy(epochHour)) {
+            return false;   // never changes, so need not be claimed
+        }
+        if (!calendar.tryReserve(epochHour)) {
+            return false;
+        }
+        availabilityChanged(epochHour, epochHour);
+        // Claim first, then look for series and intervals: a concurrent addSeries() or tryReserve() of an
+        // interval looks for claims after adding its own, so at least one of the two always sees the other
+        if (seriesOccursAt(epochHour) || (!intervals.isEmpty() && intervals.overlaps(
+                epochHour * TimeSlots.MINUTES_PER_HOUR, (epochHour + 1) * TimeSlots.MINUTES_PER_HOUR))) {
+            releaseReservation(epochHour);
+            return false;
+        }
+        return true;
+    }
+
+    void releaseReservation(long epochHour) {
+        calendar.markFree(epochHour);
+        availabilityChanged(epochHour, epochHour);
+    }
+
+    /**
+     * Claims an interval of minutes, for a meeting not at whole hours, see tryReserve(long epochHour).
+     * Must be followed by either addReservedMeeting() or releaseReservation().
+     * @param fromMinute long epoch minute of start (inclusive)
+     * @param toMinute   long epoch minute of end (exclusive)
+     * @return true if claimed, false if this Person is busy during any of it
+     */
+    boolean tryReserve(long fromMinute, long toMinute) {
+        if (!intervals.tryAdd(fromMinute, toMinute)) {
+            return false;
+        }
+        long firstHour = Math.floorDiv(fromMinute, TimeSlots.MINUTES_PER_HOUR);
+        long lastHour = Math.floorDiv(toMinute - 1, TimeSlots.MINUTES_PER_HOUR);
+        availabilityChanged(firstHour, lastHour);
+        // Claim first, then look for whole-hour meetings and series, see tryReserve(long epochHour)
+        for (long epochHour = firstHour; epochHour <= lastHour; epochHour++) {
+            if (isBusyAllHour(epochHour)) {
+                releaseReservation(fromMinute, toMinute);
+                return false;
             }
         }
-        schedule.addMeeting(meeting);
+        return true;
     }
 
-    public void showSchedule() {
-        // Find upcoming meetings
-        ArrayList<Meeting> upcoming = new ArrayList<>();
-        for (Meeting meeting : schedule.getMeetings()) {
-            if (meeting.getTimeslot().isAfter(LocalDateTime.now())) { // TODO: Get server time etc.
-                upcoming.add(meeting);
+    void releaseReservation(long fromMinute, long toMinute) {
+        intervals.remove(fromMinute);
+        availabilityChanged(Math.floorDiv(fromMinute, TimeSlots.MINUTES_PER_HOUR),
+                Math.floorDiv(toMinute - 1, TimeSlots.MINUTES_PER_HOUR));
+    }
+
+    /**
+     * @param source  MeetingSource holding the meeting, whose timeslot this Person has claimed
+     * @param meeting int index of the meeting within the source
+     */
+    void addReservedMeeting(MeetingSource source, int meeting) {
+        meetings.add(source, meeting);
+    }
+
+    /**
+     * Adds a recurring meeting, unless it takes place at the same time as any meeting already on the schedule.
+     * @param series MeetingSeries to add
+     * @return true if added, false on conflict
+     */
+    boolean addSeries(MeetingSeries meetingSeries) {
+        synchronized (this) {
+            MeetingSeries[] added = Arrays.copyOf(series, series.length + 1);
+            added[series.length] = meetingSeries;
+            series = added;
+        }
+        Recurrence recurrence = meetingSeries.getRecurrence();
+        availabilityChanged(recurrence.getStartHour(), recurrence.getUntilHour());
+        // Add first, then look for conflicts: see tryReserve()
+        if (conflictsWith(meetingSeries.getRecurrence(), meetingSeries)) {
+            removeSeries(meetingSeries);
+            return false;
+        }
+        return true;
+    }
+
+    synchronized void removeSeries(MeetingSeries meetingSeries) {
+        MeetingSeries[] current = series;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == meetingSeries) {
+                MeetingSeries[] removed = new MeetingSeries[current.length - 1];
+                System.arraycopy(current, 0, removed, 0, i);
+                System.arraycopy(current, i + 1, removed, i, removed.length - i);
+                series = removed;
+                Recurrence recurrence = meetingSeries.getRecurrence();
+                availabilityChanged(recurrence.getStartHour(), recurrence.getUntilHour());
+                return;
             }
         }
-        // Print info on upcoming meetings
+    }
+
+    /**
+     * @param recurrence Recurrence to check
+     * @param ignored    MeetingSeries of the schedule not to check against, or null
+     * @return true if the recurrence takes place at the same time as a single or other recurring meeting
+     */
+    boolean conflictsWith(Recurrence recurrence, MeetingSeries ignored) {
+        for (MeetingSeries other : series) {
+            if (other != ignored && recurrence.conflictsWith(other.getRecurrence())) return true;
+        }
+        // Single meetings only exist within the calendar's tracked hours, so only those need checking
+        if (overlaps(calendar, recurrence, calendar.getTrackedFrom(), calendar.getTrackedUntil() - 1)) return true;
+        if (overlaps(intervals, recurrence, intervals.firstHour(), intervals.lastHour())) return true;
+        return base != null && overlaps(base, recurrence, base.firstHour(), base.lastHour());
+    }
+
+    /**
+     * @return true if the recurrence takes place at an hour the source is busy, between first and last (inclusive)
+     */
+    private static boolean overlaps(BusySource source, Recurrence recurrence, long first, long last) {
+        first = Math.max(recurrence.getStartHour(), first);
+        last = Math.min(recurrence.getUntilHour(), last);
+        if (first > last) return false;
+        for (long w = first >> AvailabilityCalendar.WORD_BITS; w <= last >> AvailabilityCalendar.WORD_BITS; w++) {
+            if ((source.busyWord(w) & recurrence.busyWord(w) & hoursWithin(w, first, last)) != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return List<MeetingSeries> of recurring meetings of this Person at the time of the call, unmodifiable
+     */
+    public List<MeetingSeries> getSeries() {
+        return List.of(series);
+    }
+
+    /**
+     * @return long mask of the hours of the word lying within first and last (inclusive)
+     */
+    private static long hoursWithin(long wordIndex, long first, long last) {
+        long wordStart = wordIndex << AvailabilityCalendar.WORD_BITS;
+        long mask = first > wordStart ? -1L << (first - wordStart) : -1L;
+        long fromEnd = wordStart + Long.SIZE - 1 - last;
+        return fromEnd > 0 ? mask & (-1L >>> fromEnd) : mask;
+    }
+
+    /**
+     * Reports a change of this Person's availability, after it is made, so cached suggestions covering it are dropped.
+     * @param fromHour long first epoch hour changed (inclusive)
+     * @param toHour   long last epoch hour changed (inclusive)
+     */
+    void availabilityChanged(long fromHour, long toHour) {
+        if (suggestionCache != null) {
+            suggestionCache.availabilityChanged(this, fromHour, toHour);
+        }
+    }
+
+    /**
+     * @param suggestionCache SuggestionCache of the Scheduler this Person belongs to, set before it is shared
+     */
+    void setSuggestionCache(SuggestionCache suggestionCache) {
+        this.suggestionCache = suggestionCache;
+    }
+
+    private boolean seriesOccursAt(long epochHour) {
+        for (MeetingSeries meetingSeries : series) {
+            if (meetingSeries.getRecurrence().occursAt(epochHour)) return true;
+        }
+        return false;
+    }
+
+    public void showSchedule() {
+        // Print info on upcoming meetings, in chronological order
         System.out.println("\n## Upcoming meetings for "+this+" ##");
-        for (Meeting meeting : upcoming) {
+        for (Meeting meeting : getSchedule()) {
             meeting.print();
         }
+        for (MeetingSeries meetingSeries : series) {
+            meetingSeries.print(System.out);
+        }
     }
 
-    public ArrayList<Meeting> getSchedule() {
-        ArrayList<Meeting> upcoming = new ArrayList<>();
-        for (Meeting meeting : schedule.getMeetings()) {
-            if (meeting.getTimeslot().isAfter(LocalDateTime.now())) { // TODO: Get server time etc.
-                upcoming.add(meeting);
-            }
-        }
-        return upcoming;
+    /**
+     * @return Collection<Meeting> of meetings after the current time of the Person's Clock, in chronological
+     *         order. A live, read-only view: it is not copied, and reflects meetings booked later.
+     */
+    public Collection<Meeting> getSchedule() {
+        return getMeetingsStartingBetween(TimeSlots.toEpochMinute(LocalDateTime.now(clock)) + 1, Long.MAX_VALUE,
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * Meetings after the given timeslot, found in O(log n) without copying.
+     * @param epochHour long epoch hour, meetings starting at or before it are left out
+     * @return Collection<Meeting> live, read-only view of the meetings, in chronological order
+     */
+    public Collection<Meeting> getMeetingsAfter(long epochHour) {
+        return new MeetingView(toMinute(epochHour + 1), Long.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Meetings within the given window, found in O(log n) without copying.
+     * @param fromHour long epoch hour of start of window (inclusive)
+     * @param toHour   long epoch hour of end of window (exclusive)
+     * @return Collection<Meeting> live, read-only view of the meetings, in chronological order
+     */
+    public Collection<Meeting> getMeetingsBetween(long fromHour, long toHour) {
+        if (toHour <= fromHour) return Collections.emptyList();
+        return new MeetingView(toMinute(fromHour), toMinute(toHour), Integer.MAX_VALUE);
+    }
+
+    /**
+     * The next meetings after the given timeslot, found in O(log n) per meeting without copying.
+     * @param epochHour long epoch hour, meetings starting at or before it are left out
+     * @param count     int maximum amount of meetings
+     * @return Collection<Meeting> live, read-only view of at most count meetings, in chronological order
+     */
+    public Collection<Meeting> getNextMeetings(long epochHour, int count) {
+        return new MeetingView(toMinute(epochHour + 1), Long.MAX_VALUE, Math.max(0, count));
+    }
+
+    /**
+     * Meetings starting within the given window of minutes, found in O(log n) without copying.
+     * @param fromMinute long epoch minute of start of window (inclusive)
+     * @param toMinute   long epoch minute of end of window (exclusive)
+     * @param count      int maximum amount of meetings
+     * @return Collection<Meeting> live, read-only view of at most count meetings, in chronological order
+     */
+    Collection<Meeting> getMeetingsStartingBetween(long fromMinute, long toMinute, int count) {
+        if (toMinute <= fromMinute) return Collections.emptyList();
+        return new MeetingView(fromMinute, toMinute, Math.max(0, count));
+    }
+
+    /**
+     * @return long epoch minute at the start of the epoch hour, saturating instead of overflowing
+     */
+    private static long toMinute(long epochHour) {
+        if (epochHour >= Long.MAX_VALUE / TimeSlots.MINUTES_PER_HOUR) return Long.MAX_VALUE;
+        if (epochHour <= Long.MIN_VALUE / TimeSlots.MINUTES_PER_HOUR) return Long.MIN_VALUE;
+        return epochHour * TimeSlots.MINUTES_PER_HOUR;
     }
 
     public String getName() {
@@ -72,23 +425,89 @@ public class Person {
         return name+"|"+email;
     }
 
+    int getId() {
+        return id;
+    }
+
+    void setId(int id) {
+        this.id = id;
+    }
+
+    AvailabilityCalendar getCalendar() {
+        return calendar;
+    }
+
+    StampedLock getLock() {
+        return lock;
+    }
+
 
     /**
-     * Each Person has their own Schedule
+     * Read-only view of the meetings starting within a window, both those booked here and those of the columnar
+     * snapshot. Nothing is copied: iterating looks up the next meeting of each by binary search, so the view is live.
      */
-    private class Schedule {
-        private final ArrayList<Meeting> meetings;
+    private final class MeetingView extends AbstractCollection<Meeting> {
+        private final long fromMinute;  // inclusive
+        private final long toMinute;    // exclusive
+        private final int limit;        // maximum amount of meetings
 
-        private Schedule() {
-            meetings = new ArrayList<Meeting>();
+        private MeetingView(long fromMinute, long toMinute, int limit) {
+            this.fromMinute = fromMinute;
+            this.toMinute = toMinute;
+            this.limit = limit;
         }
 
-        private ArrayList<Meeting> getMeetings() {
-            return meetings;
+        @Override
+        public Iterator<Meeting> iterator() {
+            return new Iterator<>() {
+                private long nextMinute = fromMinute;   // meetings at or after it are not returned yet
+                private int returned;
+                private Meeting next = find();
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public Meeting next() {
+                    if (next == null) throw new NoSuchElementException();
+                    Meeting meeting = next;
+                    returned++;
+                    nextMinute = meeting.getStartMinute() + 1;
+                    next = find();
+                    return meeting;
+                }
+
+                private Meeting find() {
+                    if (returned >= limit || nextMinute >= toMinute) return null;
+                    Meeting own = null;
+                    int index = meetings.firstFrom(nextMinute);
+                    if (index >= 0) {
+                        own = new Meeting(meetings.getSource(), index);
+                    }
+                    Meeting found = own;
+                    if (base != null) {
+                        // Meetings of the columnar snapshot are at whole hours
+                        int i = base.indexFrom(Math.ceilDiv(nextMinute, TimeSlots.MINUTES_PER_HOUR));
+                        if (i < base.size() && (own == null
+                                || base.hourAt(i) * TimeSlots.MINUTES_PER_HOUR < own.getStartMinute())) {
+                            found = base.meetingAt(i);
+                        }
+                    }
+                    return found != null && found.getStartMinute() < toMinute ? found : null;
+                }
+            };
         }
 
-        private void addMeeting(Meeting meeting) {
-            meetings.add(meeting);
+        @Override
+        public int size() {
+            long count = meetings.count(fromMinute, toMinute);
+            if (base != null) {
+                count += base.indexFrom(Math.ceilDiv(toMinute, TimeSlots.MINUTES_PER_HOUR))
+                        - base.indexFrom(Math.ceilDiv(fromMinute, TimeSlots.MINUTES_PER_HOUR));
+            }
+            return (int) Math.min(count, limit);
         }
     }
 
@@ -0,0 +1,193 @@
+import java.security.InvalidParameterException;
+import java.text.Normalizer;
+import java.util.Collection;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Email-keyed index of every Person known to a Scheduler.
+ * Replaces linear scans over a list of people with hash lookups, so lookup, insert and the
+ * unique email check are all O(1) regardless of how many people have been added.
+ * A concurrent registry can be shared between threads, with add() acting as an atomic unique email check.
+ * Each registered Person is also given a dense int id, so meetings can refer to participants by an int
+ * instead of an object reference, see MeetingStore.
+ */
+public class PersonRegistry {
+
+    /**
+     * How an email String is turned into the key used for lookup and uniqueness.
+     */
+    public enum KeyMode {
+        EXACT,          // email used as given, same behaviour as comparing with equals()
+        NORMALIZED,     // surrounding whitespace trimmed and Unicode normalized (NFKC)
+        CASE_FOLDED     // NORMALIZED, and also case-insensitive
+    };
+
+    private final KeyMode keyMode;
+    private final boolean concurrent;
+    private Map<String, Person> people;
+    private volatile Person[] byId = new Person[16];    // grown under the registry's monitor
+    private int nextId;                                 // guarded by the registry's monitor
+
+    /**
+     * Instantiates an empty, single-threaded registry comparing emails exactly.
+     */
+    public PersonRegistry() {
+        this(KeyMode.EXACT, false);
+    }
+
+    /**
+     * Instantiates an empty registry.
+     * @param keyMode    KeyMode deciding how emails are normalized before lookup
+     * @param concurrent boolean, true if the registry is shared between threads
+     */
+    public PersonRegistry(KeyMode keyMode, boolean concurrent) {
+        if (keyMode == null) {
+            throw new InvalidParameterException("KeyMode must be not-null");
+        }
+        this.keyMode = keyMode;
+        this.concurrent = concurrent;
+        this.people = concurrent ? new ConcurrentHashMap<>() : new HashMap<>();
+    }
+
+    /**
+     * Look up Person by email.
+     * @param email String of email, normalized according to the registry's KeyMode
+     * @return Person instance, or null if no Person is registered under the email
+     */
+    public Person get(String email) {
+        return people.get(key(email));
+    }
+
+    /**
+     * Look up Person by id.
+     * @param id int id given to the Person when added
+     * @return Person instance, or null if no Person was added under the id
+     */
+    public Person get(int id) {
+        Person[] table = byId;
+        return id >= 0 && id < table.length ? table[id] : null;
+    }
+
+    /**
+     * @param email String of email
+     * @return true if a Person is already registered under the email
+     */
+    public boolean contains(String email) {
+        return people.containsKey(key(email));
+    }
+
+    /**
+     * Registers a Person under its email, unless the email is already in use, and gives it the next free id.
+     * The id can be looked up before the Person can be found by email, so it is usable as soon as add() returns.
+     * @param person Person instance to register
+     * @return true if added, false if the email is already in use
+     */
+    public boolean add(Person person) {
+        int previousId = person.getId();
+        int id = assignId(person);
+        person.setId(id);
+        if (people.putIfAbsent(key(person.getEmail()), person) == null) {
+            return true;
+        }
+        person.setId(previousId);
+        unassignId(id);
+        return false;
+    }
+
+    /**
+     * Gives a Person an id without registering its email, e.g. a participant of a meeting owned by another shard.
+     * @param person Person instance, not registered in any registry
+     */
+    public void addGuest(Person person) {
+        person.setId(assignId(person));
+    }
+
+    /**
+     * Unregisters the Person registered under the email, if any.
+     * Its id stays assigned, as meetings may still refer to it.
+     * @param email String of email
+     * @return Person instance removed, or null if none was registered under the email
+     */
+    public Person remove(String email) {
+        return people.remove(key(email));
+    }
+
+    /**
+     * Grows the backing table up front, so a bulk load of expected additional people
+     * does not rehash repeatedly while inserting.
+     * A concurrent registry resizes itself while staying readable, so this is a no-op for it.
+     * @param additional int amount of people about to be added
+     */
+    public void ensureCapacity(int additional) {
+        if (additional <= 0 || concurrent) return;
+        HashMap<String, Person> resized = HashMap.newHashMap(people.size() + additional);
+        resized.putAll(people);
+        people = resized;
+    }
+
+    private synchronized int assignId(Person person) {
+        int id = nextId++;
+        if (id == byId.length) {
+            byId = Arrays.copyOf(byId, id * 2);
+        }
+        byId[id] = person;
+        return id;
+    }
+
+    private synchronized void unassignId(int id) {
+        byId[id] = null;
+    }
+
+    /**
+     * @return int amount of registered people
+     */
+    public int size() {
+        return people.size();
+    }
+
+    /**
+     * @return unmodifiable view of all registered people, in no particular order
+     */
+    public Collection<Person> getPeople() {
+        return Collections.unmodifiableCollection(people.values());
+    }
+
+    /**
+     * @return KeyMode used by this registry
+     */
+    public KeyMode getKeyMode() {
+        return keyMode;
+    }
+
+    /**
+     * Turns an email into the key it is stored under.
+     * @param email String of email
+     * @return String key according to the registry's KeyMode
+     */
+    public String key(String email) {
+        switch (keyMode) {
+            case NORMALIZED:
+                return normalize(email);
+            case CASE_FOLDED:
+                return normalize(email).toLowerCase(Locale.ROOT);
+            default:
+                return email;
+        }
+    }
+
+    private static String normalize(String email) {
+        String trimmed = email.strip();
+        // Skip the Normalizer for the common all-ASCII case, as it is already in normal form
+        for (int i = 0; i < trimmed.length(); i++) {
+            if (trimmed.charAt(i) > 0x7F) {
+                return Normalizer.normalize(trimmed, Normalizer.Form.NFKC);
+            }
+        }
+        return trimmed;
+    }
+}
@@ -0,0 +1,149 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Finds the best-scoring timeslots within a window, see SuggestionRequest for what is scored.
+ * Scans the window 64 hours at a time like FreeSlotSearch, scoring each hour at which every required participant
+ * is open (within working hours and free), and keeps the best in a heap whose head is the worst kept.
+ * Only earliness falls as the scan moves on, and the other parts are at most their weights, so once no later
+ * hour could beat the worst kept the scan stops; with a filled heap that is usually well before the window ends.
+ * A deadline is checked once per 64 hours, returning the best found so far when it has passed.
+ */
+final class RankedSlotSearch {
+
+    // Worst first: lower score, or the later of equal scores
+    private static final Comparator<ScoredTimeslot> WORST_FIRST = Comparator.comparingDouble(ScoredTimeslot::getScore)
+            .thenComparing(Comparator.comparingLong(ScoredTimeslot::getEpochHour).reversed());
+
+    private RankedSlotSearch() {
+    }
+
+    /**
+     * @param required       List of BusySources of distinct required participants
+     * @param optional       List of BusySources of distinct optional attendees
+     * @param optionalEmails List<String> of emails of the optional attendees, in the same order
+     * @param preferred      WeeklyMask of preferred timeslots, scored by the request's preference weight
+     * @param request        SuggestionRequest of window, count and weights
+     * @param deadline       long System.nanoTime() after which the search stops, or Long.MAX_VALUE for none
+     * @return RankedSuggestions of the best timeslots found
+     */
+    static RankedSuggestions search(List<? extends BusySource> required, List<? extends BusySource> optional,
+                                    List<String> optionalEmails, WeeklyMask preferred, SuggestionRequest request,
+                                    long deadline) {
+        int count = request.getCount();
+        long fromHour = request.getFromHour();
+        long toHour = request.getToHour();
+        double span = toHour - fromHour;
+        double earlinessWeight = request.getEarlinessWeight();
+        double preferenceWeight = request.getPreferenceWeight();
+        double fragmentationWeight = request.getFragmentationWeight();
+        double coverageWeight = request.getCoverageWeight();
+        double rest = preferenceWeight + fragmentationWeight + coverageWeight;  // most all but earliness can add
+        int participants = required.size();
+        PriorityQueue<ScoredTimeslot> best = new PriorityQueue<>(count, WORST_FIRST);
+
+        // Open hours of each required participant in the previous, current and next word, as a timeslot's
+        // fragmentation looks two hours to either side
+        long firstWord = fromHour >> AvailabilityCalendar.WORD_BITS;
+        long lastWord = (toHour - 1) >> AvailabilityCalendar.WORD_BITS;
+        long[] previous = new long[participants];
+        long[] current = new long[participants];
+        long[] next = new long[participants];
+        for (int i = 0; i < participants; i++) {
+            previous[i] = open(required.get(i), firstWord - 1);
+            current[i] = open(required.get(i), firstWord);
+        }
+        long[] optionalOpen = new long[optional.size()];
+        boolean complete = true;
+        long searchedUntil = toHour;
+        for (long w = firstWord; w <= lastWord; w++) {
+            long wordStart = w << AvailabilityCalendar.WORD_BITS;
+            long firstHour = Math.max(wordStart, fromHour);
+            if (best.size() == count
+                    && earlinessWeight * (1 - (firstHour - fromHour) / span) + rest <= best.peek().getScore()) {
+                break;  // nothing later can beat the worst kept
+            }
+            if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) {
+                complete = false;
+                searchedUntil = firstHour;
+                break;
+            }
+            long candidates = -1L;
+            if (w == firstWord) candidates &= -1L << fromHour;
+            if (w == lastWord) candidates &= -1L >>> (Long.SIZE - 1 - ((toHour - 1) & (Long.SIZE - 1)));
+            for (int i = 0; i < participants; i++) {
+                next[i] = open(required.get(i), w + 1);
+                candidates &= current[i];
+            }
+            if (candidates != 0) {
+                long preferredWord = preferred.word(w);
+                for (int o = 0; o < optionalOpen.length; o++) {
+                    optionalOpen[o] = open(optional.get(o), w);
+                }
+                while (candidates != 0) {
+                    int bit = Long.numberOfTrailingZeros(candidates);
+                    candidates &= candidates - 1;
+                    long epochHour = wordStart + bit;
+                    int holes = 0;
+                    for (int i = 0; i < participants; i++) {
+                        holes += hole(previous[i], current[i], next[i], bit, -1) + hole(previous[i], current[i], next[i], bit, 1);
+                    }
+                    int covered = 0;
+                    for (long openWord : optionalOpen) {
+                        covered += (int) (openWord >>> bit) & 1;
+                    }
+                    double score = earlinessWeight * (1 - (epochHour - fromHour) / span)
+                            + preferenceWeight * ((preferredWord >>> bit) & 1)
+                            + fragmentationWeight * (participants == 0 ? 1 : 1 - holes / (2.0 * participants))
+                            + coverageWeight * (optionalOpen.length == 0 ? 1 : (double) covered / optionalOpen.length);
+                    // Equal scores keep the earlier timeslot, which is already kept
+                    if (best.size() < count || score > best.peek().getScore()) {
+                        if (best.size() == count) best.poll();
+                        best.add(new ScoredTimeslot(epochHour, score, availableOptional(optionalOpen, optionalEmails, bit)));
+                    }
+                }
+            }
+            long[] recycled = previous;
+            previous = current;
+            current = next;
+            next = recycled;
+        }
+        ArrayList<ScoredTimeslot> timeslots = new ArrayList<>(best);
+        timeslots.sort(WORST_FIRST.reversed());
+        return new RankedSuggestions(timeslots, complete, searchedUntil);
+    }
+
+    /**
+     * @return long of the hours a participant is within working hours and free
+     */
+    private static long open(BusySource source, long wordIndex) {
+        return source.availableWord(wordIndex) & ~source.busyWord(wordIndex);
+    }
+
+    /**
+     * @param side int -1 or 1, the side of the timeslot to look at
+     * @return int 1 if booking the timeslot leaves a single open hour on that side, between it and a closed hour
+     */
+    private static int hole(long previous, long current, long next, int bit, int side) {
+        return isOpen(previous, current, next, bit + side) && !isOpen(previous, current, next, bit + 2 * side) ? 1 : 0;
+    }
+
+    /**
+     * @param position int bit position relative to the current word, -64 to 127
+     */
+    private static boolean isOpen(long previous, long current, long next, int position) {
+        if (position < 0) return (previous >>> (position + Long.SIZE) & 1) != 0;
+        if (position >= Long.SIZE) return (next >>> (position - Long.SIZE) & 1) != 0;
+        return (current >>> position & 1) != 0;
+    }
+
+    private static List<String> availableOptional(long[] optionalOpen, List<String> optionalEmails, int bit) {
+        ArrayList<String> available = new ArrayList<>();
+        for (int o = 0; o < optionalOpen.length; o++) {
+            if ((optionalOpen[o] >>> bit & 1) != 0) available.add(optionalEmails.get(o));
+        }
+        return available;
+    }
+}
@@ -0,0 +1,46 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of Scheduler.suggestRankedTimeslots(): the best timeslots found, best first.
+ * A search stopped by its timeout is partial: it holds the best of the part of the window searched.
+ */
+public class RankedSuggestions {
+
+    private final List<ScoredTimeslot> timeslots;
+    private final boolean complete;
+    private final long searchedUntil;
+
+    RankedSuggestions(List<ScoredTimeslot> timeslots, boolean complete, long searchedUntil) {
+        this.timeslots = Collections.unmodifiableList(timeslots);
+        this.complete = complete;
+        this.searchedUntil = searchedUntil;
+    }
+
+    /**
+     * @return List<ScoredTimeslot> of at most count timeslots, by descending score, earlier first on equal score
+     */
+    public List<ScoredTimeslot> getTimeslots() {
+        return timeslots;
+    }
+
+    /**
+     * @return true if no timeslot of the window could score better than those returned, false if timed out
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return long epoch hour up to which the window was searched (exclusive); the rest could not score better
+     *         when complete
+     */
+    public long getSearchedUntil() {
+        return searchedUntil;
+    }
+
+    public String toString() {
+        return "RankedSuggestions: " + timeslots + (complete ? "" : " (partial, searched until "
+                + TimeSlots.fromEpochHour(searchedUntil) + ")");
+    }
+}
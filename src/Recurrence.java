@@ -0,0 +1,257 @@
+import java.security.InvalidParameterException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Rule for when a recurring meeting takes place: every 'interval' days, weeks or months from a first
+ * occurrence, until an optional end, except for cancelled occurrences.
+ * Occurrences are never stored, but computed from the rule when asked for, so a rule takes the same memory
+ * whether it spans a month or forever. As a BusySource, it answers busy words of 64 hours without creating
+ * objects, so suggestions treat a series like any other busy hours.
+ */
+public class Recurrence implements BusySource {
+
+    public enum Frequency {
+        DAILY, WEEKLY, MONTHLY
+    };
+
+    /** untilHour of a rule without end */
+    public static final long NO_END = Long.MAX_VALUE;
+
+    // Gregorian calendar repeats every 400 years, so do monthly rules with it
+    private static final long GREGORIAN_CYCLE_HOURS = 146097L * TimeSlots.HOURS_PER_DAY;
+    private static final int GREGORIAN_CYCLE_MONTHS = 400 * 12;
+
+    private final Frequency frequency;
+    private final int interval;
+    private final long startHour;
+    private final long untilHour;
+    private final long periodHours;     // DAILY and WEEKLY: hours between occurrences
+    private final int hourOfDay;        // MONTHLY: hour and day of month of every occurrence
+    private final int dayOfMonth;
+    private final int startMonth;       // MONTHLY: month index of the first occurrence, see TimeSlots.monthIndex()
+    private volatile long[] exceptions; // sorted epoch hours of cancelled occurrences, replaced on change
+
+    /**
+     * @param frequency Frequency of occurrences
+     * @param interval  int amount of days, weeks or months between occurrences, at least 1
+     * @param startHour long epoch hour of the first occurrence, fixing hour of day, weekday and day of month
+     * @param untilHour long epoch hour after which there are no occurrences (inclusive), or NO_END
+     */
+    public Recurrence(Frequency frequency, int interval, long startHour, long untilHour) {
+        if (frequency == null) {
+            throw new InvalidParameterException("Frequency must be not-null");
+        }
+        if (interval < 1) {
+            throw new InvalidParameterException("interval must be > 0");
+        }
+        if (untilHour < startHour) {
+            throw new InvalidParameterException("Recurrence must not end before it starts");
+        }
+        this.frequency = frequency;
+        this.interval = interval;
+        this.startHour = startHour;
+        this.untilHour = untilHour;
+        this.periodHours = frequency == Frequency.DAILY ? (long) interval * TimeSlots.HOURS_PER_DAY
+                : frequency == Frequency.WEEKLY ? (long) interval * TimeSlots.HOURS_PER_WEEK : 0L;
+        long startDay = Math.floorDiv(startHour, TimeSlots.HOURS_PER_DAY);
+        this.hourOfDay = Math.floorMod(startHour, TimeSlots.HOURS_PER_DAY);
+        this.dayOfMonth = TimeSlots.dayOfMonth(startDay);
+        this.startMonth = TimeSlots.monthIndex(startDay);
+        this.exceptions = new long[0];
+    }
+
+    /**
+     * @param frequency Frequency of occurrences
+     * @param interval  int amount of days, weeks or months between occurrences, at least 1
+     * @param start     LocalDateTime of the first occurrence, minutes and smaller units are disregarded
+     * @param until     LocalDateTime after which there are no occurrences (inclusive), or null for no end
+     */
+    public Recurrence(Frequency frequency, int interval, LocalDateTime start, LocalDateTime until) {
+        this(frequency, interval, TimeSlots.toEpochHour(start), until == null ? NO_END : TimeSlots.toEpochHour(until));
+    }
+
+    /**
+     * @param epochHour long epoch hour of timeslot
+     * @return true if an occurrence, not cancelled, takes place at the timeslot
+     */
+    public boolean occursAt(long epochHour) {
+        return matchesRule(epochHour) && Arrays.binarySearch(exceptions, epochHour) < 0;
+    }
+
+    @Override
+    public long busyWord(long wordIndex) {
+        long wordStart = wordIndex << AvailabilityCalendar.WORD_BITS;
+        long wordEnd = wordStart + Long.SIZE - 1;
+        if (wordEnd < startHour || wordStart > untilHour) return 0L;
+        long word = 0L;
+        if (frequency == Frequency.MONTHLY) {
+            // At most one occurrence, as a word is shorter than a month; test each hour at the right hour of day
+            for (long h = wordStart + Math.floorMod(hourOfDay - wordStart, TimeSlots.HOURS_PER_DAY); h <= wordEnd;
+                 h += TimeSlots.HOURS_PER_DAY) {
+                if (matchesRule(h)) word |= 1L << (h - wordStart);
+            }
+        } else {
+            for (long h = firstOnOrAfter(wordStart); h <= wordEnd && h <= untilHour; h += periodHours) {
+                word |= 1L << (h - wordStart);
+            }
+        }
+        long[] cancelled = exceptions;
+        if (word != 0 && cancelled.length > 0) {
+            int i = Arrays.binarySearch(cancelled, wordStart);
+            for (i = i < 0 ? -i - 1 : i; i < cancelled.length && cancelled[i] <= wordEnd; i++) {
+                word &= ~(1L << (cancelled[i] - wordStart));
+            }
+        }
+        return word;
+    }
+
+    /**
+     * @param fromHour long epoch hour to search from (inclusive)
+     * @return long epoch hour of the first occurrence at or after fromHour, or NO_END if there is none
+     */
+    public long nextOccurrence(long fromHour) {
+        long h = Math.max(fromHour, startHour);
+        if (frequency == Frequency.MONTHLY) {
+            // Months without the day of month, e.g. the 31st, have no occurrence, but one of every cycle does
+            long day = Math.floorDiv(h, TimeSlots.HOURS_PER_DAY);
+            int month = TimeSlots.monthIndex(day);
+            month += Math.floorMod(startMonth - month, interval);
+            for (int i = 0; i <= GREGORIAN_CYCLE_MONTHS; i++, month += interval) {
+                long occurrenceDay = TimeSlots.epochDayOfMonth(month, dayOfMonth);
+                if (occurrenceDay == Long.MIN_VALUE) continue;
+                long occurrence = occurrenceDay * TimeSlots.HOURS_PER_DAY + hourOfDay;
+                if (occurrence > untilHour) return NO_END;
+                if (occurrence >= h && occursAt(occurrence)) return occurrence;
+            }
+            return NO_END;
+        }
+        for (long occurrence = firstOnOrAfter(h); occurrence <= untilHour; occurrence += periodHours) {
+            if (occursAt(occurrence)) return occurrence;
+        }
+        return NO_END;
+    }
+
+    /**
+     * Checks whether this and the other rule ever take place at the same timeslot.
+     * Walks the occurrences of the sparser rule through one full cycle of the combined pattern,
+     * after which any coincidence would repeat, and tests each against the denser rule in O(1).
+     * @param other Recurrence to check against
+     * @return true if some occurrence of both takes place at the same timeslot
+     */
+    public boolean conflictsWith(Recurrence other) {
+        long from = Math.max(startHour, other.startHour);
+        long to = Math.min(untilHour, other.untilHour);
+        if (from > to) return false;
+        // Past every cancelled occurrence, coincidences repeat every cycle, so one cycle is enough to check
+        long settled = Math.max(from, Math.max(lastException(), other.lastException()));
+        long cycle;
+        if (frequency != Frequency.MONTHLY && other.frequency != Frequency.MONTHLY) {
+            long gcd = gcd(periodHours, other.periodHours);
+            cycle = periodHours / gcd * other.periodHours;
+        } else {
+            cycle = GREGORIAN_CYCLE_HOURS * (frequency == Frequency.MONTHLY ? interval : 1)
+                    * (other.frequency == Frequency.MONTHLY ? other.interval : 1);
+        }
+        if (settled <= to - cycle) {
+            to = settled + cycle;
+        }
+        Recurrence sparse = approximatePeriodHours() >= other.approximatePeriodHours() ? this : other;
+        Recurrence dense = sparse == this ? other : this;
+        for (long h = sparse.nextOccurrence(from); h <= to; h = sparse.nextOccurrence(h + 1)) {
+            if (dense.occursAt(h)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Cancels a single occurrence, e.g. a stand-up skipped on a holiday. Occurrences of a booked series are
+     * cancelled through Scheduler.cancelOccurrence(), which also journals and reports them.
+     * @param epochHour long epoch hour of the occurrence
+     */
+    synchronized void addException(long epochHour) {
+        long[] cancelled = exceptions;
+        int i = Arrays.binarySearch(cancelled, epochHour);
+        if (i >= 0) return;
+        i = -i - 1;
+        long[] grown = new long[cancelled.length + 1];
+        System.arraycopy(cancelled, 0, grown, 0, i);
+        grown[i] = epochHour;
+        System.arraycopy(cancelled, i, grown, i + 1, cancelled.length - i);
+        exceptions = grown;
+    }
+
+    /**
+     * @return Recurrence of the same rule and cancelled occurrences, cancelling occurrences of its own
+     */
+    Recurrence copy() {
+        Recurrence copy = new Recurrence(frequency, interval, startHour, untilHour);
+        copy.exceptions = exceptions;   // replaced on change, never changed in place
+        return copy;
+    }
+
+    public Frequency getFrequency() {
+        return frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public long getStartHour() {
+        return startHour;
+    }
+
+    public long getUntilHour() {
+        return untilHour;
+    }
+
+    /**
+     * @return long[] copy of the sorted epoch hours of cancelled occurrences
+     */
+    public long[] getExceptions() {
+        return exceptions.clone();
+    }
+
+    public String toString() {
+        return frequency + (interval > 1 ? " every " + interval : "") + " from " + TimeSlots.fromEpochHour(startHour)
+                + (untilHour == NO_END ? "" : " until " + TimeSlots.fromEpochHour(untilHour));
+    }
+
+    private boolean matchesRule(long epochHour) {
+        if (epochHour < startHour || epochHour > untilHour) return false;
+        if (frequency != Frequency.MONTHLY) {
+            return (epochHour - startHour) % periodHours == 0;
+        }
+        if (Math.floorMod(epochHour, TimeSlots.HOURS_PER_DAY) != hourOfDay) return false;
+        long day = Math.floorDiv(epochHour, TimeSlots.HOURS_PER_DAY);
+        return TimeSlots.dayOfMonth(day) == dayOfMonth && (TimeSlots.monthIndex(day) - startMonth) % interval == 0;
+    }
+
+    /**
+     * DAILY and WEEKLY: first time matching the rule's period at or after epochHour, ignoring the end.
+     */
+    private long firstOnOrAfter(long epochHour) {
+        if (epochHour <= startHour) return startHour;
+        long periods = Math.ceilDiv(epochHour - startHour, periodHours);
+        return startHour + periods * periodHours;
+    }
+
+    private long lastException() {
+        long[] cancelled = exceptions;
+        return cancelled.length == 0 ? Long.MIN_VALUE : cancelled[cancelled.length - 1];
+    }
+
+    private long approximatePeriodHours() {
+        return frequency == Frequency.MONTHLY ? 730L * interval : periodHours;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,263 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidParameterException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * SchedulerShard served by a SchedulerServer on another port or host, called over HTTP/JSON.
+ * People are created through /people like by any other client, and the booking phases, busy words and
+ * meetings go through the server's /shard/ endpoints. Requests are sent on keep-alive HTTP/1.1 connections,
+ * and responses are decoded while streaming in.
+ * Errors come back as the exceptions a LocalShard would throw: InvalidParameterException for status 400,
+ * Exception for unknown emails or transactions, and IOException for anything else going wrong.
+ */
+public class RemoteShard implements SchedulerShard, Closeable {
+
+    private final String url;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client;
+
+    /**
+     * @param url String base url of the SchedulerServer, e.g. "http://localhost:8080"
+     */
+    public RemoteShard(String url) {
+        if (url == null) {
+            throw new InvalidParameterException("String url must be not-null");
+        }
+        this.url = url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+        this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(executor).build();
+    }
+
+    @Override
+    public void createPerson(String name, String email) throws Exception {
+        StringWriter body = new StringWriter();
+        try (JsonWriter json = new JsonWriter(body)) {
+            json.beginObject().name("name").value(name).name("email").value(email).endObject();
+        }
+        post("/people", body.toString()).close();
+    }
+
+    @Override
+    public ShardVote prepareMeeting(long transaction, long epochHour, List<String> emails) throws Exception {
+        StringWriter body = new StringWriter();
+        try (JsonWriter json = new JsonWriter(body)) {
+            json.beginObject().name("transaction").value(transaction).name("epochHour").value(epochHour);
+            writeStrings(json.name("participants"), emails).endObject();
+        }
+        boolean reserved = false;
+        List<String> names = List.of();
+        List<String> conflicts = List.of();
+        try (InputStream in = post("/shard/prepare", body.toString())) {
+            JsonReader json = reader(in);
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "reserved":
+                        reserved = json.nextBoolean();
+                        break;
+                    case "names":
+                        names = readStrings(json);
+                        break;
+                    case "conflicts":
+                        conflicts = readStrings(json);
+                        break;
+                    default:
+                        json.skipValue();
+                }
+            }
+            json.endObject();
+        }
+        return reserved ? ShardVote.reserved(names) : ShardVote.conflict(conflicts);
+    }
+
+    @Override
+    public void commitMeeting(long transaction, List<String> names, List<String> emails) throws Exception {
+        StringWriter body = new StringWriter();
+        try (JsonWriter json = new JsonWriter(body)) {
+            json.beginObject().name("transaction").value(transaction);
+            writeStrings(json.name("names"), names);
+            writeStrings(json.name("participants"), emails).endObject();
+        }
+        post("/shard/commit", body.toString()).close();
+    }
+
+    @Override
+    public void abortMeeting(long transaction) throws Exception {
+        post("/shard/abort", "{\"transaction\":" + transaction + "}").close();
+    }
+
+    @Override
+    public long[] busyWords(List<String> emails, long fromWord, int words) throws Exception {
+        StringWriter body = new StringWriter();
+        try (JsonWriter json = new JsonWriter(body)) {
+            json.beginObject().name("fromWord").value(fromWord).name("words").value(words);
+            writeStrings(json.name("participants"), emails).endObject();
+        }
+        long[] busy = new long[words];
+        try (InputStream in = post("/shard/busy", body.toString())) {
+            JsonReader json = reader(in);
+            json.beginObject();
+            while (json.hasNext()) {
+                if (json.nextName().equals("words")) {
+                    json.beginArray();
+                    for (int w = 0; json.hasNext(); w++) {
+                        long word = json.nextLong();
+                        if (w < words) busy[w] = word;
+                    }
+                    json.endArray();
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+        }
+        return busy;
+    }
+
+    @Override
+    public Collection<Meeting> getMeetingsBetween(String email, long fromHour, long toHour) throws Exception {
+        StringWriter body = new StringWriter();
+        try (JsonWriter json = new JsonWriter(body)) {
+            json.beginObject().name("email").value(email).name("fromHour").value(fromHour)
+                    .name("toHour").value(toHour).endObject();
+        }
+        DetachedMeetings meetings = new DetachedMeetings();
+        HashMap<String, Person> people = new HashMap<>();   // one Person per email across meetings
+        try (InputStream in = post("/shard/meetings", body.toString())) {
+            JsonReader json = reader(in);
+            json.beginArray();
+            while (json.hasNext()) {
+                long epochHour = 0L;
+                ArrayList<Person> participants = new ArrayList<>();
+                json.beginObject();
+                while (json.hasNext()) {
+                    switch (json.nextName()) {
+                        case "timeslot":
+                            epochHour = TimeSlots.toEpochHour(LocalDateTime.parse(json.nextString()));
+                            break;
+                        case "participants":
+                            json.beginArray();
+                            while (json.hasNext()) {
+                                participants.add(readPerson(json, people));
+                            }
+                            json.endArray();
+                            break;
+                        default:
+                            json.skipValue();
+                    }
+                }
+                json.endObject();
+                meetings.add(epochHour, participants);
+            }
+            json.endArray();
+        }
+        return meetings.asList();
+    }
+
+    /**
+     * Closes the connections to the server.
+     */
+    @Override
+    public void close() {
+        client.close();
+        executor.close();
+    }
+
+    /**
+     * @return InputStream of the body of a successful response, to be closed by the caller
+     * @throws Exception for an unknown email or transaction, InvalidParameterException for an invalid request,
+     *                   or IOException if the request fails otherwise
+     */
+    private InputStream post(String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        int status = response.statusCode();
+        if (status == 200 || status == 201) {
+            return response.body();
+        }
+        String message = "HTTP " + status;
+        try (InputStream in = response.body()) {
+            JsonReader json = reader(in);
+            json.beginObject();
+            while (json.hasNext()) {
+                if (json.nextName().equals("error")) {
+                    message = json.nextString();
+                } else {
+                    json.skipValue();
+                }
+            }
+            json.endObject();
+        } catch (IOException e) {
+            // not a JSON error, keep the status
+        }
+        switch (status) {
+            case 400:
+                throw new InvalidParameterException(message);
+            case 404:
+            case 409:
+                throw new Exception(message);
+            default:
+                throw new IOException(url + path + ": " + message);
+        }
+    }
+
+    private static Person readPerson(JsonReader json, HashMap<String, Person> people) throws IOException {
+        String name = null;
+        String email = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "name":
+                    name = json.nextString();
+                    break;
+                case "email":
+                    email = json.nextString();
+                    break;
+                default:
+                    json.skipValue();
+            }
+        }
+        json.endObject();
+        String personName = name;
+        return people.computeIfAbsent(email, key -> new Person(personName, key));
+    }
+
+    private static JsonWriter writeStrings(JsonWriter json, List<String> values) throws IOException {
+        json.beginArray();
+        for (String value : values) {
+            json.value(value);
+        }
+        return json.endArray();
+    }
+
+    private static List<String> readStrings(JsonReader json) throws IOException {
+        ArrayList<String> values = new ArrayList<>();
+        json.beginArray();
+        while (json.hasNext()) {
+            values.add(json.nextString());
+        }
+        json.endArray();
+        return values;
+    }
+
+    private static JsonReader reader(InputStream in) {
+        return new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,125 @@
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One change of a Scheduler, as delivered by its ChangeFeed: a Person created, a Meeting or MeetingSeries
+ * booked, or an occurrence of a MeetingSeries cancelled. Changes are numbered by a sequence, starting at 1 and
+ * increasing by 1 per change of the Scheduler, so a consumer can tell which changes it has seen and resume
+ * after the last one.
+ */
+public class ScheduleChange {
+
+    /**
+     * PERSON_CREATED: a Person was created, see getPerson().
+     * MEETING_BOOKED: a Meeting was booked, see getMeeting().
+     * SERIES_BOOKED:  a recurring MeetingSeries was booked, see getSeries().
+     * OCCURRENCE_CANCELLED: an occurrence of a MeetingSeries was cancelled, see getSeries() and getTimeSlot().
+     */
+    public enum Type {
+        PERSON_CREATED, MEETING_BOOKED, SERIES_BOOKED, OCCURRENCE_CANCELLED
+    };
+
+    private final long sequence;
+    private final Type type;
+    private final Person person;
+    private final Meeting meeting;
+    private final MeetingSeries series;
+    private final long epochHour;           // cancelled occurrence, unless another type
+    private final List<Person> people;      // everyone whose schedule changed
+
+    private ScheduleChange(long sequence, Type type, Person person, Meeting meeting, MeetingSeries series,
+                           long epochHour, List<Person> people) {
+        this.sequence = sequence;
+        this.type = type;
+        this.person = person;
+        this.meeting = meeting;
+        this.series = series;
+        this.epochHour = epochHour;
+        this.people = people;
+    }
+
+    static ScheduleChange personCreated(long sequence, Person person) {
+        return new ScheduleChange(sequence, Type.PERSON_CREATED, person, null, null, 0L, List.of(person));
+    }
+
+    /**
+     * @param participants List<Person> of the meeting's participants, not changed afterwards
+     */
+    static ScheduleChange meetingBooked(long sequence, Meeting meeting, List<Person> participants) {
+        return new ScheduleChange(sequence, Type.MEETING_BOOKED, null, meeting, null, 0L, participants);
+    }
+
+    static ScheduleChange seriesBooked(long sequence, MeetingSeries series, List<Person> participants) {
+        return new ScheduleChange(sequence, Type.SERIES_BOOKED, null, null, series, 0L, participants);
+    }
+
+    static ScheduleChange occurrenceCancelled(long sequence, MeetingSeries series, long epochHour,
+                                              List<Person> participants) {
+        return new ScheduleChange(sequence, Type.OCCURRENCE_CANCELLED, null, null, series, epochHour, participants);
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return Person created, or null unless PERSON_CREATED
+     */
+    public Person getPerson() {
+        return person;
+    }
+
+    /**
+     * @return Meeting booked, or null unless MEETING_BOOKED
+     */
+    public Meeting getMeeting() {
+        return meeting;
+    }
+
+    /**
+     * @return MeetingSeries booked, or whose occurrence was cancelled; null unless SERIES_BOOKED
+     *         or OCCURRENCE_CANCELLED
+     */
+    public MeetingSeries getSeries() {
+        return series;
+    }
+
+    /**
+     * @return LocalDateTime of the cancelled occurrence, or null unless OCCURRENCE_CANCELLED
+     */
+    public LocalDateTime getTimeSlot() {
+        return type == Type.OCCURRENCE_CANCELLED ? TimeSlots.fromEpochHour(epochHour) : null;
+    }
+
+    /**
+     * @return ArrayList<String> of the emails of everyone whose schedule changed, i.e. the participants
+     */
+    public ArrayList<String> getEmails() {
+        ArrayList<String> emails = new ArrayList<>(people.size());
+        for (Person p : people) {
+            emails.add(p.getEmail());
+        }
+        return emails;
+    }
+
+    /**
+     * @param p Person to check for
+     * @return true if the schedule of the given Person changed
+     */
+    boolean involves(Person p) {
+        for (Person changed : people) {
+            if (changed == p) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + type + " " + getEmails();
+    }
+}
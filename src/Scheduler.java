@@ -1,43 +1,253 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.security.InvalidParameterException;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
 import java.util.regex.Pattern;
 
-public class Scheduler {
+public class Scheduler implements Closeable {
 
     public enum MeetingDays {
         MONDAY, TUESDAY, WEDNESDAY, THURSDAY, FRIDAY, SATURDAY, SUNDAY
     };
 
-    private final List<MeetingDays> defaultPreferredDays;
-    private final List<Integer> defaultPreferredHours; // preferred timeslots could be migrated to each Person
-                                                       // in a more advanced version
-    private final ArrayList<Person> people;
-    private final ArrayList<Meeting> meetings;
-    private LocalDateTime currentTime;
+    /**
+     * SINGLE_THREADED: Scheduler is used from one thread at a time, no locking is done.
+     * CONCURRENT: Scheduler is shared between threads. createMeeting locks only the participants involved,
+     *             tryCreateMeeting takes no locks at all, and availability reads and suggestions are lock-free.
+     */
+    public enum Mode {
+        SINGLE_THREADED, CONCURRENT
+    };
+
+    /**
+     * ALL_OR_NOTHING: a batch of meetings is only booked if every meeting of it can be booked.
+     * BEST_EFFORT: every meeting of a batch that can be booked is booked.
+     */
+    public enum BatchMode {
+        ALL_OR_NOTHING, BEST_EFFORT
+    };
+
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^(.+)@(\\S+)$"); // email format
+    private static final Comparator<Person> LOCK_ORDER = Comparator.comparing(Person::getEmail);
+
+    // Preferred timeslots of people without WorkingHours, see setWorkingHours()
+    static final List<MeetingDays> DEFAULT_PREFERRED_DAYS = List.of(MeetingDays.MONDAY,
+            MeetingDays.TUESDAY, MeetingDays.WEDNESDAY, MeetingDays.THURSDAY, MeetingDays.FRIDAY);
+    static final List<Integer> DEFAULT_PREFERRED_HOURS = List.of(9, 10, 13, 14);
+    // Compiled once, so suggesting with the defaults never walks the boxed lists
+    static final WeeklyMask DEFAULT_PREFERRED = WeeklyMask.of(DEFAULT_PREFERRED_DAYS, DEFAULT_PREFERRED_HOURS);
+    // Reported as preferred when participants' working hours are searched within WeeklyMask.ALL instead
+    private static final List<MeetingDays> ALL_DAYS = List.of(MeetingDays.values());
+    private static final List<Integer> ALL_HOURS = List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15,
+            16, 17, 18, 19, 20, 21, 22, 23);
+    private static final int DEFAULT_GRANULARITY_MINUTES = 5;
+    private static final int MAX_DURATION_MINUTES = TimeSlots.HOURS_PER_DAY * TimeSlots.MINUTES_PER_HOUR;
+
+    private final Mode mode;
+    private final PersonRegistry people;
+    private final MeetingStore meetings;
+    private final List<MeetingSeries> series;
+    private final Clock clock;
+    private volatile SchedulerListener listener = SchedulerListener.NONE;
+    private SchedulerJournal journal;   // null unless persistent, see open()
+    // Held while journaling people, series and cancellations, which later records refer to, and while moving
+    // to a new journal file, so a record never refers to one journaled in a later file; see checkpoint()
+    private final Object journalOrder = new Object();
+    private ColumnarSnapshot base;      // null unless loaded from a columnar snapshot, see openColumnar()
+    private volatile long releasedBefore = Long.MIN_VALUE;  // see releasePastAvailability()
+    private volatile int granularityMinutes = DEFAULT_GRANULARITY_MINUTES;  // see setGranularity()
+    private volatile SchedulerMetrics metrics;  // null unless enabled, see setMetricsEnabled()
+    private final ChangeFeed changes = new ChangeFeed(ChangeFeed.DEFAULT_CAPACITY);  // see getChanges()
+    private final AtomicInteger materialized = new AtomicInteger();   // people of the columnar snapshot registered
+    // Recent suggestions, dropped as their participants' availability changes
+    private final SuggestionCache suggestions = new SuggestionCache(SuggestionCache.DEFAULT_CAPACITY);
+    // Participants of meetings booked as a shard, owned by other shards, see bookShardMeeting(); by email key
+    private final ConcurrentHashMap<String, Person> guests = new ConcurrentHashMap<>();
 
     /**
      * Instantiates a new Scheduler containing default values for suggesting meetings for preferred timeslots.
-     * Holds ArrayLists for people and meetings, storage is non-persistent.
+     * Holds an email-keyed PersonRegistry for people and a MeetingStore for meetings, storage is non-persistent.
+     * Emails are compared exactly.
      */
     public Scheduler() {
-        people = new ArrayList<>();
-        meetings = new ArrayList<>();
-        defaultPreferredDays = new ArrayList<>() {{
-            add(MeetingDays.MONDAY); add(MeetingDays.TUESDAY); add(MeetingDays.WEDNESDAY);
-            add(MeetingDays.THURSDAY); add(MeetingDays.FRIDAY);
-        }};
-        defaultPreferredHours = new ArrayList<>() {{
-            add(9); add(10); add(13); add(14);
-        }};
-        currentTime = LocalDateTime.now(); // TODO: Get server time etc.
+        this(PersonRegistry.KeyMode.EXACT, Mode.SINGLE_THREADED);
+    }
+
+    /**
+     * Instantiates a new Scheduler containing default values for suggesting meetings for preferred timeslots.
+     * @param emailKeyMode PersonRegistry.KeyMode deciding whether emails are normalized and/or case-folded
+     *                     before lookup and the unique email check.
+     */
+    public Scheduler(PersonRegistry.KeyMode emailKeyMode) {
+        this(emailKeyMode, Mode.SINGLE_THREADED);
+    }
+
+    /**
+     * Instantiates a new Scheduler containing default values for suggesting meetings for preferred timeslots.
+     * @param emailKeyMode PersonRegistry.KeyMode deciding whether emails are normalized and/or case-folded
+     *                     before lookup and the unique email check.
+     * @param mode         Mode deciding whether the Scheduler may be shared between threads.
+     */
+    public Scheduler(PersonRegistry.KeyMode emailKeyMode, Mode mode) {
+        this(emailKeyMode, mode, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Instantiates a new Scheduler containing default values for suggesting meetings for preferred timeslots.
+     * @param emailKeyMode PersonRegistry.KeyMode deciding whether emails are normalized and/or case-folded
+     *                     before lookup and the unique email check.
+     * @param mode         Mode deciding whether the Scheduler may be shared between threads.
+     * @param clock        Clock telling the current time, deciding which meetings are upcoming and where
+     *                     suggestions start. E.g. Clock.fixed(...) for reproducible schedules and suggestions.
+     */
+    public Scheduler(PersonRegistry.KeyMode emailKeyMode, Mode mode, Clock clock) {
+        if (mode == null || clock == null) {
+            throw new InvalidParameterException("Mode and Clock must be not-null");
+        }
+        this.mode = mode;
+        this.clock = clock;
+        people = new PersonRegistry(emailKeyMode, mode == Mode.CONCURRENT);
+        meetings = new MeetingStore(people);
+        series = mode == Mode.CONCURRENT ? Collections.synchronizedList(new ArrayList<>()) : new ArrayList<>();
+    }
+
+    /**
+     * Opens a persistent Scheduler, restoring the people, meetings and series created by earlier runs.
+     * Everything created afterwards is appended to a journal in the directory, and is durable on disk
+     * before the creating call returns; concurrent callers share the cost of writing to disk.
+     * Restoring loads the latest snapshot, see checkpoint(), and replays only the journal written since.
+     * @param directory    Path of directory holding the Scheduler's files, created if missing
+     * @param emailKeyMode PersonRegistry.KeyMode deciding whether emails are normalized and/or case-folded
+     *                     before lookup and the unique email check.
+     * @param mode         Mode deciding whether the Scheduler may be shared between threads.
+     * @return Scheduler holding the restored state
+     * @throws IOException if the directory can not be read, or holds a corrupt snapshot or journal, or one
+     *                     booking a participant twice at a time
+     */
+    public static Scheduler open(Path directory, PersonRegistry.KeyMode emailKeyMode, Mode mode) throws IOException {
+        if (directory == null) {
+            throw new InvalidParameterException("Path directory must be not-null");
+        }
+        Scheduler scheduler = new Scheduler(emailKeyMode, mode);
+        scheduler.journal = SchedulerJournal.open(directory, scheduler);
+        return scheduler;
+    }
+
+    /**
+     * Writes a snapshot of everything created so far and deletes the journal it covers, keeping the next
+     * restore quick. Bookings may go on meanwhile. May be called periodically, e.g. from a
+     * ScheduledExecutorService, or after a number of bookings.
+     * @throws IOException if writing fails, leaving the previous snapshot and journal in place
+     */
+    public void checkpoint() throws IOException {
+        if (journal == null) {
+            throw new IllegalStateException("Scheduler is not persistent, see Scheduler.open()");
+        }
+        synchronized (journal) {
+            // Everything journaled before the rotation has been applied already, so the copies below hold it
+            long generation;
+            synchronized (journalOrder) {
+                generation = journal.rotate();
+            }
+            List<Meeting> meetingsCopy = meetings.asList();
+            ArrayList<MeetingSeries> seriesCopy = new ArrayList<>(series);
+            // Copy people last, so they include every participant of the copied meetings
+            ArrayList<Person> peopleCopy = new ArrayList<>(people.getPeople());
+            SchedulerSnapshot.write(journal.getDirectory(), generation, peopleCopy, meetingsCopy, seriesCopy);
+            journal.deleteBefore(generation);
+        }
+    }
+
+    /**
+     * Opens a Scheduler serving the people, meetings and series of a columnar snapshot written by
+     * exportColumnar(). The file is memory-mapped rather than read: availability checks and suggestions read
+     * busy hours straight from it, and a Person object is only created once their email is first used,
+     * with their Meeting objects only built once their schedule is asked for. Ready at once however large
+     * the snapshot, and without the garbage collector having to trace millions of objects.
+     * New people and meetings are kept in memory as usual; the snapshot itself is never changed.
+     * @param file Path of columnar snapshot file
+     * @param mode Mode deciding whether the Scheduler may be shared between threads.
+     * @return Scheduler serving the snapshot, comparing emails by the KeyMode it was exported with
+     * @throws IOException if the file can not be read, or is not a columnar snapshot
+     */
+    public static Scheduler openColumnar(Path file, Mode mode) throws IOException {
+        if (file == null) {
+            throw new InvalidParameterException("Path file must be not-null");
+        }
+        ColumnarSnapshot snapshot = ColumnarSnapshot.open(file);
+        Scheduler scheduler = new Scheduler(snapshot.getKeyMode(), mode);
+        scheduler.base = snapshot;
+        snapshot.setResolver(scheduler::materialize);
+        // Series are few, and needed as objects to answer availability
+        for (int i = 0; i < snapshot.getSeriesCount(); i++) {
+            MeetingSeries meetingSeries = snapshot.series(i);
+            scheduler.restoreSeries(meetingSeries.getRecurrence(), meetingSeries.getParticipants(), false);
+        }
+        return scheduler;
+    }
+
+    /**
+     * Writes every person, meeting and series to a columnar snapshot file, see openColumnar().
+     * Meant for moving a full directory to fresh nodes; bookings made meanwhile may be left out.
+     * @param file Path of file to write, replaced if it exists, other than the one this Scheduler was opened from
+     * @throws IOException if writing fails, or a meeting is not at a whole hour, leaving any earlier file in place,
+     *                     or the file is the one this Scheduler was opened from, as it is still mapped
+     */
+    public void exportColumnar(Path file) throws IOException {
+        if (file == null) {
+            throw new InvalidParameterException("Path file must be not-null");
+        }
+        if (base != null && base.isMapped(file)) {
+            throw new IOException("Columnar snapshot " + file + " is mapped by this Scheduler, export to another file");
+        }
+        ArrayList<Meeting> meetingsCopy = new ArrayList<>(meetings.asList());
+        ArrayList<MeetingSeries> seriesCopy = new ArrayList<>(series);
+        if (base != null) {
+            for (int m = 0; m < base.getMeetingCount(); m++) {
+                meetingsCopy.add(base.meeting(m));
+            }
+            for (int id = 0; id < base.getPeopleCount(); id++) {
+                materialize(id);
+            }
+        }
+        // Copy people last, so they include every participant of the copied meetings
+        ArrayList<Person> peopleCopy = new ArrayList<>(people.getPeople());
+        ColumnarSnapshot.write(file, people.getKeyMode(), peopleCopy, meetingsCopy, seriesCopy);
+    }
+
+    /**
+     * Completes the subscriptions of getChanges() once they have delivered every change, and, if persistent,
+     * writes what is left of the journal to disk and closes it.
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        changes.close();
+        if (journal != null) {
+            journal.close();
+        }
     }
 
     /**
      * 1) Create persons with a name and unique email.
-     * Will print person info to console.
+     * Reports the new person to the SchedulerListener.
      * @param name  String for name of Person instance
      * @param email String for valid email address and unique identifier for Person instance
      * @throws Exception on invalid contact info or in case of duplicate unique email
@@ -49,56 +259,559 @@ public class Scheduler {
         if (name.isEmpty() || !isValidEmail(email)) {
             throw new InvalidParameterException("Person error: Invalid contact information.");
         }
-        for (Person person : people) {
-            if (person.getEmail().equals(email)) {
+        Person person = newPerson(name, email, null);
+        synchronized (journalOrder) {
+            // Journal the person before anyone can book them
+            if ((base != null && base.find(people.key(email)) >= 0) || people.contains(email)) {
                 throw new Exception("Person error: Unique Email already in use.");
             }
+            if (journal != null) {
+                journal.appendPerson(name, email);
+            }
+            people.add(person);
+        }
+        syncJournal();
+        changes.personCreated(person);
+        if (listener.isEnabled(SchedulerListener.Level.INFO)) {
+            listener.personCreated(person);
+        }
+    }
+
+    /**
+     * 1) Create many persons at once, e.g. when onboarding a full roster.
+     * All entries are validated before any is added, so either the whole roster is added or none of it.
+     * Reports a single summary to the SchedulerListener.
+     * @param namesByEmail Map of valid, unique email to name, for each Person to create
+     * @throws Exception on invalid contact info, or if an email is already in use or repeated in the roster
+     */
+    public void createPeople(Map<String, String> namesByEmail) throws Exception {
+        if (namesByEmail == null) {
+            throw new InvalidParameterException("Map namesByEmail must be not-null");
+        }
+        // Validate the whole roster before touching the registry
+        HashSet<String> seen = HashSet.newHashSet(namesByEmail.size());
+        for (Map.Entry<String, String> entry : namesByEmail.entrySet()) {
+            String email = entry.getKey();
+            String name = entry.getValue();
+            if (name == null || email == null) {
+                throw new InvalidParameterException("String name and String email must be not-null");
+            }
+            if (name.isEmpty() || !isValidEmail(email)) {
+                throw new InvalidParameterException("Person error: Invalid contact information for " + email);
+            }
+            if (!seen.add(people.key(email))) {
+                throw new Exception("Person error: Unique Email already in use: " + email);
+            }
+        }
+        people.ensureCapacity(namesByEmail.size());
+        ArrayList<Person> added = new ArrayList<>(namesByEmail.size());
+        synchronized (journalOrder) {
+            // Journal the roster before anyone can book them
+            for (String email : namesByEmail.keySet()) {
+                if (people.contains(email) || (base != null && base.find(people.key(email)) >= 0)) {
+                    throw new Exception("Person error: Unique Email already in use: " + email);
+                }
+            }
+            for (Map.Entry<String, String> entry : namesByEmail.entrySet()) {
+                if (journal != null) {
+                    journal.appendPerson(entry.getValue(), entry.getKey());
+                }
+                Person person = newPerson(entry.getValue(), entry.getKey(), null);
+                people.add(person);
+                added.add(person);
+            }
+        }
+        syncJournal();
+        for (Person person : added) {
+            changes.personCreated(person);
+        }
+        if (listener.isEnabled(SchedulerListener.Level.INFO)) {
+            listener.peopleCreated(namesByEmail.size());
         }
-        people.add(new Person(name, email));
-        System.out.println("> Successfully added new person: " + name + " " + email);
     }
 
     /**
      * 2) Create meetings involving one or more persons at a given time slot
      * Method assumes the caller wants to create a new meeting for a given list of emails that have already
      * been added by createPerson(name, email)
-     * Will print meeting info to console.
+     * Reports the new meeting, or the rejection, to the SchedulerListener.
      * @param stringTimeSlot String with date pattern "HH-dd-MM-yyyy", using 24-hour count.
      *                       E.g. "14-01-01-2024" returns 2024-01-01T14:00
      *                       Intentionally disregards minutes, seconds, etc. for the sake of whole hour timeslots.
      * @param emailParticipants List of Strings of emails of participants
+     * @return BookingResult holding either the booked Meeting, or the emails of the participants not available
      * @throws Exception if called with empty list of emailParticipants, or if list contains email not already added.
      */
-    public void createMeeting(String stringTimeSlot, List<String> emailParticipants) throws Exception {
+    public BookingResult createMeeting(String stringTimeSlot, List<String> emailParticipants) throws Exception {
         if (stringTimeSlot == null || emailParticipants == null) {
             throw new InvalidParameterException("String timeSlot and List<String> emailParticipants must be not-null");
         }
-        LocalDateTime timeSlot = formatStringToDatetime(stringTimeSlot);
-        if (emailParticipants.isEmpty()) {
-            throw new InvalidParameterException("Meeting must have at least 1 participant.");
+        return createMeeting(TimeSlots.parseEpochHour(stringTimeSlot), emailParticipants);
+    }
+
+    /**
+     * 2) Create meetings involving one or more persons at a given time slot
+     * Same as createMeeting(String stringTimeSlot, List<String> emailParticipants), without parsing a String.
+     * @param timeSlot LocalDateTime at a whole hour
+     * @param emailParticipants List of Strings of emails of participants
+     * @return BookingResult holding either the booked Meeting, or the emails of the participants not available
+     * @throws Exception if timeSlot is not at a whole hour, if called with empty list of emailParticipants,
+     *                   or if list contains email not already added.
+     */
+    public BookingResult createMeeting(LocalDateTime timeSlot, List<String> emailParticipants) throws Exception {
+        if (timeSlot == null || emailParticipants == null) {
+            throw new InvalidParameterException("LocalDateTime timeSlot and List<String> emailParticipants must be not-null");
         }
-        ArrayList<Person> participants = new ArrayList<>();
-        for (String email : emailParticipants) {
-            participants.add(getPersonFromEmail(email));
+        return createMeeting(toWholeEpochHour(timeSlot), emailParticipants);
+    }
+
+    /**
+     * 2) Create meetings involving one or more persons at a given time slot
+     * Same as createMeeting(String stringTimeSlot, List<String> emailParticipants), for high-rate callers
+     * already holding the timeslot as an epoch hour, see TimeSlots.
+     * @param epochHour long hours since 1970-01-01T00:00, within years 0000-9999, see TimeSlots.isSupported()
+     * @param emailParticipants List of Strings of emails of participants
+     * @return BookingResult holding either the booked Meeting, or the emails of the participants not available
+     * @throws Exception if called with empty list of emailParticipants, or if list contains email not already added.
+     */
+    public BookingResult createMeeting(long epochHour, List<String> emailParticipants) throws Exception {
+        SchedulerMetrics metrics = this.metrics;
+        long began = metrics == null ? 0L : System.nanoTime();
+        BookingResult result = createMeetingLocked(epochHour, emailParticipants);
+        if (metrics != null) {
+            metrics.bookingDone(System.nanoTime() - began, result);
         }
-        // Check participant availability
-        boolean allAvailable = false;
-        for (Person person : participants) {
-            allAvailable = person.isAvailableThen(timeSlot);
-            if (!allAvailable) {
-                System.out.println("\n¤ attempted createMeeting at: "+timeSlot
-                        +" - Some participants not available at timeslot");
-                return;
-            }
+        return result;
+    }
+
+    /**
+     * Books a meeting for createMeeting(long epochHour, List<String> emailParticipants), locking its participants.
+     */
+    private BookingResult createMeetingLocked(long epochHour, List<String> emailParticipants) throws Exception {
+        if (emailParticipants == null) {
+            throw new InvalidParameterException("List<String> emailParticipants must be not-null");
+        }
+        requireSupported(epochHour);
+        ArrayList<Person> participants = getParticipantsFromEmails(emailParticipants);
+        // Lock participants in a fixed order, so concurrent bookings of overlapping groups can not deadlock
+        ArrayList<Person> lockOrder = participants;
+        if (mode == Mode.CONCURRENT) {
+            lockOrder = new ArrayList<>(participants);
+            lockOrder.sort(LOCK_ORDER);
+        }
+        Person conflict;
+        long[] stamps = lockForBooking(lockOrder);
+        try {
+            // Check participant availability, by claiming the timeslot for each of them
+            conflict = reserveAll(participants, epochHour);
+        } finally {
+            unlockAfterBooking(lockOrder, stamps);
+        }
+        if (conflict != null) {
+            return rejectMeeting(epochHour, participants, conflict);
         }
         // Schedule meeting
-        Meeting meeting = new Meeting(timeSlot, participants);
-        for (Person person : participants) {
-            person.scheduleMeeting(meeting);
+        BookingResult result = bookMeeting(epochHour, participants);
+        syncJournal();
+        publishMeeting(result.getMeeting(), participants);
+        return result;
+    }
+
+    /**
+     * 2) Create meetings involving one or more persons, for any length of time and not only at the hour mark,
+     * e.g. at 10:30 for 90 minutes. Start and length must be multiples of the granularity, see setGranularity().
+     * The meeting conflicts with every meeting of a participant it overlaps: a 90 minute meeting at 10:00 blocks
+     * the one at 11:00, while meetings ending at 10:30 and starting at 10:30 do not conflict.
+     * Each participant's meetings not at whole hours are kept as sorted intervals of minutes, so a conflict
+     * is found by binary search. A meeting at a whole hour lasting one hour is booked as any other.
+     * Reports the new meeting, or the rejection, to the SchedulerListener.
+     * @param start    LocalDateTime the meeting starts at
+     * @param duration Duration of the meeting, at most a day
+     * @param emailParticipants List of Strings of emails of participants
+     * @return BookingResult holding either the booked Meeting, or the emails of the participants not available
+     * @throws Exception if start or duration are not multiples of the granularity, if called with empty list
+     *                   of emailParticipants, or if list contains email not already added.
+     */
+    public BookingResult createMeeting(LocalDateTime start, Duration duration, List<String> emailParticipants)
+            throws Exception {
+        if (start == null || duration == null || emailParticipants == null) {
+            throw new InvalidParameterException("LocalDateTime start, Duration duration and List<String> "
+                    + "emailParticipants must be not-null");
+        }
+        int granularity = granularityMinutes;
+        long startMinute = TimeSlots.toEpochMinute(start);
+        requireSupported(Math.floorDiv(startMinute, TimeSlots.MINUTES_PER_HOUR));
+        if (start.getSecond() != 0 || start.getNano() != 0 || Math.floorMod(startMinute, granularity) != 0) {
+            throw new InvalidParameterException("Meetings must start at a multiple of " + granularity
+                    + " minutes, was: " + start);
+        }
+        long minutes = duration.toMinutes();
+        if (!duration.equals(Duration.ofMinutes(minutes)) || minutes <= 0 || minutes > MAX_DURATION_MINUTES
+                || minutes % granularity != 0) {
+            throw new InvalidParameterException("Meetings must last a multiple of " + granularity
+                    + " minutes, up to a day, was: " + duration);
+        }
+        int durationMinutes = (int) minutes;
+        if (isWholeHour(startMinute, durationMinutes)) {
+            return createMeeting(startMinute / TimeSlots.MINUTES_PER_HOUR, emailParticipants);
+        }
+        SchedulerMetrics metrics = this.metrics;
+        long began = metrics == null ? 0L : System.nanoTime();
+        BookingResult result = createMeetingLocked(startMinute, durationMinutes, emailParticipants);
+        if (metrics != null) {
+            metrics.bookingDone(System.nanoTime() - began, result);
+        }
+        return result;
+    }
+
+    /**
+     * Books a meeting for createMeeting(LocalDateTime start, Duration duration, List<String> emailParticipants),
+     * locking its participants.
+     */
+    private BookingResult createMeetingLocked(long startMinute, int durationMinutes, List<String> emailParticipants)
+            throws Exception {
+        ArrayList<Person> participants = getParticipantsFromEmails(emailParticipants);
+        // Lock participants in a fixed order, see createMeeting(long epochHour, List<String> emailParticipants)
+        ArrayList<Person> lockOrder = participants;
+        if (mode == Mode.CONCURRENT) {
+            lockOrder = new ArrayList<>(participants);
+            lockOrder.sort(LOCK_ORDER);
+        }
+        Person conflict;
+        long[] stamps = lockForBooking(lockOrder);
+        try {
+            conflict = reserveAll(participants, startMinute, durationMinutes);
+        } finally {
+            unlockAfterBooking(lockOrder, stamps);
+        }
+        if (conflict != null) {
+            return rejectMeeting(startMinute, durationMinutes, participants, conflict);
+        }
+        Meeting meeting = storeMeeting(startMinute, durationMinutes, participants);
+        if (journal != null) {
+            journal.appendMeeting(startMinute, durationMinutes, participants);
+        }
+        syncJournal();
+        publishMeeting(meeting, participants);
+        return BookingResult.booked(meeting);
+    }
+
+    /**
+     * 2) Create meetings involving one or more persons at a given time slot, without taking any locks.
+     * Claims the timeslot on each participant's calendar with compare-and-set. If any participant turns out
+     * to be busy, the claims already made are rolled back and the conflict is returned instead.
+     * Contended participants, e.g. someone invited to most meetings, therefore never block other bookings.
+     * A booking that is rolled back may briefly make its participants appear busy to concurrent callers.
+     * @param stringTimeSlot String with date pattern "HH-dd-MM-yyyy", using 24-hour count.
+     * @param emailParticipants List of Strings of emails of participants
+     * @return BookingResult holding either the booked Meeting, or the emails of the participants not available
+     * @throws Exception if called with empty list of emailParticipants, or if list contains email not already added.
+     */
+    public BookingResult tryCreateMeeting(String stringTimeSlot, List<String> emailParticipants) throws Exception {
+        if (stringTimeSlot == null || emailParticipants == null) {
+            throw new InvalidParameterException("String timeSlot and List<String> emailParticipants must be not-null");
+        }
+        return tryCreateMeeting(TimeSlots.parseEpochHour(stringTimeSlot), emailParticipants);
+    }
+
+    /**
+     * 2) Create meetings involving one or more persons at a given time slot, without taking any locks.
+     * Same as tryCreateMeeting(String stringTimeSlot, List<String> emailParticipants), without parsing a String.
+     * @param timeSlot LocalDateTime at a whole hour
+     * @param emailParticipants List of Strings of emails of participants
+     * @return BookingResult holding either the booked Meeting, or the emails of the participants not available
+     * @throws Exception if timeSlot is not at a whole hour, if called with empty list of emailParticipants,
+     *                   or if list contains email not already added.
+     */
+    public BookingResult tryCreateMeeting(LocalDateTime timeSlot, List<String> emailParticipants) throws Exception {
+        if (timeSlot == null || emailParticipants == null) {
+            throw new InvalidParameterException("LocalDateTime timeSlot and List<String> emailParticipants must be not-null");
+        }
+        return tryCreateMeeting(toWholeEpochHour(timeSlot), emailParticipants);
+    }
+
+    /**
+     * 2) Create meetings involving one or more persons at a given time slot, without taking any locks.
+     * Same as tryCreateMeeting(String stringTimeSlot, List<String> emailParticipants), for high-rate callers
+     * already holding the timeslot as an epoch hour, see TimeSlots.
+     * @param epochHour long hours since 1970-01-01T00:00, within years 0000-9999, see TimeSlots.isSupported()
+     * @param emailParticipants List of Strings of emails of participants
+     * @return BookingResult holding either the booked Meeting, or the emails of the participants not available
+     * @throws Exception if called with empty list of emailParticipants, or if list contains email not already added.
+     */
+    public BookingResult tryCreateMeeting(long epochHour, List<String> emailParticipants) throws Exception {
+        SchedulerMetrics metrics = this.metrics;
+        long began = metrics == null ? 0L : System.nanoTime();
+        BookingResult result = tryCreateMeetingUnlocked(epochHour, emailParticipants);
+        if (metrics != null) {
+            metrics.bookingDone(System.nanoTime() - began, result);
+        }
+        return result;
+    }
+
+    /**
+     * Books a meeting for tryCreateMeeting(long epochHour, List<String> emailParticipants), without locks.
+     */
+    private BookingResult tryCreateMeetingUnlocked(long epochHour, List<String> emailParticipants) throws Exception {
+        if (emailParticipants == null) {
+            throw new InvalidParameterException("List<String> emailParticipants must be not-null");
+        }
+        requireSupported(epochHour);
+        ArrayList<Person> participants = getParticipantsFromEmails(emailParticipants);
+        Person conflict = reserveAll(participants, epochHour);
+        if (conflict != null) {
+            return rejectMeeting(epochHour, participants, conflict);
+        }
+        BookingResult result = bookMeeting(epochHour, participants);
+        syncJournal();
+        publishMeeting(result.getMeeting(), participants);
+        return result;
+    }
+
+    /**
+     * 2) Create many meetings at once, e.g. when importing recurring meetings, using BEST_EFFORT.
+     * See createMeetings(Collection<MeetingRequest> requests, BatchMode batchMode).
+     */
+    public BatchReport createMeetings(Collection<MeetingRequest> requests) {
+        return createMeetings(requests, BatchMode.BEST_EFFORT);
+    }
+
+    /**
+     * 2) Create many meetings at once, e.g. when importing recurring meetings.
+     * Resolves each distinct email once for the whole batch, and sorts the requests by timeslot, so conflicts
+     * with existing meetings and between requests of the batch are found in a single pass.
+     * Requests of the same timeslot sharing a participant are booked first come, first served.
+     * All accepted meetings are then booked together.
+     * Does not throw for requests that can not be booked, they are reported per request instead.
+     * @param requests  Collection<MeetingRequest> of meetings to book
+     * @param batchMode BatchMode, ALL_OR_NOTHING to book nothing unless every request can be booked
+     * @return BatchReport with a BookingResult per request, in the order of the given collection
+     * @throws UncheckedIOException if persistent, see open(), and the booked meetings can not be written to disk
+     */
+    public BatchReport createMeetings(Collection<MeetingRequest> requests, BatchMode batchMode) {
+        BatchReport report = bookBatch(requests, batchMode);
+        SchedulerMetrics metrics = this.metrics;
+        if (metrics != null) {
+            for (BookingResult result : report.getResults()) {
+                metrics.bookingResult(result);
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Books a batch for createMeetings(Collection<MeetingRequest> requests, BatchMode batchMode).
+     */
+    private BatchReport bookBatch(Collection<MeetingRequest> requests, BatchMode batchMode) {
+        if (requests == null || batchMode == null) {
+            throw new InvalidParameterException("Collection<MeetingRequest> requests and BatchMode must be not-null");
+        }
+        MeetingRequest[] batch = requests.toArray(new MeetingRequest[0]);
+        BookingResult[] results = new BookingResult[batch.length];
+        List<ArrayList<Person>> participants = new ArrayList<>(batch.length);
+        // Resolve participants, looking up each distinct email only once
+        HashMap<String, Person> resolved = new HashMap<>();
+        for (int i = 0; i < batch.length; i++) {
+            ArrayList<Person> attendees = new ArrayList<>(batch[i].getEmailParticipants().size());
+            participants.add(attendees);
+            if (batch[i].getEmailParticipants().isEmpty()) {
+                results[i] = BookingResult.invalid("Meeting must have at least 1 participant.");
+                continue;
+            }
+            if (!TimeSlots.isSupported(batch[i].getEpochHour())) {
+                results[i] = BookingResult.invalid("Timeslot must be within years 0000-9999, was epoch hour "
+                        + batch[i].getEpochHour());
+                continue;
+            }
+            for (String email : batch[i].getEmailParticipants()) {
+                Person person = email == null ? null : resolved.computeIfAbsent(email, this::lookup);
+                if (person == null) {
+                    results[i] = BookingResult.invalid("Email: " + email + " does not exist.");
+                    break;
+                }
+                if (!attendees.contains(person)) {
+                    attendees.add(person);
+                }
+            }
+        }
+        // Single pass in timeslot order, against existing meetings and accepted requests of the same timeslot
+        Integer[] order = new Integer[batch.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> batch[i].getEpochHour()));
+        boolean[] accepted = new boolean[batch.length];
+        boolean allAccepted = true;
+        HashSet<Person> bookedAtHour = new HashSet<>();
+        long hour = Long.MIN_VALUE;
+        for (int i : order) {
+            if (results[i] != null) {
+                allAccepted = false;
+                continue;
+            }
+            if (batch[i].getEpochHour() != hour) {
+                hour = batch[i].getEpochHour();
+                bookedAtHour.clear();
+            }
+            ArrayList<String> conflictingEmails = null;
+            for (Person person : participants.get(i)) {
+                if (bookedAtHour.contains(person) || person.isBusy(hour)) {
+                    if (conflictingEmails == null) conflictingEmails = new ArrayList<>();
+                    conflictingEmails.add(person.getEmail());
+                }
+            }
+            if (conflictingEmails != null) {
+                results[i] = reportRejected(hour, BookingResult.conflict(conflictingEmails));
+                allAccepted = false;
+            } else {
+                bookedAtHour.addAll(participants.get(i));
+                accepted[i] = true;
+            }
+        }
+        if (batchMode == BatchMode.ALL_OR_NOTHING && !allAccepted) {
+            return abortBatch(results);
+        }
+        // Claim the accepted timeslots, as concurrent bookings may have taken some since the check
+        for (int k = 0; k < order.length; k++) {
+            int i = order[k];
+            if (!accepted[i]) continue;
+            Person conflict = reserveAll(participants.get(i), batch[i].getEpochHour());
+            if (conflict == null) continue;
+            accepted[i] = false;
+            results[i] = rejectMeeting(batch[i].getEpochHour(), participants.get(i), conflict);
+            if (batchMode == BatchMode.ALL_OR_NOTHING) {
+                // Release what this batch claimed so far
+                for (int j = 0; j < k; j++) {
+                    if (accepted[order[j]]) {
+                        for (Person person : participants.get(order[j])) {
+                            person.releaseReservation(batch[order[j]].getEpochHour());
+                        }
+                    }
+                }
+                return abortBatch(results);
+            }
+        }
+        // Book all accepted meetings
+        int booked = 0;
+        for (int i : order) {
+            if (accepted[i]) {
+                results[i] = bookMeeting(batch[i].getEpochHour(), participants.get(i));
+                booked++;
+            }
+        }
+        // One write to disk for the whole batch
+        try {
+            syncJournal();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (int i : order) {
+            if (accepted[i]) {
+                publishMeeting(results[i].getMeeting(), participants.get(i));
+            }
+        }
+        return new BatchReport(Arrays.asList(results), booked);
+    }
+
+    /**
+     * 2) Create a recurring meeting, e.g. a weekly stand-up, involving one or more persons.
+     * The series is stored once as a Recurrence rule, instead of as one Meeting per occurrence, so it may
+     * recur without end. It is booked for every participant or for none of them: if any occurrence takes place
+     * at the same time as a meeting or another series of a participant, nothing is booked.
+     * Single meetings booked later at the time of an occurrence are rejected as conflicts.
+     * Reports the new series, or the rejection, to the SchedulerListener.
+     * @param recurrence Recurrence rule of the series' timeslots, copied: the series' occurrences are cancelled
+     *                   through cancelOccurrence(), without affecting other series booked with the same rule
+     * @param emailParticipants List of Strings of emails of participants
+     * @return BookingResult holding either the booked MeetingSeries, or the emails of the participants not available
+     * @throws Exception if called with empty list of emailParticipants, or if list contains email not already added.
+     */
+    public BookingResult createMeetingSeries(Recurrence recurrence, List<String> emailParticipants) throws Exception {
+        SchedulerMetrics metrics = this.metrics;
+        long began = metrics == null ? 0L : System.nanoTime();
+        BookingResult result = bookSeries(recurrence, emailParticipants);
+        if (metrics != null) {
+            metrics.bookingDone(System.nanoTime() - began, result);
+        }
+        return result;
+    }
+
+    /**
+     * Books a series for createMeetingSeries(Recurrence recurrence, List<String> emailParticipants).
+     */
+    private BookingResult bookSeries(Recurrence recurrence, List<String> emailParticipants) throws Exception {
+        if (recurrence == null || emailParticipants == null) {
+            throw new InvalidParameterException("Recurrence and List<String> emailParticipants must be not-null");
+        }
+        requireSupported(recurrence.getStartHour());
+        ArrayList<Person> participants = getParticipantsFromEmails(emailParticipants);
+        // A series of its own, as occurrences are cancelled on the Recurrence, which the caller may book again
+        recurrence = recurrence.copy();
+        MeetingSeries meetingSeries = new MeetingSeries(recurrence, participants);
+        synchronized (journalOrder) {
+            for (int i = 0; i < participants.size(); i++) {
+                if (!participants.get(i).addSeries(meetingSeries)) {
+                    for (int j = i - 1; j >= 0; j--) {
+                        participants.get(j).removeSeries(meetingSeries);
+                    }
+                    // Report everyone with a conflict, not just the first one found
+                    ArrayList<String> conflictingEmails = new ArrayList<>();
+                    for (Person person : participants) {
+                        if (person.conflictsWith(recurrence, null)) {
+                            conflictingEmails.add(person.getEmail());
+                        }
+                    }
+                    if (conflictingEmails.isEmpty()) {
+                        conflictingEmails.add(participants.get(i).getEmail());  // conflict was cancelled meanwhile
+                    }
+                    return reportRejected(recurrence.getStartHour(), BookingResult.conflict(conflictingEmails));
+                }
+            }
+            series.add(meetingSeries);
+            if (journal != null) {
+                journal.appendSeries(recurrence, participants);
+                // Occurrences cancelled on the given Recurrence, e.g. one taken from another series
+                for (long exception : recurrence.getExceptions()) {
+                    journal.appendCancellation(meetingSeries, exception);
+                }
+            }
+        }
+        syncJournal();
+        changes.seriesBooked(meetingSeries, participants);
+        if (listener.isEnabled(SchedulerListener.Level.INFO)) {
+            listener.seriesCreated(meetingSeries);
+        }
+        return BookingResult.bookedSeries(meetingSeries);
+    }
+
+    /**
+     * Cancels a single occurrence of a recurring meeting, freeing its timeslot for all participants.
+     * Reported to subscribers of getChanges().
+     * @param meetingSeries MeetingSeries booked by this Scheduler
+     * @param timeSlot      LocalDateTime of the occurrence
+     * @throws Exception if the series was not booked by this Scheduler, or does not take place at the timeslot
+     */
+    public void cancelOccurrence(MeetingSeries meetingSeries, LocalDateTime timeSlot) throws Exception {
+        if (meetingSeries == null || timeSlot == null) {
+            throw new InvalidParameterException("MeetingSeries and LocalDateTime timeSlot must be not-null");
+        }
+        long epochHour = TimeSlots.toEpochHour(timeSlot);
+        requireSupported(epochHour);
+        if (!series.contains(meetingSeries)) {
+            throw new Exception("Series error: Series was not booked by this Scheduler.");
+        }
+        synchronized (journalOrder) {
+            // Checked under the lock, so an occurrence is cancelled and journaled once
+            if (!meetingSeries.getRecurrence().occursAt(epochHour)) {
+                throw new Exception("Series error: No occurrence at " + timeSlot);
+            }
+            if (journal != null) {
+                journal.appendCancellation(meetingSeries, epochHour);
+            }
+            meetingSeries.cancelOccurrence(epochHour);
         }
-        meetings.add(meeting);
-        System.out.println("\n> Successfully created new meeting.");
-        meeting.print();
+        syncJournal();
+        changes.occurrenceCancelled(meetingSeries, epochHour, meetingSeries.getParticipants());
     }
 
     /**
@@ -134,16 +847,25 @@ public class Scheduler {
     /**
      * Access schedule of person given by their email String
      * @param email String
-     * @return ArrayList<Meeting> schedule of Person of given email String
+     * @return Collection<Meeting> upcoming meetings of Person of given email String, in chronological order.
+     *         A live, read-only view, see Person.getSchedule()
      */
-    public ArrayList<Meeting> getScheduleForPerson(String email) {
+    public Collection<Meeting> getScheduleForPerson(String email) {
         if (email == null) {
             throw new InvalidParameterException("String email must be not-null");
         }
+        SchedulerMetrics metrics = this.metrics;
+        long began = metrics == null ? 0L : System.nanoTime();
         try {
-            return getPersonFromEmail(email).getSchedule();
+            Collection<Meeting> schedule = getPersonFromEmail(email).getSchedule();
+            if (metrics != null) {
+                metrics.scheduleLookupDone(System.nanoTime() - began);
+            }
+            return schedule;
         } catch (Exception e) {
-            System.out.println(e);
+            if (listener.isEnabled(SchedulerListener.Level.WARN)) {
+                listener.warning(e);
+            }
         }
         return null;
     }
@@ -151,90 +873,83 @@ public class Scheduler {
     /**
      * Access schedule of given Person instance
      * @param person instance of type Person
-     * @return ArrayList<Meeting> schedule of given Person instance
+     * @return Collection<Meeting> upcoming meetings of given Person instance, in chronological order
      */
-    public ArrayList<Meeting> getScheduleForPerson(Person person) {
+    public Collection<Meeting> getScheduleForPerson(Person person) {
         if (person == null) {
             throw new InvalidParameterException("Person must be not-null");
         }
         return person.getSchedule();
     }
 
+    /**
+     * Access meetings of person given by their email String within a window, e.g. for a calendar view of a week.
+     * Found by range lookup, without scanning or copying the person's other meetings.
+     * @param email String
+     * @param from  LocalDateTime start of window (inclusive)
+     * @param to    LocalDateTime end of window (exclusive)
+     * @return Collection<Meeting> live, read-only view of the meetings, in chronological order
+     * @throws Exception if email does not match to any existing Person instance
+     */
+    public Collection<Meeting> getScheduleForPerson(String email, LocalDateTime from, LocalDateTime to)
+            throws Exception {
+        if (from == null || to == null) {
+            throw new InvalidParameterException("LocalDateTime from and LocalDateTime to must be not-null");
+        }
+        SchedulerMetrics metrics = this.metrics;
+        long began = metrics == null ? 0L : System.nanoTime();
+        // Meetings start at whole minutes, so one starting at or after 'from' starts at or after its next minute
+        Collection<Meeting> schedule = getPersonFromEmail(email).getMeetingsStartingBetween(
+                TimeSlots.ceilEpochMinute(from), TimeSlots.ceilEpochMinute(to), Integer.MAX_VALUE);
+        if (metrics != null) {
+            metrics.scheduleLookupDone(System.nanoTime() - began);
+        }
+        return schedule;
+    }
+
+    /**
+     * Access the next upcoming meetings of person given by their email String.
+     * @param email String
+     * @param count int maximum amount of meetings
+     * @return Collection<Meeting> read-only view of at most count upcoming meetings, in chronological order
+     * @throws Exception if email does not match to any existing Person instance
+     */
+    public Collection<Meeting> getNextMeetingsForPerson(String email, int count) throws Exception {
+        SchedulerMetrics metrics = this.metrics;
+        long began = metrics == null ? 0L : System.nanoTime();
+        Collection<Meeting> schedule = getPersonFromEmail(email).getMeetingsStartingBetween(
+                TimeSlots.toEpochMinute(LocalDateTime.now(clock)) + 1, Long.MAX_VALUE, count);
+        if (metrics != null) {
+            metrics.scheduleLookupDone(System.nanoTime() - began);
+        }
+        return schedule;
+    }
+
     /**
      * 5) Suggest one or more available timeslots for meetings given a group of persons.
      * Suggests timeslots given a list of emails of wanted participants.
      * Initialises suggestion on day after 'currentTime' at first given hour-element in list of preferred hours.
      * Searches forward in time starting from initial candidate timeslot, constrained by
-     * 'preferredDays' and 'preferredHours'.
-     * Checks each participant's schedule to find timeslots where all are available.
-     * Will loop until given count of suggested timeslots has been reached.
-     * Will print output to console before returning.
+     * 'preferredDays' and 'preferredHours', which are compiled into a WeeklyMask once per call.
+     * Checks each participant's AvailabilityCalendar and WorkingHours 64 hours at a time to find timeslots where
+     * all are available. Will loop until given count of suggested timeslots has been reached, or for up to
+     * FreeSlotSearch.HORIZON_HOURS if participants' working hours leave fewer.
+     * Reports the suggestion to the SchedulerListener before returning. Unknown emails are reported and disregarded.
      *
      * @param emailParticipants List of Strings of emails of participants for suggested meeting timeslot
      * @param count             int amount of number of timeslots suggested
      * @param preferredDays     List<MeetingDays> of days constraining timeslot suggestions
-     * @param preferredHours    List<Integer> of hours constraining timeslot suggestions (1-24)
+     * @param preferredHours    List<Integer> of hours constraining timeslot suggestions (0-23)
      * @return                  ArrayList<LocalDateTime> output result of type LocalDateTime
      */
     public ArrayList<LocalDateTime> suggestTimeslots(List<String> emailParticipants, int count,
                                                      List<MeetingDays> preferredDays, List<Integer> preferredHours) {
-        if (emailParticipants == null || emailParticipants.isEmpty()) {
-            throw new InvalidParameterException("emailParticipants must be be not-null and not-empty");
-        }
-        if (count < 1) {
-            throw new InvalidParameterException("count must be > 0");
-        }
         if (preferredDays == null || preferredDays.isEmpty() || preferredHours == null || preferredHours.isEmpty()) {
             throw new InvalidParameterException("preferredDays and preferredHours must be not-null and not-empty");
         }
-        // Get ArrayList of Persons from given emails
-        ArrayList<Person> participants = new ArrayList<>();
-        try {
-            for (String email : emailParticipants) {
-                participants.add(getPersonFromEmail(email));
-            }
-        } catch (Exception e) {
-            System.out.println(e);
-        }
-        // Init lists of preferred timeslots
-        List<String> days = new ArrayList<>() {{
-            for (MeetingDays day : preferredDays) {
-                add(day.name());
-            }
-        }};
-        List<Integer> hours = preferredHours;
-        System.out.println("\nPreferred days: " + days + "\nPreferred hours: " + hours);
-        // Init candidate timeslot to first preferred hour of next day
-        LocalDateTime candidateLDT = currentTime;
-        candidateLDT = candidateLDT.plusDays(1).withHour(hours.getFirst())
-                .withMinute(0).withSecond(0).withNano(0);
-        System.out.println("    checking forward starting at: "+candidateLDT+" "+candidateLDT.getDayOfWeek());
-        // Begin loop to find viable timeslots
-        ArrayList<LocalDateTime> timeslots = new ArrayList<>(); // output list
-        ArrayList<LocalDateTime> occupied = new ArrayList<>();
-        while (timeslots.size() < count) {
-            while (!days.contains(candidateLDT.getDayOfWeek().name())) {
-                candidateLDT = candidateLDT.plusDays(1);    // Increment to next preferred day
-            }
-            occupied.clear();
-            for (Person person : participants) {
-                if (!person.isAvailableThen(candidateLDT)) {
-                    occupied.add(candidateLDT);
-                    //System.out.println(person +" is occupied on: "+candidateLDT+" "+candidateLDT.getDayOfWeek());
-                }
-            }
-            if (occupied.isEmpty() && !timeslots.contains(candidateLDT)) {
-                timeslots.add(candidateLDT);
-                System.out.println("    "+candidateLDT + " " + candidateLDT.getDayOfWeek()
-                        + " is available for all participants!  (Timeslots found: "+timeslots.size()+" / "+count+")");
-            } else {
-                do {
-                    candidateLDT = candidateLDT.plusHours(1);   // Increment to next preferred hour
-                } while (!hours.contains(candidateLDT.getHour()));
-            }
-        }
-        System.out.println("> Suggesting Timeslots for Meeting with Participants: "+emailParticipants+"\n "+timeslots);
-        return timeslots;
+        // Compile preferred timeslots into a weekly bitmask, once per call
+        return suggestTimeslots(emailParticipants, count, WeeklyMask.of(preferredDays, preferredHours),
+                preferredDays, preferredHours);
     }
 
     /**
@@ -242,13 +957,14 @@ public class Scheduler {
      * Limited method signature of
      * suggestTimeslots(List<String> emailParticipants, int count,
      *                  List<MeetingDays> preferredDays, List<Integer> preferredHours)
-     * - Invokes with defaultPreferredDays, defaultPreferredHours
+     * - Invokes with DEFAULT_PREFERRED_DAYS, DEFAULT_PREFERRED_HOURS
      * @param emailParticipants list of strings of emails of participants for suggested meeting timeslot
      * @param count             int amount of number of timeslots suggested
      * @return                  ArrayList<LocalDateTime> output result of type LocalDateTime
      */
     public ArrayList<LocalDateTime> suggestTimeslots(List<String> emailParticipants, int count) {
-        return suggestTimeslots(emailParticipants, count, defaultPreferredDays, defaultPreferredHours);
+        return suggestTimeslots(emailParticipants, count, DEFAULT_PREFERRED, DEFAULT_PREFERRED_DAYS,
+                DEFAULT_PREFERRED_HOURS);
     }
 
     /**
@@ -257,32 +973,800 @@ public class Scheduler {
      * suggestTimeslots(List<String> emailParticipants, int count,
      *                  List<MeetingDays> preferredDays, List<Integer> preferredHours)
      * - Defaults to count = 1 of returned suggested timeslots.
-     * - Invokes with defaultPreferredDays, defaultPreferredHours
+     * - Invokes with DEFAULT_PREFERRED_DAYS, DEFAULT_PREFERRED_HOURS
      * @param emailParticipants list of strings of emails of participants for suggested meeting timeslot
      * @return                  ArrayList<LocalDateTime> output result of type LocalDateTime
      */
     public ArrayList<LocalDateTime> suggestTimeslots(List<String> emailParticipants) {
-        return suggestTimeslots(emailParticipants, 1, defaultPreferredDays, defaultPreferredHours);
+        return suggestTimeslots(emailParticipants, 1, DEFAULT_PREFERRED, DEFAULT_PREFERRED_DAYS,
+                DEFAULT_PREFERRED_HOURS);
     }
 
     /**
-     * Look up Person instance from given email String
-     * @param email of String type
-     * @return Person instance
-     * @throws Exception if email does not match to any existing Person instance or is invalid.
-     */
-    private Person getPersonFromEmail(String email) throws Exception {
+     * 5) Suggest one or more available timeslots for meetings of the given length, to the minute.
+     * Like suggestTimeslots(List<String> emailParticipants, int count), a suggested meeting lies within
+     * DEFAULT_PREFERRED_DAYS and DEFAULT_PREFERRED_HOURS, or the participants' working hours. Busy hours of all
+     * participants are merged 64 hours at a time, together with their meetings not at whole hours, and the gaps
+     * between are swept for room for the meeting, so e.g. 90 minutes fit from 9:00, but not from 10:00
+     * if 11:00 is not preferred. Suggestions start at multiples of the granularity, back to back within a gap.
+     * Reports the suggestion to the SchedulerListener before returning. Unknown emails are reported and disregarded.
+     * @param emailParticipants List of Strings of emails of participants for suggested meeting timeslot
+     * @param count             int amount of number of timeslots suggested
+     * @param duration          Duration of the meeting, a multiple of the granularity, at most a day
+     * @return                  ArrayList<LocalDateTime> of the start of each suggested timeslot
+     */
+    public ArrayList<LocalDateTime> suggestTimeslots(List<String> emailParticipants, int count, Duration duration) {
+        if (emailParticipants == null || emailParticipants.isEmpty()) {
+            throw new InvalidParameterException("emailParticipants must be be not-null and not-empty");
+        }
+        if (count < 1 || count > FreeSlotSearch.MAX_COUNT) {
+            throw new InvalidParameterException("count must be > 0 and <= " + FreeSlotSearch.MAX_COUNT);
+        }
+        int granularity = granularityMinutes;
+        if (duration == null || duration.compareTo(Duration.ofMinutes(MAX_DURATION_MINUTES)) > 0
+                || duration.toMinutes() <= 0 || duration.toMinutes() % granularity != 0
+                || !duration.equals(Duration.ofMinutes(duration.toMinutes()))) {
+            throw new InvalidParameterException("duration must be a multiple of " + granularity
+                    + " minutes, up to a day, was: " + duration);
+        }
+        SchedulerMetrics metrics = this.metrics;
+        long began = metrics == null ? 0L : System.nanoTime();
+        ArrayList<Person> participants = getKnownPersonsFromEmails(emailParticipants);
+        WeeklyMask preferred = DEFAULT_PREFERRED;
+        List<MeetingDays> preferredDays = DEFAULT_PREFERRED_DAYS;
+        List<Integer> preferredHours = DEFAULT_PREFERRED_HOURS;
+        if (!participants.isEmpty() && haveWorkingHours(participants)) {
+            preferred = WeeklyMask.ALL;
+            preferredDays = ALL_DAYS;
+            preferredHours = ALL_HOURS;
+        }
+        int firstHour = preferredHours.getFirst();
+        LocalDateTime candidateLDT = LocalDateTime.now(clock);
+        candidateLDT = candidateLDT.plusDays(1).withHour(firstHour)
+                .withMinute(0).withSecond(0).withNano(0);
+        long searchStart = TimeSlots.toEpochMinute(candidateLDT);
+        long[] found = IntervalSlotSearch.findCommonFreeIntervals(participants, preferred, searchStart,
+                (int) duration.toMinutes(), granularity, count);
+        ArrayList<LocalDateTime> timeslots = new ArrayList<>(count);
+        for (long epochMinute : found) {
+            timeslots.add(TimeSlots.fromEpochMinute(epochMinute));
+        }
+        if (metrics != null) {
+            // Candidates are the starts at the granularity up to the last one found, or the horizon
+            long searched = found.length == count ? found[count - 1] - searchStart
+                    : FreeSlotSearch.HORIZON_HOURS * TimeSlots.MINUTES_PER_HOUR;
+            metrics.suggestionDone(System.nanoTime() - began, searched / granularity + 1);
+        }
+        if (listener.isEnabled(SchedulerListener.Level.INFO)) {
+            listener.timeslotsSuggested(emailParticipants, preferredDays, preferredHours, candidateLDT, timeslots,
+                    count);
+        }
+        return timeslots;
+    }
+
+    /**
+     * Suggests timeslots within a compiled WeeklyMask, see
+     * suggestTimeslots(List<String> emailParticipants, int count,
+     *                  List<MeetingDays> preferredDays, List<Integer> preferredHours)
+     * @param preferred      WeeklyMask compiled from preferredDays and preferredHours; if DEFAULT_PREFERRED, every
+     *                       day and hour is searched and reported instead for participants with working hours
+     * @param preferredDays  List<MeetingDays> of days, only for reporting
+     * @param preferredHours List<Integer> of hours, the first one deciding where the search starts
+     */
+    private ArrayList<LocalDateTime> suggestTimeslots(List<String> emailParticipants, int count, WeeklyMask preferred,
+                                                      List<MeetingDays> preferredDays, List<Integer> preferredHours) {
+        if (emailParticipants == null || emailParticipants.isEmpty()) {
+            throw new InvalidParameterException("emailParticipants must be be not-null and not-empty");
+        }
+        if (count < 1 || count > FreeSlotSearch.MAX_COUNT) {
+            throw new InvalidParameterException("count must be > 0 and <= " + FreeSlotSearch.MAX_COUNT);
+        }
+        SchedulerMetrics metrics = this.metrics;
+        long began = metrics == null ? 0L : System.nanoTime();
+        // Get ArrayList of Persons from given emails
+        ArrayList<Person> participants = getKnownPersonsFromEmails(emailParticipants);
+        // The default preferred timeslots only stand in for participants' own working hours
+        if (preferred == DEFAULT_PREFERRED && !participants.isEmpty() && haveWorkingHours(participants)) {
+            preferred = WeeklyMask.ALL;
+            preferredDays = ALL_DAYS;
+            preferredHours = ALL_HOURS;
+        }
+        int firstHour = preferredHours.getFirst();
+        // Init candidate timeslot to first preferred hour of next day
+        LocalDateTime candidateLDT = LocalDateTime.now(clock);
+        candidateLDT = candidateLDT.plusDays(1).withHour(firstHour)
+                .withMinute(0).withSecond(0).withNano(0);
+        // Search forward 64 hours at a time for timeslots where all participants are available,
+        // unless the same search was made since any of them was booked within its result
+        long searchStart = TimeSlots.toEpochHour(candidateLDT);
+        long[] found = suggestions.getCached(participants, preferred, searchStart, count);
+        boolean cached = found != null;
+        if (!cached) {
+            found = suggestions.findCommonFreeSlots(participants, preferred, searchStart, count);
+        }
+        ArrayList<LocalDateTime> timeslots = new ArrayList<>(count); // output list
+        for (long epochHour : found) {
+            timeslots.add(TimeSlots.fromEpochHour(epochHour));
+        }
+        if (metrics != null && cached) {
+            metrics.suggestionCached(System.nanoTime() - began);
+        } else if (metrics != null) {
+            // Candidates are the hours from the start of the search up to the last one found, or the horizon
+            long candidates = found.length == count ? found[count - 1] - searchStart + 1 : FreeSlotSearch.HORIZON_HOURS;
+            metrics.suggestionDone(System.nanoTime() - began, candidates);
+        }
+        if (listener.isEnabled(SchedulerListener.Level.INFO)) {
+            listener.timeslotsSuggested(emailParticipants, preferredDays, preferredHours, candidateLDT, timeslots, count);
+        }
+        return timeslots;
+    }
+
+    /**
+     * 5) Suggest the best timeslots for a meeting within a window, rather than the earliest ones.
+     * Every hour of the window at which all required participants are free and within their working hours
+     * is scored by the request's weights: how early it is, whether it is a preferred timeslot, how few single
+     * free hours it leaves in the participants' days, and how many optional attendees are free too.
+     * Keeps the best 'count' in a heap, and stops as soon as no later hour could beat the worst kept one.
+     * With a timeout, returns the best found so far once it has passed, marked as incomplete.
+     * Reports the suggestion to the SchedulerListener before returning. Unknown emails are reported and disregarded.
+     *
+     * @param request SuggestionRequest of participants, window, count, preferences and weights
+     * @return        RankedSuggestions of the best timeslots, best first, fewer than count if the window has less
+     */
+    public RankedSuggestions suggestRankedTimeslots(SuggestionRequest request) {
+        if (request == null) {
+            throw new InvalidParameterException("request must be not-null");
+        }
+        SchedulerMetrics metrics = this.metrics;
+        // The clock is only read for metrics or a timeout
+        long began = metrics == null && request.getTimeout() == null ? 0L : System.nanoTime();
+        long deadline = Long.MAX_VALUE;
+        if (request.getTimeout() != null) {
+            deadline = began + request.getTimeout().toNanos();
+        }
+        ArrayList<Person> required = getKnownPersonsFromEmails(request.getRequired());
+        ArrayList<Person> optional = getKnownPersonsFromEmails(request.getOptional());
+        optional.removeAll(required);
+        ArrayList<String> optionalEmails = new ArrayList<>(optional.size());
+        for (Person person : optional) {
+            optionalEmails.add(person.getEmail());
+        }
+        List<MeetingDays> preferredDays = request.getPreferredDays();
+        List<Integer> preferredHours = request.getPreferredHours();
+        WeeklyMask preferred = DEFAULT_PREFERRED;
+        if (preferredDays == null) {
+            preferredDays = DEFAULT_PREFERRED_DAYS;
+            preferredHours = DEFAULT_PREFERRED_HOURS;
+        } else {
+            preferred = WeeklyMask.of(preferredDays, preferredHours);
+        }
+        RankedSuggestions result = RankedSlotSearch.search(required, optional, optionalEmails, preferred, request,
+                deadline);
+        if (metrics != null) {
+            // Candidates are the hours of the window searched, whether or not the search stopped early
+            metrics.suggestionDone(System.nanoTime() - began, result.getSearchedUntil() - request.getFromHour());
+        }
+        if (listener.isEnabled(SchedulerListener.Level.INFO)) {
+            ArrayList<LocalDateTime> timeslots = new ArrayList<>(result.getTimeslots().size());
+            for (ScoredTimeslot timeslot : result.getTimeslots()) {
+                timeslots.add(timeslot.getTimeslot());
+            }
+            listener.timeslotsSuggested(request.getRequired(), preferredDays, preferredHours,
+                    TimeSlots.fromEpochHour(request.getFromHour()), timeslots, request.getCount());
+        }
+        return result;
+    }
+
+    /**
+     * Sets when a person takes meetings: suggestTimeslots() only suggests timeslots within the working hours
+     * of every participant who has them, outside their blackouts. Meetings may still be booked at any hour.
+     * The default preferred days and hours apply to participants without working hours, so a suggestion
+     * without preferences for people who all have working hours may start at any hour of the next day.
+     * Working hours are compiled once, for the time zone of the Scheduler's Clock; they are not persisted.
+     * @param email        String of email of person
+     * @param workingHours WorkingHours of person, or null to suggest any hour again
+     * @throws Exception if email does not match to any existing Person
+     */
+    public void setWorkingHours(String email, WorkingHours workingHours) throws Exception {
+        Person person = getPersonFromEmail(email);
+        person.setWorkingHours(workingHours == null ? null : workingHours.compile(clock.getZone()));
+    }
+
+    /**
+     * Sets the granularity of meetings not at whole hours: they start at, and last, multiples of it.
+     * Meetings booked already are kept as they are.
+     * @param minutes int dividing an hour, e.g. 5 (default), 15 or 30
+     */
+    public void setGranularity(int minutes) {
+        if (minutes < 1 || TimeSlots.MINUTES_PER_HOUR % minutes != 0) {
+            throw new InvalidParameterException("Granularity must divide an hour, was: " + minutes);
+        }
+        granularityMinutes = minutes;
+    }
+
+    /**
+     * @return int minutes that meetings not at whole hours start at and last multiples of
+     */
+    public int getGranularity() {
+        return granularityMinutes;
+    }
+
+    /**
+     * Sets how many results of suggestTimeslots() are kept, for repeated calls with the same participants,
+     * preferred days and hours, and count. A kept result is dropped once a participant is booked or freed
+     * at a preferred hour within it, and the least recently used beyond the capacity.
+     * @param capacity int maximum amount of kept results, 0 to disable (default 1024)
+     */
+    public void setSuggestionCacheCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new InvalidParameterException("capacity must be >= 0");
+        }
+        suggestions.setCapacity(capacity);
+    }
+
+    /**
+     * @return SuggestionCacheStats of hits, misses, evictions and invalidations of kept suggestions so far
+     */
+    public SuggestionCacheStats getSuggestionCacheStats() {
+        return suggestions.getStats();
+    }
+
+    /**
+     * Turns recording of counters and latencies of bookings, suggestions and schedule lookups on or off.
+     * Enabling again starts from zero. Off by default, costing a check for null per operation.
+     * @param enabled boolean, true to record
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        metrics = enabled ? new SchedulerMetrics(this) : null;
+    }
+
+    /**
+     * @return SchedulerMetrics recorded since metrics were enabled, live, or null if they are not enabled
+     */
+    public SchedulerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Stream of the changes of this Scheduler from the given sequence on: people created, meetings and series
+     * booked and occurrences cancelled, in the order they were made, see ScheduleChange. A change is only
+     * published once it is durable, if persistent. Each Subscriber of the Publisher is
+     * sent the changes as it requests them, from the latest 4096 changes kept. A Subscriber falling further
+     * behind, or asking for a sequence no longer kept, gets onError() instead and has to re-read the schedules
+     * it follows. Sequences start at 1 whenever a Scheduler is created or restored, as restored people and
+     * meetings are not replayed as changes.
+     * @param fromSequence long sequence of the first change wanted, getLastChangeSequence() + 1 for new changes only
+     * @return Flow.Publisher<ScheduleChange> of the changes
+     */
+    public Flow.Publisher<ScheduleChange> getChanges(long fromSequence) {
+        if (fromSequence < 1) {
+            throw new InvalidParameterException("fromSequence must be > 0");
+        }
+        return changes.publisher(fromSequence, null);
+    }
+
+    /**
+     * Stream of the changes of one person's schedule, i.e. meetings and series booked with them and occurrences
+     * of their series cancelled, see getChanges().
+     * @param email        String email of the Person to follow
+     * @param fromSequence long sequence of the first change wanted, getLastChangeSequence() + 1 for new changes only
+     * @return Flow.Publisher<ScheduleChange> of the changes of the person
+     * @throws Exception if email does not match to any existing Person instance
+     */
+    public Flow.Publisher<ScheduleChange> getChangesForPerson(String email, long fromSequence) throws Exception {
+        if (fromSequence < 1) {
+            throw new InvalidParameterException("fromSequence must be > 0");
+        }
+        return changes.publisher(fromSequence, getPersonFromEmail(email));
+    }
+
+    /**
+     * @return long sequence of the latest change, see getChanges(), 0 before the first one
+     */
+    public long getLastChangeSequence() {
+        return changes.getLastSequence();
+    }
+
+    /**
+     * @return int amount of people, including those of a columnar snapshot not looked up yet
+     */
+    int getPersonCount() {
+        return base == null ? people.size() : people.size() - materialized.get() + base.getPeopleCount();
+    }
+
+    /**
+     * @return int amount of single meetings, including those of a columnar snapshot
+     */
+    int getMeetingCount() {
+        return base == null ? meetings.size() : meetings.size() + base.getMeetingCount();
+    }
+
+    int getSeriesCount() {
+        return series.size();
+    }
+
+    /**
+     * @return Mode deciding whether the Scheduler may be shared between threads
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Sets the listener receiving reports of what this Scheduler does, e.g. a ConsoleSchedulerListener.
+     * @param listener SchedulerListener, or SchedulerListener.NONE for no reporting (default)
+     */
+    public void setListener(SchedulerListener listener) {
+        if (listener == null) {
+            throw new InvalidParameterException("SchedulerListener must be not-null, use SchedulerListener.NONE");
+        }
+        this.listener = listener;
+    }
+
+    /**
+     * Stops tracking availability before the current time of the Scheduler's Clock for every person, freeing the calendar memory
+     * held for past timeslots. Released timeslots are regarded as unavailable from then on.
+     * Meetings themselves are kept.
+     */
+    public void releasePastAvailability() {
+        long now = TimeSlots.toEpochHour(LocalDateTime.now(clock));
+        releasedBefore = now;
+        for (Person person : people.getPeople()) {
+            person.getCalendar().releaseBefore(now);
+        }
+    }
+
+    /**
+     * @param epochHour long epoch hour of a timeslot to book
+     * @throws InvalidParameterException unless within the years bookings are supported for, see TimeSlots
+     */
+    private static void requireSupported(long epochHour) {
+        if (!TimeSlots.isSupported(epochHour)) {
+            throw new InvalidParameterException("Timeslot must be within years 0000-9999, was epoch hour "
+                    + epochHour);
+        }
+    }
+
+    /**
+     * Resolves emails to distinct participants, in given order.
+     * @param emailParticipants List of Strings of emails of participants
+     * @return ArrayList<Person> of participants, each listed once
+     * @throws Exception if list is empty, or contains email not already added.
+     */
+    private ArrayList<Person> getParticipantsFromEmails(List<String> emailParticipants) throws Exception {
+        if (emailParticipants.isEmpty()) {
+            throw new InvalidParameterException("Meeting must have at least 1 participant.");
+        }
+        ArrayList<Person> participants = new ArrayList<>(emailParticipants.size());
+        for (String email : emailParticipants) {
+            Person person = getPersonFromEmail(email);
+            if (!participants.contains(person)) {
+                participants.add(person);
+            }
+        }
+        return participants;
+    }
+
+    /**
+     * Claims the timeslot on every participant's calendar, or on none of them.
+     * @param participants ArrayList<Person> of distinct participants
+     * @param epochHour    long epoch hour of timeslot
+     * @return null if claimed for all, otherwise the first Person found busy, after rolling back earlier claims
+     */
+    private Person reserveAll(ArrayList<Person> participants, long epochHour) {
+        for (int i = 0; i < participants.size(); i++) {
+            if (!participants.get(i).tryReserve(epochHour)) {
+                for (int j = i - 1; j >= 0; j--) {
+                    participants.get(j).releaseReservation(epochHour);
+                }
+                return participants.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Claims the interval of minutes for every participant, or for none of them.
+     * @param participants    ArrayList<Person> of distinct participants
+     * @param startMinute     long epoch minute the meeting starts at
+     * @param durationMinutes int length of the meeting in minutes
+     * @return null if claimed for all, otherwise the first Person found busy, after rolling back earlier claims
+     */
+    private Person reserveAll(ArrayList<Person> participants, long startMinute, int durationMinutes) {
+        long endMinute = startMinute + durationMinutes;
+        for (int i = 0; i < participants.size(); i++) {
+            if (!participants.get(i).tryReserve(startMinute, endMinute)) {
+                for (int j = i - 1; j >= 0; j--) {
+                    participants.get(j).releaseReservation(startMinute, endMinute);
+                }
+                return participants.get(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates the meeting for participants whose calendars have already been claimed by reserveAll(),
+     * and journals it. Reported by publishMeeting() once the journal is synced.
+     */
+    private BookingResult bookMeeting(long epochHour, ArrayList<Person> participants) {
+        Meeting meeting = storeMeeting(epochHour, participants);
+        if (journal != null) {
+            journal.appendMeeting(epochHour, participants);
+        }
+        return BookingResult.booked(meeting);
+    }
+
+    /**
+     * Reports a booked meeting to subscribers of getChanges() and to the SchedulerListener, once it is durable.
+     */
+    private void publishMeeting(Meeting meeting, List<Person> participants) {
+        changes.meetingBooked(meeting, participants);
+        if (listener.isEnabled(SchedulerListener.Level.INFO)) {
+            listener.meetingCreated(meeting);
+        }
+    }
+
+    /**
+     * Books a meeting of a sharded Scheduler, see ShardedScheduler, whose timeslot LocalShard has claimed for
+     * the participants owned here. Participants owned by other shards are kept as guests: Person objects
+     * naming them in the meeting, without any calendar of theirs being kept here. Only owned participants
+     * are journaled, so a restored shard keeps their availability but not the names of their guests.
+     * @param owned  ArrayList<Person> of distinct participants owned here, whose calendars are claimed
+     * @param names  List<String> of names of all participants, on any shard
+     * @param emails List<String> of emails of all participants, in the same order
+     * @return Meeting booked
+     * @throws IOException if the meeting could not be journaled
+     */
+    Meeting bookShardMeeting(long epochHour, ArrayList<Person> owned, List<String> names, List<String> emails)
+            throws IOException {
+        ArrayList<Person> participants = new ArrayList<>(emails.size());
+        for (int i = 0; i < emails.size(); i++) {
+            Person person = people.get(emails.get(i));
+            if (person == null || !owned.contains(person)) {
+                String name = names.get(i);
+                String email = emails.get(i);
+                person = guests.computeIfAbsent(people.key(email), key -> {
+                    Person guest = new Person(name, email, clock);
+                    people.addGuest(guest);
+                    return guest;
+                });
+            }
+            participants.add(person);
+        }
+        Meeting meeting = storeMeeting(epochHour, participants, owned);
+        if (journal != null) {
+            journal.appendMeeting(epochHour, owned);
+        }
+        syncJournal();
+        publishMeeting(meeting, participants);
+        return meeting;
+    }
+
+    /**
+     * Ends an all-or-nothing batch without booking anything: requests without a result are ABORTED.
+     */
+    private BatchReport abortBatch(BookingResult[] results) {
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = BookingResult.aborted();
+            }
+        }
+        return new BatchReport(Arrays.asList(results), 0);
+    }
+
+    /**
+     * Reports everyone busy at the timeslot, not just the participant whose claim failed in reserveAll().
+     */
+    private BookingResult rejectMeeting(long epochHour, ArrayList<Person> participants, Person conflict) {
+        ArrayList<String> conflictingEmails = new ArrayList<>();
+        for (Person person : participants) {
+            if (person == conflict || person.isBusy(epochHour)) {
+                conflictingEmails.add(person.getEmail());
+            }
+        }
+        return reportRejected(epochHour, BookingResult.conflict(conflictingEmails));
+    }
+
+    /**
+     * Reports everyone busy during the interval, see rejectMeeting(long epochHour, ...).
+     */
+    private BookingResult rejectMeeting(long startMinute, int durationMinutes, ArrayList<Person> participants,
+                                        Person conflict) {
+        ArrayList<String> conflictingEmails = new ArrayList<>();
+        for (Person person : participants) {
+            if (person == conflict || person.isBusy(startMinute, startMinute + durationMinutes)) {
+                conflictingEmails.add(person.getEmail());
+            }
+        }
+        BookingResult result = BookingResult.conflict(conflictingEmails);
+        if (listener.isEnabled(SchedulerListener.Level.WARN)) {
+            listener.meetingRejected(TimeSlots.fromEpochMinute(startMinute), result);
+        }
+        return result;
+    }
+
+    private BookingResult reportRejected(long epochHour, BookingResult result) {
+        if (listener.isEnabled(SchedulerListener.Level.WARN)) {
+            listener.meetingRejected(TimeSlots.fromEpochHour(epochHour), result);
+        }
+        return result;
+    }
+
+    /**
+     * Write-locks the given participants in list order when in concurrent mode.
+     * @param lockOrder ArrayList<Person> of distinct participants, sorted by LOCK_ORDER
+     * @return long[] lock stamps, or null when in single-threaded mode
+     */
+    private long[] lockForBooking(ArrayList<Person> lockOrder) {
+        if (mode != Mode.CONCURRENT) return null;
+        long[] stamps = new long[lockOrder.size()];
+        for (int i = 0; i < stamps.length; i++) {
+            stamps[i] = lockOrder.get(i).getLock().writeLock();
+        }
+        return stamps;
+    }
+
+    private void unlockAfterBooking(ArrayList<Person> lockOrder, long[] stamps) {
+        if (stamps == null) return;
+        for (int i = stamps.length - 1; i >= 0; i--) {
+            lockOrder.get(i).getLock().unlockWrite(stamps[i]);
+        }
+    }
+
+    /**
+     * Waits until everything journaled so far is on disk. Does nothing unless persistent.
+     */
+    private void syncJournal() throws IOException {
+        if (journal != null) {
+            journal.sync();
+        }
+    }
+
+    /**
+     * Restores a Person read from a snapshot or journal, without validating, reporting or journaling it.
+     * @return Person restored, or null if the email is restored already
+     */
+    Person restorePerson(String name, String email) {
+        Person person = newPerson(name, email, null);
+        return people.add(person) ? person : null;
+    }
+
+    Person getRestoredPerson(String email) {
+        return people.get(email);
+    }
+
+    /**
+     * Restores a meeting read from a snapshot or journal, without reporting or journaling it.
+     * @param covered boolean, true if the meeting may have been restored already from a snapshot covering
+     *                the journal it is replayed from, in which case the same meeting restored already is skipped
+     * @throws IOException if a participant is booked for another meeting or series at the time
+     */
+    void restoreMeeting(long epochHour, ArrayList<Person> participants, boolean covered) throws IOException {
+        if (reserveAll(participants, epochHour) == null) {
+            storeMeeting(epochHour, participants);
+        } else if (!covered || !hasMeeting(participants, epochHour * TimeSlots.MINUTES_PER_HOUR,
+                TimeSlots.MINUTES_PER_HOUR)) {
+            throw new IOException("Restored meeting at epoch hour " + epochHour + " conflicts with the schedule of "
+                    + "a participant");
+        }
+    }
+
+    /**
+     * Restores a meeting not at whole hours read from a snapshot or journal, see restoreMeeting(long epochHour, ...).
+     */
+    void restoreMeeting(long startMinute, int durationMinutes, ArrayList<Person> participants, boolean covered)
+            throws IOException {
+        if (isWholeHour(startMinute, durationMinutes)) {
+            restoreMeeting(startMinute / TimeSlots.MINUTES_PER_HOUR, participants, covered);
+        } else if (reserveAll(participants, startMinute, durationMinutes) == null) {
+            storeMeeting(startMinute, durationMinutes, participants);
+        } else if (!covered || !hasMeeting(participants, startMinute, durationMinutes)) {
+            throw new IOException("Restored meeting at epoch minute " + startMinute + " conflicts with the schedule "
+                    + "of a participant");
+        }
+    }
+
+    /**
+     * @return true if the participants, and no one else, share a meeting of the given start and duration
+     */
+    private static boolean hasMeeting(ArrayList<Person> participants, long startMinute, int durationMinutes) {
+        if (participants.isEmpty()) return false;
+        for (Meeting meeting : participants.get(0).getMeetingsStartingBetween(startMinute, startMinute + 1,
+                Integer.MAX_VALUE)) {
+            if (meeting.getDurationMinutes() == durationMinutes
+                    && sameParticipants(meeting.getParticipants(), participants)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return MeetingSeries of the participants, and no one else, following the same rule, or null if none
+     */
+    private static MeetingSeries findSeries(ArrayList<Person> participants, Recurrence recurrence) {
+        if (participants.isEmpty()) return null;
+        for (MeetingSeries meetingSeries : participants.get(0).getSeries()) {
+            Recurrence other = meetingSeries.getRecurrence();
+            if (other.getFrequency() == recurrence.getFrequency() && other.getInterval() == recurrence.getInterval()
+                    && other.getStartHour() == recurrence.getStartHour()
+                    && other.getUntilHour() == recurrence.getUntilHour()
+                    && sameParticipants(meetingSeries.getParticipants(), participants)) return meetingSeries;
+        }
+        return null;
+    }
+
+    private static boolean sameParticipants(List<Person> a, List<Person> b) {
+        return a.size() == b.size() && new HashSet<>(a).containsAll(b);
+    }
+
+    /**
+     * Stores a meeting not at whole hours, whose interval all participants have claimed, and adds it to their
+     * schedules.
+     * @return Meeting view of the stored meeting
+     */
+    private Meeting storeMeeting(long startMinute, int durationMinutes, ArrayList<Person> participants) {
+        int[] ids = new int[participants.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = participants.get(i).getId();
+        }
+        int meeting = meetings.add(startMinute, durationMinutes, ids);
+        for (Person person : participants) {
+            person.addReservedMeeting(meetings, meeting);
+        }
+        return new Meeting(meetings, meeting);
+    }
+
+    /**
+     * Stores a meeting whose timeslot all participants have claimed, and adds it to their schedules.
+     * @return Meeting view of the stored meeting
+     */
+    private Meeting storeMeeting(long epochHour, ArrayList<Person> participants) {
+        return storeMeeting(epochHour, participants, participants);
+    }
+
+    /**
+     * Stores a meeting, and adds it to the schedules of the participants owned here, whose timeslot is claimed.
+     * @return Meeting view of the stored meeting
+     */
+    private Meeting storeMeeting(long epochHour, ArrayList<Person> participants, List<Person> owned) {
+        int[] ids = new int[participants.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = participants.get(i).getId();
+        }
+        int meeting = meetings.add(epochHour, ids);
+        for (Person person : owned) {
+            person.addReservedMeeting(meetings, meeting);
+        }
+        return new Meeting(meetings, meeting);
+    }
+
+    /**
+     * Restores a series read from a snapshot or journal, without reporting or journaling it.
+     * @param covered boolean, true if the series may have been restored already, see restoreMeeting()
+     * @throws IOException if a participant is booked for another meeting or series at the time of an occurrence
+     */
+    void restoreSeries(Recurrence recurrence, ArrayList<Person> participants, boolean covered) throws IOException {
+        MeetingSeries meetingSeries = new MeetingSeries(recurrence, participants);
+        for (int i = 0; i < participants.size(); i++) {
+            if (!participants.get(i).addSeries(meetingSeries)) {
+                for (int j = i - 1; j >= 0; j--) {
+                    participants.get(j).removeSeries(meetingSeries);
+                }
+                if (covered && findSeries(participants, recurrence) != null) return;
+                throw new IOException("Restored series " + recurrence + " conflicts with the schedule of "
+                        + participants.get(i).getEmail());
+            }
+        }
+        series.add(meetingSeries);
+    }
+
+    /**
+     * Restores a cancelled occurrence read from a journal, without reporting or journaling it.
+     * @param recurrence   Recurrence rule of the series, telling it apart from others of the participants
+     * @param participants ArrayList<Person> of participants of the series
+     * @param epochHour    long epoch hour of the cancelled occurrence
+     * @throws IOException if the participants share no series by the rule
+     */
+    void restoreCancellation(Recurrence recurrence, ArrayList<Person> participants, long epochHour)
+            throws IOException {
+        MeetingSeries meetingSeries = findSeries(participants, recurrence);
+        if (meetingSeries == null) {
+            throw new IOException("Journal cancels an occurrence of an unknown series " + recurrence);
+        }
+        meetingSeries.cancelOccurrence(epochHour);
+    }
+
+    /**
+     * Look up Person instance from given email String
+     * @param email of String type
+     * @return Person instance
+     * @throws Exception if email does not match to any existing Person instance or is invalid.
+     */
+    Person getPersonFromEmail(String email) throws Exception {
         if (email == null) {
             throw new InvalidParameterException("String email must be not-null");
         }
-        if (isValidEmail(email)) {
-            for (Person person : people) {
-                if (person.getEmail().equals(email)) {
-                    return person;
+        // Only valid emails are ever registered, so a hit implies a valid email
+        Person person = lookup(email);
+        if (person == null) {
+            throw new Exception("Email: " + email + " does not exist.");
+        }
+        return person;
+    }
+
+    /**
+     * @return Person registered under the email, or from the columnar snapshot, or null if there is none
+     */
+    Person lookup(String email) {
+        Person person = people.get(email);
+        if (person == null && base != null) {
+            int id = base.find(people.key(email));
+            if (id >= 0) {
+                person = materialize(id);
+            }
+        }
+        return person;
+    }
+
+    /**
+     * @return ArrayList<Person> of the distinct persons of the given emails, reporting and skipping unknown ones
+     */
+    private ArrayList<Person> getKnownPersonsFromEmails(List<String> emails) {
+        ArrayList<Person> persons = new ArrayList<>(emails.size());
+        HashSet<Person> distinct = new HashSet<>();
+        for (String email : emails) {
+            try {
+                Person person = getPersonFromEmail(email);
+                if (distinct.add(person)) {
+                    persons.add(person);
+                }
+            } catch (Exception e) {
+                if (listener.isEnabled(SchedulerListener.Level.WARN)) {
+                    listener.warning(e);
                 }
             }
         }
-        throw new Exception("Email: " + email + " does not exist.");
+        return persons;
+    }
+
+    private static boolean isWholeHour(long startMinute, int durationMinutes) {
+        return durationMinutes == TimeSlots.MINUTES_PER_HOUR && Math.floorMod(startMinute, TimeSlots.MINUTES_PER_HOUR) == 0;
+    }
+
+    private static boolean haveWorkingHours(List<Person> participants) {
+        for (Person person : participants) {
+            if (person.getWorkingHours() == null) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param base ColumnarSnapshot.PersonView of the person in the columnar snapshot, or null
+     * @return new Person of this Scheduler, reporting changes of availability to its cache of suggestions
+     */
+    private Person newPerson(String name, String email, ColumnarSnapshot.PersonView base) {
+        Person person = new Person(name, email, clock, base);
+        person.setSuggestionCache(suggestions);
+        return person;
+    }
+
+    /**
+     * Person object of a person of the columnar snapshot, created on first use, reading availability
+     * from the snapshot.
+     * @param id int id of person in the columnar snapshot
+     * @return Person, the same object for every call with the same id
+     */
+    private Person materialize(int id) {
+        String email = base.email(id);
+        Person person = people.get(email);
+        if (person != null) return person;
+        person = newPerson(base.name(id), email, base.view(id));
+        if (releasedBefore != Long.MIN_VALUE) {
+            person.getCalendar().releaseBefore(releasedBefore);
+        }
+        if (!people.add(person)) return people.get(email);
+        materialized.incrementAndGet();
+        return person;
     }
 
     /**
@@ -291,19 +1775,18 @@ public class Scheduler {
      * @return true if given String is valid email format
      */
     private boolean isValidEmail(String input) {
-        String regexPattern = "^(.+)@(\\S+)$"; // email format
-        return Pattern.compile(regexPattern).matcher(input).matches();
+        return EMAIL_PATTERN.matcher(input).matches();
     }
 
     /**
-     * Custom String format to LocalDateTime object, for creating such objects from simple input Strings.
-     * E.g. "14-01-01-2024" returns 2024-01-01T14:00
-     * Intentionally disregards minutes, seconds, etc. for the sake of whole hour timeslots.
-     * @param input String with date pattern "HH-dd-MM-yyyy", using 24-hour count.
-     * @return new LocalDateTime object corresponding to input string
+     * Epoch hour of a LocalDateTime timeslot, which must be at a whole hour as meetings start at the hour mark.
+     * @param timeSlot LocalDateTime at a whole hour
+     * @return long epoch hour of timeslot
      */
-    private LocalDateTime formatStringToDatetime(String input) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("HH-dd-MM-yyyy");
-        return LocalDateTime.parse(input, formatter);
+    private long toWholeEpochHour(LocalDateTime timeSlot) {
+        if (timeSlot.getMinute() != 0 || timeSlot.getSecond() != 0 || timeSlot.getNano() != 0) {
+            throw new InvalidParameterException("Meetings must start at a whole hour, was: " + timeSlot);
+        }
+        return TimeSlots.toEpochHour(timeSlot);
     }
 }
@@ -0,0 +1,418 @@
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of what a Scheduler created, making its state survive a restart.
+ * Each record is appended to an in-memory buffer, and a caller waiting for its records to be durable
+ * either writes and fsyncs the buffer itself, or waits for the write already in progress: concurrent
+ * callers therefore share one fsync per batch ("group commit") instead of paying for one each.
+ * A checkpoint moves on to a new journal file, so the old one can be deleted once a SchedulerSnapshot
+ * covers it. Recovery loads the latest snapshot and replays the journal files written since.
+ * Record layout: int length, byte type, payload, int CRC32 of type and payload. A torn record at the end
+ * of the last file, left by a crash while appending, is cut off on recovery.
+ */
+final class SchedulerJournal implements Closeable {
+
+    static final byte PERSON = 1;   // String name, String email
+    static final byte MEETING = 2;  // long epochHour, int count, String email * count
+    static final byte SERIES = 3;   // byte frequency, int interval, long startHour, long untilHour,
+                                    // int count, String email * count
+    static final byte TIMED_MEETING = 4;    // long startMinute, int durationMinutes, int count, String email * count
+    static final byte CANCELLATION = 5;     // byte frequency, int interval, long startHour, long untilHour,
+                                            // long cancelledHour, int count, String email * count
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    // Guarded by lock
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();   // records not yet written
+    private final DataOutputStream pendingOut = new DataOutputStream(pending);
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream();    // record being appended
+    private final DataOutputStream recordOut = new DataOutputStream(record);
+    private FileChannel channel;
+    private long generation;
+    private long appended;          // sequence of the last record appended
+    private long durable;           // sequence of the last record written and fsynced
+    private boolean flushing;       // a caller is writing outside the lock
+    private IOException failure;    // journal is unusable after a failed write
+
+    private SchedulerJournal(Path directory, long generation) throws IOException {
+        this.directory = directory;
+        this.generation = generation;
+        this.channel = openGeneration(directory, generation);
+    }
+
+    /**
+     * Recovers a Scheduler's state from a directory and opens the journal for appending to it.
+     * @param directory Path of directory holding snapshot and journal files, created if missing
+     * @param scheduler Scheduler to restore, still empty
+     * @return SchedulerJournal appending to the latest journal file
+     * @throws IOException if reading fails, or the snapshot is corrupt
+     */
+    static SchedulerJournal open(Path directory, Scheduler scheduler) throws IOException {
+        Files.createDirectories(directory);
+        long generation = SchedulerSnapshot.load(directory, scheduler);
+        TreeMap<Long, Path> journals = listJournals(directory);
+        long last = generation;
+        for (var entry : journals.tailMap(generation, true).entrySet()) {
+            // Only the journal file started by the snapshot's checkpoint may repeat what the snapshot holds
+            boolean covered = generation > 0 && entry.getKey() == generation;
+            replay(entry.getValue(), scheduler, entry.getKey().equals(journals.lastKey()), covered);
+            last = entry.getKey();
+        }
+        return new SchedulerJournal(directory, last);
+    }
+
+    long appendPerson(String name, String email) {
+        lock.lock();
+        try {
+            beginRecord(PERSON);
+            writeString(name);
+            writeString(email);
+            return endRecord();
+        } catch (IOException e) {
+            throw new AssertionError(e);    // writing to memory does not fail
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long appendMeeting(long epochHour, List<Person> participants) {
+        lock.lock();
+        try {
+            beginRecord(MEETING);
+            recordOut.writeLong(epochHour);
+            writeEmails(participants);
+            return endRecord();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long appendMeeting(long startMinute, int durationMinutes, List<Person> participants) {
+        lock.lock();
+        try {
+            beginRecord(TIMED_MEETING);
+            recordOut.writeLong(startMinute);
+            recordOut.writeInt(durationMinutes);
+            writeEmails(participants);
+            return endRecord();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long appendSeries(Recurrence recurrence, List<Person> participants) {
+        lock.lock();
+        try {
+            beginRecord(SERIES);
+            recordOut.writeByte(recurrence.getFrequency().ordinal());
+            recordOut.writeInt(recurrence.getInterval());
+            recordOut.writeLong(recurrence.getStartHour());
+            recordOut.writeLong(recurrence.getUntilHour());
+            writeEmails(participants);
+            return endRecord();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param epochHour long epoch hour of the cancelled occurrence of the series
+     */
+    long appendCancellation(MeetingSeries meetingSeries, long epochHour) {
+        lock.lock();
+        try {
+            beginRecord(CANCELLATION);
+            Recurrence recurrence = meetingSeries.getRecurrence();
+            recordOut.writeByte(recurrence.getFrequency().ordinal());
+            recordOut.writeInt(recurrence.getInterval());
+            recordOut.writeLong(recurrence.getStartHour());
+            recordOut.writeLong(recurrence.getUntilHour());
+            recordOut.writeLong(epochHour);
+            writeEmails(meetingSeries.getParticipants());
+            return endRecord();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until every record appended so far is written and fsynced, writing them itself
+     * unless another caller is already doing so.
+     * @throws IOException if writing fails, now or by an earlier caller
+     */
+    void sync() throws IOException {
+        lock.lock();
+        try {
+            long target = appended;
+            while (durable < target) {
+                if (failure != null) throw failure;
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                flushLocked();
+            }
+            if (failure != null) throw failure;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves on to a new journal file, after making everything appended to the current one durable.
+     * @return long generation of the new journal file: a snapshot taken from now on covers all earlier ones
+     * @throws IOException if writing fails
+     */
+    long rotate() throws IOException {
+        lock.lock();
+        try {
+            while (flushing) {
+                flushed.awaitUninterruptibly();
+            }
+            if (durable < appended) {
+                flushLocked();
+            }
+            if (failure != null) throw failure;
+            FileChannel next = openGeneration(directory, generation + 1);
+            channel.close();
+            channel = next;
+            return ++generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes journal files before the given generation, once a snapshot covers them.
+     */
+    void deleteBefore(long generation) throws IOException {
+        for (Path journal : listJournals(directory).headMap(generation).values()) {
+            Files.deleteIfExists(journal);
+        }
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() throws IOException {
+        sync();
+        lock.lock();
+        try {
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes and fsyncs the pending buffer, releasing the lock meanwhile so others can keep appending.
+     * Must be called holding the lock, while no other caller is flushing.
+     */
+    private void flushLocked() {
+        flushing = true;
+        ByteBuffer batch = ByteBuffer.wrap(pending.toByteArray());
+        pending.reset();
+        long upTo = appended;
+        FileChannel target = channel;
+        lock.unlock();
+        IOException error = null;
+        try {
+            while (batch.hasRemaining()) {
+                target.write(batch);
+            }
+            target.force(false);
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            lock.lock();
+        }
+        if (error != null) {
+            failure = error;
+        } else {
+            durable = upTo;
+        }
+        flushing = false;
+        flushed.signalAll();
+    }
+
+    private void beginRecord(byte type) throws IOException {
+        if (failure != null) {
+            throw new IllegalStateException("Journal failed", failure);
+        }
+        record.reset();
+        recordOut.writeByte(type);
+    }
+
+    /**
+     * Moves the record being appended to the pending buffer, framed by its length and checksum.
+     * @return long sequence of the record
+     */
+    private long endRecord() throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] bytes = record.toByteArray();
+        crc.update(bytes);
+        pendingOut.writeInt(bytes.length);
+        pendingOut.write(bytes);
+        pendingOut.writeInt((int) crc.getValue());
+        return ++appended;
+    }
+
+    private void writeEmails(List<Person> participants) throws IOException {
+        recordOut.writeInt(participants.size());
+        for (Person person : participants) {
+            writeString(person.getEmail());
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        writeString(recordOut, value);
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Replays one journal file. People are restored in a first pass, series and their cancelled occurrences
+     * in a second and meetings in a third, so no record is restored before those it refers to.
+     * The file is read rather than memory-mapped, so its torn tail can be cut off on any platform.
+     * @param last    boolean, true for the newest file, whose torn tail is cut off instead of reported
+     * @param covered boolean, true if a snapshot taken while appending to this file may already hold its
+     *                records, which are then skipped; any other conflict with the restored state is reported
+     * @throws IOException if reading fails, or a record is corrupt or conflicts with the restored state
+     */
+    private static void replay(Path journal, Scheduler scheduler, boolean last, boolean covered) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(journal));
+        int end = validLength(buffer);
+        if (end < buffer.limit()) {
+            if (!last) {
+                throw new IOException("Corrupt journal record in " + journal + " at " + end);
+            }
+            try (FileChannel file = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+                file.truncate(end);
+            }
+        }
+        for (int pass = 0; pass < 3; pass++) {
+            buffer.position(0);
+            while (buffer.position() < end) {
+                int length = buffer.getInt();
+                int next = buffer.position() + length + Integer.BYTES;
+                byte type = buffer.get();
+                if (type == PERSON && pass == 0) {
+                    String name = readString(buffer);
+                    scheduler.restorePerson(name, readString(buffer));
+                } else if ((type == SERIES || type == CANCELLATION) && pass == 1) {
+                    Recurrence.Frequency frequency = Recurrence.Frequency.values()[buffer.get()];
+                    int interval = buffer.getInt();
+                    long startHour = buffer.getLong();
+                    long untilHour = buffer.getLong();
+                    Recurrence recurrence = new Recurrence(frequency, interval, startHour, untilHour);
+                    if (type == SERIES) {
+                        scheduler.restoreSeries(recurrence, readParticipants(buffer, scheduler), covered);
+                    } else {
+                        long cancelledHour = buffer.getLong();
+                        scheduler.restoreCancellation(recurrence, readParticipants(buffer, scheduler), cancelledHour);
+                    }
+                } else if (type == MEETING && pass == 2) {
+                    long epochHour = buffer.getLong();
+                    scheduler.restoreMeeting(epochHour, readParticipants(buffer, scheduler), covered);
+                } else if (type == TIMED_MEETING && pass == 2) {
+                    long startMinute = buffer.getLong();
+                    int durationMinutes = buffer.getInt();
+                    scheduler.restoreMeeting(startMinute, durationMinutes, readParticipants(buffer, scheduler),
+                            covered);
+                }
+                buffer.position(next);
+            }
+        }
+    }
+
+    /**
+     * @return int length of the leading records that are complete and pass their checksum
+     */
+    private static int validLength(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        int position = 0;
+        while (buffer.limit() - position >= 2 * Integer.BYTES + 1) {
+            int length = buffer.getInt(position);
+            if (length < 1 || length > buffer.limit() - position - 2 * Integer.BYTES) break;
+            crc.reset();
+            crc.update(buffer.slice(position + Integer.BYTES, length));
+            if ((int) crc.getValue() != buffer.getInt(position + Integer.BYTES + length)) break;
+            position += length + 2 * Integer.BYTES;
+        }
+        return position;
+    }
+
+    private static ArrayList<Person> readParticipants(ByteBuffer buffer, Scheduler scheduler) throws IOException {
+        int count = buffer.getInt();
+        ArrayList<Person> participants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String email = readString(buffer);
+            Person person = scheduler.getRestoredPerson(email);
+            if (person == null) {
+                throw new IOException("Journal refers to unknown email: " + email);
+            }
+            participants.add(person);
+        }
+        return participants;
+    }
+
+    static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static TreeMap<Long, Path> listJournals(Path directory) throws IOException {
+        TreeMap<Long, Path> journals = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    journals.put(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())), file);
+                } catch (NumberFormatException e) {
+                    // not a journal file
+                }
+            }
+        }
+        return journals;
+    }
+
+    private static FileChannel openGeneration(Path directory, long generation) throws IOException {
+        return FileChannel.open(directory.resolve(PREFIX + generation + SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
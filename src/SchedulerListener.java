@@ -0,0 +1,69 @@
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Receives reports of what a Scheduler does, e.g. to log them, in place of the Scheduler printing to console.
+ * The Scheduler asks isEnabled() before building and sending a report, so a listener that is not enabled
+ * for a level, such as NONE for all levels, costs no more than that check.
+ * Reports are sent from the thread calling the Scheduler, and must therefore be quick and thread-safe.
+ */
+public interface SchedulerListener {
+
+    /**
+     * DEBUG: details of searches, e.g. each suggested timeslot as it is found.
+     * INFO:  successful operations.
+     * WARN:  rejected bookings and unknown emails.
+     */
+    enum Level {
+        DEBUG, INFO, WARN
+    };
+
+    /**
+     * Listener not enabled for any level. Default of every Scheduler.
+     */
+    SchedulerListener NONE = level -> false;
+
+    /**
+     * @param level Level of a report
+     * @return true if reports of the given level should be sent to this listener
+     */
+    boolean isEnabled(Level level);
+
+    /** INFO: a Person was created by createPerson(). */
+    default void personCreated(Person person) {
+    }
+
+    /** INFO: a roster of persons was created by createPeople(). */
+    default void peopleCreated(int count) {
+    }
+
+    /** INFO: a Meeting was booked. */
+    default void meetingCreated(Meeting meeting) {
+    }
+
+    /** INFO: a recurring MeetingSeries was booked. */
+    default void seriesCreated(MeetingSeries series) {
+    }
+
+    /** WARN: a Meeting was not booked, as some participants were not available. */
+    default void meetingRejected(LocalDateTime timeSlot, BookingResult result) {
+    }
+
+    /**
+     * INFO: timeslots were suggested. Listeners enabled for DEBUG may report details of the search.
+     * @param emailParticipants List of Strings of emails of participants
+     * @param preferredDays     List<MeetingDays> constraining the search
+     * @param preferredHours    List<Integer> constraining the search
+     * @param searchStart       LocalDateTime the search started from
+     * @param timeslots         List<LocalDateTime> of suggested timeslots
+     * @param count             int amount of timeslots requested
+     */
+    default void timeslotsSuggested(List<String> emailParticipants, List<Scheduler.MeetingDays> preferredDays,
+                                    List<Integer> preferredHours, LocalDateTime searchStart,
+                                    List<LocalDateTime> timeslots, int count) {
+    }
+
+    /** WARN: an operation went on despite an error, e.g. disregarding an unknown email. */
+    default void warning(Exception cause) {
+    }
+}
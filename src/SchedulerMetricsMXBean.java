@@ -0,0 +1,51 @@
+/**
+ * Management interface of SchedulerMetrics, as shown by JMX clients such as JConsole, see
+ * SchedulerMetrics.registerMBean(). Latencies are in nanoseconds, counts since metrics were enabled.
+ */
+public interface SchedulerMetricsMXBean {
+
+    int getPeople();
+
+    int getMeetings();
+
+    int getSeries();
+
+    long getBooked();
+
+    long getConflicts();
+
+    /**
+     * @return double share of bookings rejected as a participant was busy, 0 without bookings
+     */
+    double getConflictRate();
+
+    long getBookingLatencyP50();
+
+    long getBookingLatencyP99();
+
+    long getBookingLatencyMax();
+
+    long getSuggestions();
+
+    long getSuggestionLatencyP50();
+
+    long getSuggestionLatencyP99();
+
+    long getSuggestionLatencyMax();
+
+    /**
+     * @return long amount of suggestions answered from the SuggestionCache, without a search
+     */
+    long getSuggestionCacheHits();
+
+    /**
+     * @return double mean amount of candidate timeslots a suggestion looked at, of those not answered from the cache
+     */
+    double getCandidatesPerSuggestion();
+
+    long getScheduleLookups();
+
+    long getScheduleLatencyP50();
+
+    long getScheduleLatencyP99();
+}
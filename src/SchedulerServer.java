@@ -0,0 +1,619 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.JMException;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidParameterException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP/JSON front end of a Scheduler, on the JDK's built-in HttpServer.
+ * Every request is handled on its own virtual thread, so many thousands of concurrent requests need no
+ * thread pool tuning: a request waiting on the network or on a participant's lock only parks its virtual thread.
+ * Request bodies are read with a streaming JsonReader, and responses written with a streaming JsonWriter
+ * in chunked encoding, so neither is held in memory as a whole.
+ * <p>
+ * POST /people                        {"name": "...", "email": "..."}
+ * POST /meetings                      {"timeslot": "HH-dd-MM-yyyy" or "epochHour": n, "participants": ["email", ...]}
+ * GET  /people/{email}/schedule       upcoming meetings, or ?from=...&to=... (ISO date-times), or ?count=n
+ * POST /suggestions                   {"participants": ["email", ...], "count": n,
+ *                                      "preferredDays": ["MONDAY", ...], "preferredHours": [9, ...]}
+ * GET  /metrics                       the Scheduler's SchedulerMetrics as Prometheus text, if enabled
+ * POST /shard/{prepare,commit,abort,busy,meetings}
+ *                                     the SchedulerShard calls of a ShardedScheduler, see RemoteShard
+ * Timeslots in responses are ISO date-times, e.g. "2024-02-21T09:00". Errors are {"error": "..."}, with
+ * status 400 for malformed or invalid requests, 404 for unknown emails or paths, 405 for wrong methods,
+ * 409 for conflicts, 413 for bodies over MAX_BODY_BYTES, and 500 for failures of the server itself, e.g. of
+ * its journal after a booking was made; a meeting conflict lists the conflicting emails instead.
+ * Epoch hours must be within years 0000-9999, and at most FreeSlotSearch.MAX_COUNT timeslots are suggested.
+ * Run with optional args: [port]
+ */
+public class SchedulerServer implements Closeable {
+
+    private static final int BACKLOG = 4096;    // pending connections, so bursts of clients are not refused
+    private static final int MAX_BODY_BYTES = 1 << 20;  // of a request body
+
+    static {
+        // Defaults of the JDK's HttpServer, unless set on the command line: without TCP_NODELAY a response
+        // streamed in several writes waits ~40 ms for a delayed ACK, and only 200 idle keep-alive
+        // connections are kept, making clients beyond that reconnect for every request
+        setDefault("sun.net.httpserver.nodelay", "true");
+        setDefault("sun.net.httpserver.maxIdleConnections", Integer.toString(BACKLOG));
+    }
+
+    private final Scheduler scheduler;
+    private final LocalShard shard;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * @param scheduler Scheduler to serve, which must be in Mode.CONCURRENT as requests are handled concurrently
+     * @param address   InetSocketAddress to listen on, port 0 for any free port
+     * @throws IOException if the address can not be bound
+     */
+    public SchedulerServer(Scheduler scheduler, InetSocketAddress address) throws IOException {
+        if (scheduler == null || address == null) {
+            throw new InvalidParameterException("Scheduler and InetSocketAddress must be not-null");
+        }
+        if (scheduler.getMode() != Scheduler.Mode.CONCURRENT) {
+            throw new InvalidParameterException("Scheduler must be in Mode.CONCURRENT to be served");
+        }
+        this.scheduler = scheduler;
+        shard = new LocalShard(scheduler);
+        server = HttpServer.create(address, BACKLOG);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/people", this::handlePeople);
+        server.createContext("/meetings", this::handleMeetings);
+        server.createContext("/suggestions", this::handleSuggestions);
+        server.createContext("/shard/", this::handleShard);
+        server.createContext("/metrics", this::handleMetrics);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        Scheduler scheduler = new Scheduler(PersonRegistry.KeyMode.EXACT, Scheduler.Mode.CONCURRENT);
+        scheduler.setMetricsEnabled(true);
+        try {
+            scheduler.getMetrics().registerMBean("port-" + port);
+        } catch (JMException e) {
+            System.out.println("> Metrics not registered with JMX: " + e);
+        }
+        SchedulerServer server = new SchedulerServer(scheduler, new InetSocketAddress(port));
+        server.start();
+        System.out.println("> Serving Scheduler at http://localhost:" + server.getPort() + "/");
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return int port listened on, e.g. the one picked for port 0
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, and waits for those being handled to finish.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    private void handlePeople(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/people") || path.equals("/people/")) {
+                if (!requireMethod(exchange, "POST") || !requireBodySize(exchange)) return;
+                createPerson(exchange);
+            } else if (path.startsWith("/people/") && path.endsWith("/schedule")) {
+                if (!requireMethod(exchange, "GET")) return;
+                getSchedule(exchange, path.substring("/people/".length(), path.length() - "/schedule".length()));
+            } else {
+                sendError(exchange, 404, "Unknown path: " + path);
+            }
+        }
+    }
+
+    private void createPerson(HttpExchange exchange) throws IOException {
+        String name = null;
+        String email = null;
+        try {
+            JsonReader in = reader(exchange);
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "name":
+                        name = in.nextString();
+                        break;
+                    case "email":
+                        email = in.nextString();
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+        } catch (IOException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        }
+        try {
+            scheduler.createPerson(name, email);
+        } catch (Exception e) {
+            sendFailure(exchange, e, 409);     // the email is in use
+            return;
+        }
+        try (JsonWriter out = respond(exchange, 201)) {
+            out.beginObject().name("name").value(name).name("email").value(email).endObject();
+        }
+    }
+
+    private void getSchedule(HttpExchange exchange, String email) throws IOException {
+        HashMap<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        Collection<Meeting> meetings;
+        try {
+            if (query.containsKey("count")) {
+                meetings = scheduler.getNextMeetingsForPerson(email, Integer.parseInt(query.get("count")));
+            } else if (query.containsKey("from") || query.containsKey("to")) {
+                meetings = scheduler.getScheduleForPerson(email, parseDateTime(query.get("from")),
+                        parseDateTime(query.get("to")));
+            } else {
+                // Looked up first, as the Scheduler reports rather than throws unknown emails here
+                meetings = scheduler.getScheduleForPerson(scheduler.getPersonFromEmail(email));
+            }
+        } catch (NumberFormatException e) {
+            sendError(exchange, 400, e.getMessage());
+            return;
+        } catch (Exception e) {
+            sendFailure(exchange, e, 404);     // the email is unknown
+            return;
+        }
+        try (JsonWriter out = respond(exchange, 200)) {
+            out.beginArray();
+            for (Meeting meeting : meetings) {
+                writeMeeting(out, meeting);
+            }
+            out.endArray();
+        }
+    }
+
+    private void handleMeetings(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!requirePath(exchange, "/meetings") || !requireMethod(exchange, "POST")
+                    || !requireBodySize(exchange)) return;
+            String timeslot = null;
+            long epochHour = Long.MIN_VALUE;
+            List<String> participants = null;
+            try {
+                JsonReader in = reader(exchange);
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "timeslot":
+                            timeslot = in.nextString();
+                            break;
+                        case "epochHour":
+                            epochHour = in.nextLong();
+                            break;
+                        case "participants":
+                            participants = readStrings(in);
+                            break;
+                        default:
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+            } catch (IOException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+            BookingResult result;
+            try {
+                if (timeslot != null) {
+                    result = scheduler.createMeeting(timeslot, participants);
+                } else if (epochHour != Long.MIN_VALUE) {
+                    // Checked here too, as any client may send any hour
+                    if (!TimeSlots.isSupported(epochHour)) {
+                        throw new InvalidParameterException("epochHour must be within years 0000-9999");
+                    }
+                    result = scheduler.createMeeting(epochHour, participants);
+                } else {
+                    throw new InvalidParameterException("Meeting needs a timeslot or epochHour");
+                }
+            } catch (Exception e) {
+                sendFailure(exchange, e, 404);     // a participant is unknown
+                return;
+            }
+            try (JsonWriter out = respond(exchange, result.isBooked() ? 201 : 409)) {
+                if (result.isBooked()) {
+                    writeMeeting(out, result.getMeeting());
+                } else {
+                    out.beginObject().name("status").value(result.getStatus().name()).name("conflicts").beginArray();
+                    for (String email : result.getConflictingEmails()) {
+                        out.value(email);
+                    }
+                    out.endArray().endObject();
+                }
+            }
+        }
+    }
+
+    private void handleSuggestions(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!requirePath(exchange, "/suggestions") || !requireMethod(exchange, "POST")
+                    || !requireBodySize(exchange)) return;
+            List<String> participants = null;
+            int count = 1;
+            List<Scheduler.MeetingDays> preferredDays = null;
+            List<Integer> preferredHours = null;
+            try {
+                JsonReader in = reader(exchange);
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "participants":
+                            participants = readStrings(in);
+                            break;
+                        case "count":
+                            count = in.nextInt();
+                            if (count < 1 || count > FreeSlotSearch.MAX_COUNT) {
+                                throw new InvalidParameterException("count must be > 0 and <= "
+                                        + FreeSlotSearch.MAX_COUNT);
+                            }
+                            break;
+                        case "preferredDays":
+                            preferredDays = new ArrayList<>();
+                            for (String day : readStrings(in)) {
+                                preferredDays.add(Scheduler.MeetingDays.valueOf(day));
+                            }
+                            break;
+                        case "preferredHours":
+                            preferredHours = new ArrayList<>();
+                            in.beginArray();
+                            while (in.hasNext()) {
+                                preferredHours.add(in.nextInt());
+                            }
+                            in.endArray();
+                            break;
+                        default:
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+            } catch (IOException | IllegalArgumentException e) {
+                // InvalidParameterException, and unknown day names, are IllegalArgumentExceptions
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+            ArrayList<LocalDateTime> timeslots;
+            try {
+                if (preferredDays == null && preferredHours == null) {
+                    timeslots = scheduler.suggestTimeslots(participants, count);
+                } else {
+                    timeslots = scheduler.suggestTimeslots(participants, count, preferredDays, preferredHours);
+                }
+            } catch (RuntimeException e) {
+                // Unknown emails are disregarded, so only invalid arguments are the client's fault
+                sendFailure(exchange, e, 500);
+                return;
+            }
+            try (JsonWriter out = respond(exchange, 200)) {
+                out.beginObject().name("timeslots").beginArray();
+                for (LocalDateTime timeslot : timeslots) {
+                    out.value(timeslot.toString());
+                }
+                out.endArray().endObject();
+            }
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!requirePath(exchange, "/metrics") || !requireMethod(exchange, "GET")) return;
+            SchedulerMetrics metrics = scheduler.getMetrics();
+            if (metrics == null) {
+                sendError(exchange, 404, "Metrics are not enabled");
+                return;
+            }
+            // Prometheus text exposition format
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, 0);
+            try (BufferedWriter out = new BufferedWriter(
+                    new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+                metrics.writeText(out);
+            }
+        }
+    }
+
+    /**
+     * Fields of a request to /shard/, any of which may be missing.
+     */
+    private static final class ShardRequest {
+        private long transaction;
+        private long epochHour;
+        private List<String> participants = List.of();
+        private List<String> names = List.of();
+        private String email;
+        private long fromWord;
+        private int words;
+        private long fromHour;
+        private long toHour;
+    }
+
+    private void handleShard(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!requireMethod(exchange, "POST") || !requireBodySize(exchange)) return;
+            String path = exchange.getRequestURI().getPath();
+            ShardRequest request = new ShardRequest();
+            try {
+                JsonReader in = reader(exchange);
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "transaction":
+                            request.transaction = in.nextLong();
+                            break;
+                        case "epochHour":
+                            request.epochHour = in.nextLong();
+                            break;
+                        case "participants":
+                            request.participants = readStrings(in);
+                            break;
+                        case "names":
+                            request.names = readStrings(in);
+                            break;
+                        case "email":
+                            request.email = in.nextString();
+                            break;
+                        case "fromWord":
+                            request.fromWord = in.nextLong();
+                            break;
+                        case "words":
+                            request.words = in.nextInt();
+                            break;
+                        case "fromHour":
+                            request.fromHour = in.nextLong();
+                            break;
+                        case "toHour":
+                            request.toHour = in.nextLong();
+                            break;
+                        default:
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+            } catch (IOException e) {
+                sendError(exchange, 400, e.getMessage());
+                return;
+            }
+            try {
+                switch (path) {
+                    case "/shard/prepare":
+                        ShardVote vote = shard.prepareMeeting(request.transaction, request.epochHour,
+                                request.participants);
+                        try (JsonWriter out = respond(exchange, 200)) {
+                            out.beginObject().name("reserved").value(vote.isReserved()).name("names").beginArray();
+                            for (String name : vote.getNames()) {
+                                out.value(name);
+                            }
+                            out.endArray().name("conflicts").beginArray();
+                            for (String email : vote.getConflictingEmails()) {
+                                out.value(email);
+                            }
+                            out.endArray().endObject();
+                        }
+                        break;
+                    case "/shard/commit":
+                        shard.commitMeeting(request.transaction, request.names, request.participants);
+                        respond(exchange, 200).beginObject().endObject().close();
+                        break;
+                    case "/shard/abort":
+                        shard.abortMeeting(request.transaction);
+                        respond(exchange, 200).beginObject().endObject().close();
+                        break;
+                    case "/shard/busy":
+                        if (request.words < 0 || request.words > 1 << 16) {
+                            throw new InvalidParameterException("words must be between 0 and 65536");
+                        }
+                        long[] busy = shard.busyWords(request.participants, request.fromWord, request.words);
+                        try (JsonWriter out = respond(exchange, 200)) {
+                            out.beginObject().name("words").beginArray();
+                            for (long word : busy) {
+                                out.value(word);
+                            }
+                            out.endArray().endObject();
+                        }
+                        break;
+                    case "/shard/meetings":
+                        Collection<Meeting> meetings = shard.getMeetingsBetween(request.email, request.fromHour,
+                                request.toHour);
+                        try (JsonWriter out = respond(exchange, 200)) {
+                            out.beginArray();
+                            for (Meeting meeting : meetings) {
+                                writeMeeting(out, meeting);
+                            }
+                            out.endArray();
+                        }
+                        break;
+                    default:
+                        sendError(exchange, 404, "Unknown path: " + path);
+                }
+            } catch (Exception e) {
+                // The transaction is not prepared any more, or else a participant is unknown
+                sendFailure(exchange, e, path.equals("/shard/commit") ? 409 : 404);
+            }
+        }
+    }
+
+    private static void writeMeeting(JsonWriter out, Meeting meeting) throws IOException {
+        out.beginObject().name("timeslot").value(meeting.getTimeslot().toString()).name("participants").beginArray();
+        for (int i = 0; i < meeting.getParticipantCount(); i++) {
+            Person person = meeting.getParticipant(i);
+            out.beginObject().name("name").value(person.getName()).name("email").value(person.getEmail()).endObject();
+        }
+        out.endArray().endObject();
+    }
+
+    private static List<String> readStrings(JsonReader in) throws IOException {
+        ArrayList<String> values = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            values.add(in.nextString());
+        }
+        in.endArray();
+        return values;
+    }
+
+    /**
+     * Reads the request body, failing on more than MAX_BODY_BYTES, e.g. of a chunked body, see requireBodySize().
+     */
+    private static JsonReader reader(HttpExchange exchange) {
+        return new JsonReader(new InputStreamReader(new BoundedInputStream(exchange.getRequestBody(), MAX_BODY_BYTES),
+                StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sends the response headers, and opens the body for streaming: chunked, as its length is not known yet.
+     */
+    private static JsonWriter respond(HttpExchange exchange, int status) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        return new JsonWriter(new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)));
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        try (JsonWriter out = respond(exchange, status)) {
+            out.beginObject().name("error").value(message).endObject();
+        }
+    }
+
+    /**
+     * Answers a call of the Scheduler that failed after the request was parsed: with 400 for invalid arguments,
+     * with the given status for the plain Exceptions the Scheduler reports unknown emails and conflicts with,
+     * and with 500 for anything else, e.g. an IOException of the journal, or a Scheduler already closed.
+     */
+    private static void sendFailure(HttpExchange exchange, Exception e, int status) throws IOException {
+        if (e instanceof InvalidParameterException || e instanceof DateTimeParseException) {
+            sendError(exchange, 400, e.getMessage());
+        } else if (e.getClass() == Exception.class) {
+            sendError(exchange, status, e.getMessage());
+        } else {
+            sendError(exchange, 500, String.valueOf(e));
+        }
+    }
+
+    private static boolean requireMethod(HttpExchange exchange, String method) throws IOException {
+        if (exchange.getRequestMethod().equals(method)) return true;
+        exchange.getResponseHeaders().set("Allow", method);
+        sendError(exchange, 405, "Method not allowed: " + exchange.getRequestMethod());
+        return false;
+    }
+
+    /**
+     * Refuses a body declaring more than MAX_BODY_BYTES up front, before any of it is read.
+     */
+    private static boolean requireBodySize(HttpExchange exchange) throws IOException {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        try {
+            if (length == null || Long.parseLong(length) <= MAX_BODY_BYTES) return true;
+        } catch (NumberFormatException e) {
+            sendError(exchange, 400, "Invalid Content-Length: " + length);
+            return false;
+        }
+        sendError(exchange, 413, "Request body must be at most " + MAX_BODY_BYTES + " bytes, was: " + length);
+        return false;
+    }
+
+    private static boolean requirePath(HttpExchange exchange, String path) throws IOException {
+        String requested = exchange.getRequestURI().getPath();
+        if (requested.equals(path) || requested.equals(path + "/")) return true;
+        sendError(exchange, 404, "Unknown path: " + requested);
+        return false;
+    }
+
+    private static HashMap<String, String> parseQuery(String rawQuery) {
+        HashMap<String, String> query = new HashMap<>();
+        if (rawQuery == null) return query;
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                query.put(URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return query;
+    }
+
+    private static void setDefault(String property, String value) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, value);
+        }
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        if (value == null) {
+            throw new InvalidParameterException("from and to must both be given");
+        }
+        return LocalDateTime.parse(value);
+    }
+
+    /**
+     * InputStream failing once more than a limit is read from it, so a body can not grow without bound.
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                consumed(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            // One byte more than allowed is enough to tell
+            int read = super.read(bytes, offset, (int) Math.min(length, remaining + 1));
+            if (read > 0) {
+                consumed(read);
+            }
+            return read;
+        }
+
+        private void consumed(int bytes) throws IOException {
+            remaining -= bytes;
+            if (remaining < 0) {
+                throw new IOException("Request body must be at most " + MAX_BODY_BYTES + " bytes");
+            }
+        }
+    }
+}
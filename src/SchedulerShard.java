@@ -0,0 +1,60 @@
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * One node of a sharded Scheduler, owning the people hashed to it, as seen by the ShardedScheduler coordinating it.
+ * Meetings are booked in two phases: every shard owning a participant first reserves the timeslot for them,
+ * and only once all have done so is the meeting committed, otherwise the reservations are aborted.
+ * Implemented in-process by LocalShard, and over HTTP to a SchedulerServer on another port or host by RemoteShard.
+ */
+public interface SchedulerShard {
+
+    /**
+     * @throws Exception if the email is already in use, or InvalidParameterException for invalid contact information
+     */
+    void createPerson(String name, String email) throws Exception;
+
+    /**
+     * Phase one: claims the timeslot for the given participants, all owned by this shard, unless any is busy.
+     * Claimed timeslots are busy for everyone else until the transaction is committed or aborted.
+     * @param transaction long id of the booking, unique per coordinator
+     * @param epochHour   long epoch hour of timeslot
+     * @param emails      List<String> of emails of distinct participants owned by this shard
+     * @return ShardVote telling whether the timeslot was reserved, or who is busy then
+     * @throws Exception if an email does not belong to anyone
+     */
+    ShardVote prepareMeeting(long transaction, long epochHour, List<String> emails) throws Exception;
+
+    /**
+     * Phase two: books the meeting reserved by prepareMeeting(). A reservation released as it expired is
+     * claimed again, and the meeting is only booked if all its participants here are still free.
+     * @param names  List<String> of names of all participants of the meeting, on any shard
+     * @param emails List<String> of emails of all participants of the meeting, in the same order
+     * @throws Exception if the transaction is not prepared on this shard, or expired and its timeslot was taken
+     */
+    void commitMeeting(long transaction, List<String> names, List<String> emails) throws Exception;
+
+    /**
+     * Phase two: releases the timeslot reserved by prepareMeeting(). Does nothing for an unknown transaction.
+     */
+    void abortMeeting(long transaction) throws Exception;
+
+    /**
+     * Busy hours of the given people OR'ed together, e.g. to intersect free timeslots across shards.
+     * Hours outside a person's working hours count as busy. Unknown emails are disregarded.
+     * @param emails   List<String> of emails of people owned by this shard
+     * @param fromWord long index of the first 64-hour word, see BusySource
+     * @param words    int amount of consecutive words
+     * @return long[] of busy words, one per word index
+     */
+    long[] busyWords(List<String> emails, long fromWord, int words) throws Exception;
+
+    /**
+     * @param email    String of email of a person owned by this shard
+     * @param fromHour long epoch hour of start of window (inclusive)
+     * @param toHour   long epoch hour of end of window (exclusive)
+     * @return Collection<Meeting> of the person's meetings within the window, in chronological order
+     * @throws Exception if the email does not belong to anyone
+     */
+    Collection<Meeting> getMeetingsBetween(String email, long fromHour, long toHour) throws Exception;
+}
@@ -0,0 +1,160 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary image of a Scheduler's people, meetings and series, so recovery does not have to replay
+ * every journal record ever written. People are written once and referred to by their index, so a meeting
+ * takes 16 bytes plus 4 per participant. Loading reads the file into memory and restores it in one pass.
+ * A snapshot is written to a temporary file and renamed into place, so a crash while writing leaves the
+ * previous snapshot intact.
+ * Layout: int MAGIC, int VERSION, long journal generation, people, meetings, series, int CRC32 of all before.
+ * Version 1 snapshots, whose meetings are whole hours stored as long epoch hour, are still read.
+ */
+final class SchedulerSnapshot {
+
+    private static final int MAGIC = 0x53434853;    // "SCHS"
+    private static final int VERSION = 2;           // meetings as long start minute and int duration minutes
+    private static final String FILE = "snapshot.bin";
+    private static final String TEMPORARY_FILE = "snapshot.tmp";
+
+    private SchedulerSnapshot() {
+    }
+
+    /**
+     * @param directory  Path of directory to write to
+     * @param generation long generation of the first journal file not covered by the snapshot
+     * @param people     Collection<Person> of everyone, including all participants of the meetings and series
+     * @param meetings   List<Meeting> of all meetings
+     * @param series     List<MeetingSeries> of all recurring meetings
+     * @throws IOException if writing fails, leaving the previous snapshot in place
+     */
+    static void write(Path directory, long generation, Collection<Person> people, List<Meeting> meetings,
+                      List<MeetingSeries> series) throws IOException {
+        Path temporary = directory.resolve(TEMPORARY_FILE);
+        IdentityHashMap<Person, Integer> index = new IdentityHashMap<>(people.size());
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(file, new CRC32());
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            out.writeInt(people.size());
+            for (Person person : people) {
+                index.put(person, index.size());
+                SchedulerJournal.writeString(out, person.getName());
+                SchedulerJournal.writeString(out, person.getEmail());
+            }
+            out.writeInt(meetings.size());
+            for (Meeting meeting : meetings) {
+                out.writeLong(meeting.getStartMinute());
+                out.writeInt(meeting.getDurationMinutes());
+                // Guests, see Scheduler.bookShardMeeting(), are left out like in the journal
+                ArrayList<Person> participants = meeting.getParticipants();
+                participants.removeIf(person -> !index.containsKey(person));
+                writeParticipants(out, participants, index);
+            }
+            out.writeInt(series.size());
+            for (MeetingSeries meetingSeries : series) {
+                Recurrence recurrence = meetingSeries.getRecurrence();
+                out.writeByte(recurrence.getFrequency().ordinal());
+                out.writeInt(recurrence.getInterval());
+                out.writeLong(recurrence.getStartHour());
+                out.writeLong(recurrence.getUntilHour());
+                long[] exceptions = recurrence.getExceptions();
+                out.writeInt(exceptions.length);
+                for (long exception : exceptions) {
+                    out.writeLong(exception);
+                }
+                writeParticipants(out, meetingSeries.getParticipants(), index);
+            }
+            out.flush();
+            new DataOutputStream(file).writeInt((int) checked.getChecksum().getValue());
+            file.getFD().sync();
+        }
+        Files.move(temporary, directory.resolve(FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restores the snapshot of a directory, if there is one, into an empty Scheduler.
+     * @param directory Path of directory to read from
+     * @param scheduler Scheduler to restore
+     * @return long generation of the first journal file to replay after the snapshot, 0 without snapshot
+     * @throws IOException if reading fails, or the snapshot is corrupt
+     */
+    static long load(Path directory, Scheduler scheduler) throws IOException {
+        Path path = directory.resolve(FILE);
+        if (!Files.exists(path)) return 0L;
+        // Read rather than mapped, as a mapped file could not be replaced by the next checkpoint on every platform
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        int end = buffer.limit() - Integer.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, Math.max(end, 0)));
+        int version = end < 0 ? 0 : buffer.getInt(Integer.BYTES);
+        if (end < 0 || buffer.getInt(0) != MAGIC || (version != 1 && version != VERSION)
+                || buffer.getInt(end) != (int) crc.getValue()) {
+            throw new IOException("Corrupt or unsupported snapshot: " + path);
+        }
+        buffer.position(2 * Integer.BYTES);
+        long generation = buffer.getLong();
+        Person[] people = new Person[buffer.getInt()];
+        for (int i = 0; i < people.length; i++) {
+            String name = SchedulerJournal.readString(buffer);
+            people[i] = scheduler.restorePerson(name, SchedulerJournal.readString(buffer));
+        }
+        int meetings = buffer.getInt();
+        for (int i = 0; i < meetings; i++) {
+            if (version == 1) {
+                long epochHour = buffer.getLong();
+                scheduler.restoreMeeting(epochHour, readParticipants(buffer, people), false);
+            } else {
+                long startMinute = buffer.getLong();
+                int durationMinutes = buffer.getInt();
+                scheduler.restoreMeeting(startMinute, durationMinutes, readParticipants(buffer, people), false);
+            }
+        }
+        int series = buffer.getInt();
+        for (int i = 0; i < series; i++) {
+            Recurrence.Frequency frequency = Recurrence.Frequency.values()[buffer.get()];
+            int interval = buffer.getInt();
+            long startHour = buffer.getLong();
+            long untilHour = buffer.getLong();
+            Recurrence recurrence = new Recurrence(frequency, interval, startHour, untilHour);
+            int exceptions = buffer.getInt();
+            for (int j = 0; j < exceptions; j++) {
+                recurrence.addException(buffer.getLong());
+            }
+            scheduler.restoreSeries(recurrence, readParticipants(buffer, people), false);
+        }
+        return generation;
+    }
+
+    private static void writeParticipants(DataOutputStream out, List<Person> participants,
+                                          IdentityHashMap<Person, Integer> index) throws IOException {
+        out.writeInt(participants.size());
+        for (Person person : participants) {
+            out.writeInt(index.get(person));
+        }
+    }
+
+    private static ArrayList<Person> readParticipants(ByteBuffer buffer, Person[] people) {
+        int count = buffer.getInt();
+        ArrayList<Person> participants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            participants.add(people[buffer.getInt()]);
+        }
+        return participants;
+    }
+}
@@ -0,0 +1,44 @@
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A timeslot suggested by Scheduler.suggestRankedTimeslots(), with its score and the optional attendees free then.
+ */
+public class ScoredTimeslot {
+
+    private final long epochHour;
+    private final double score;
+    private final List<String> availableOptional;
+
+    ScoredTimeslot(long epochHour, double score, List<String> availableOptional) {
+        this.epochHour = epochHour;
+        this.score = score;
+        this.availableOptional = availableOptional;
+    }
+
+    public long getEpochHour() {
+        return epochHour;
+    }
+
+    public LocalDateTime getTimeslot() {
+        return TimeSlots.fromEpochHour(epochHour);
+    }
+
+    /**
+     * @return double weighted sum of the parts of the score, higher is better, see SuggestionRequest
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * @return List<String> of emails of optional attendees free at the timeslot
+     */
+    public List<String> getAvailableOptional() {
+        return availableOptional;
+    }
+
+    public String toString() {
+        return getTimeslot() + String.format(" (%.3f)", score);
+    }
+}
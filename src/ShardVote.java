@@ -0,0 +1,47 @@
+import java.util.List;
+
+/**
+ * Answer of a SchedulerShard to the first phase of booking a meeting across shards: either it has reserved
+ * the timeslot for all participants it owns, or it lists those of them not available.
+ */
+public class ShardVote {
+
+    private final boolean reserved;
+    private final List<String> names;
+    private final List<String> conflictingEmails;
+
+    private ShardVote(boolean reserved, List<String> names, List<String> conflictingEmails) {
+        this.reserved = reserved;
+        this.names = names;
+        this.conflictingEmails = conflictingEmails;
+    }
+
+    /**
+     * @param names List<String> of names of the participants reserved, in the order their emails were given
+     */
+    public static ShardVote reserved(List<String> names) {
+        return new ShardVote(true, List.copyOf(names), List.of());
+    }
+
+    public static ShardVote conflict(List<String> conflictingEmails) {
+        return new ShardVote(false, List.of(), List.copyOf(conflictingEmails));
+    }
+
+    public boolean isReserved() {
+        return reserved;
+    }
+
+    /**
+     * @return List<String> of names of the participants reserved, empty unless reserved
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * @return List<String> of emails of participants not available, empty if reserved
+     */
+    public List<String> getConflictingEmails() {
+        return conflictingEmails;
+    }
+}
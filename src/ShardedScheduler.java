@@ -0,0 +1,404 @@
+import java.io.Closeable;
+import java.security.InvalidParameterException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coordinator of a Scheduler partitioned across nodes: each person is owned by one SchedulerShard, chosen by
+ * hashing their email key, so no node holds everyone. The coordinator itself holds no people or meetings,
+ * and any number of coordinators may share the same shards.
+ * <p>
+ * createMeeting() books in two phases: every shard owning a participant reserves the timeslot for them
+ * (prepare), and the meeting is committed on all of them only if all could, otherwise every reservation is
+ * aborted. A reserved timeslot is busy for everyone else meanwhile, so concurrent bookings can never
+ * double-book anyone; like Scheduler.tryCreateMeeting(), two conflicting bookings may both be rejected.
+ * suggestTimeslots() gathers the OR'ed busy words of each shard's participants, 64 words (4096 hours) per
+ * round trip, and intersects them here with the preferred hours. Shards are called concurrently, each call
+ * on its own virtual thread; a single shard is called directly.
+ * <p>
+ * A shard releases a reservation neither committed nor aborted within its timeout, e.g. as its coordinator
+ * failed, see LocalShard. A commit arriving later only books if the timeslot is still free on that shard.
+ * Meetings committed are never rolled back, so a meeting committed on some shards but not on others is
+ * reported by createMeeting() as partially booked, naming the participants it was booked for.
+ */
+public class ShardedScheduler implements Closeable {
+
+    private static final int WINDOW_WORDS = 64;     // busy words gathered per round trip
+
+    private final List<SchedulerShard> shards;
+    private final PersonRegistry keys;              // empty, only turns emails into keys
+    private final Clock clock;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    // Transaction ids: random per coordinator in the high bits, counting in the low bits
+    private final AtomicLong transactions = new AtomicLong(ThreadLocalRandom.current().nextLong() << 32);
+
+    /**
+     * A call to one shard, made by scatter().
+     */
+    private interface ShardCall<T> {
+        T call(SchedulerShard shard, List<String> emails) throws Exception;
+    }
+
+    /**
+     * @param shards  List of SchedulerShards, in the same order for every coordinator, as it decides ownership
+     * @param keyMode PersonRegistry.KeyMode of the shards' Schedulers, deciding which emails are the same person
+     */
+    public ShardedScheduler(List<? extends SchedulerShard> shards, PersonRegistry.KeyMode keyMode) {
+        this(shards, keyMode, Clock.systemDefaultZone());
+    }
+
+    /**
+     * @param clock Clock telling the current time, deciding which meetings are upcoming and where suggestions start
+     */
+    public ShardedScheduler(List<? extends SchedulerShard> shards, PersonRegistry.KeyMode keyMode, Clock clock) {
+        if (shards == null || shards.isEmpty() || clock == null) {
+            throw new InvalidParameterException("Shards must be not-null and not-empty, and Clock not-null");
+        }
+        this.shards = List.copyOf(shards);
+        this.keys = new PersonRegistry(keyMode, false);
+        this.clock = clock;
+    }
+
+    /**
+     * @param email String of email
+     * @return int index of the shard owning the person of the email
+     */
+    public int shardOf(String email) {
+        return Math.floorMod(keys.key(email).hashCode(), shards.size());
+    }
+
+    /**
+     * 1) Create persons with a name and unique email, on the shard owning the email.
+     * @throws Exception if the email is already in use, or InvalidParameterException for invalid contact information
+     */
+    public void createPerson(String name, String email) throws Exception {
+        if (email == null) {
+            throw new InvalidParameterException("String name and String email must be not-null");
+        }
+        shards.get(shardOf(email)).createPerson(name, email);
+    }
+
+    /**
+     * 2) Create meetings involving one or more persons at a given time slot, across the shards owning them.
+     * @param stringTimeSlot    String with date pattern "HH-dd-MM-yyyy", using 24-hour count.
+     * @param emailParticipants List of Strings of emails of participants
+     * @return BookingResult holding either the booked Meeting, or the emails of the participants not available
+     * @throws Exception if called with empty list of emailParticipants, or if list contains email not already added.
+     */
+    public BookingResult createMeeting(String stringTimeSlot, List<String> emailParticipants) throws Exception {
+        if (stringTimeSlot == null) {
+            throw new InvalidParameterException("String timeSlot must be not-null");
+        }
+        return createMeeting(TimeSlots.parseEpochHour(stringTimeSlot), emailParticipants);
+    }
+
+    /**
+     * 2) Create meetings involving one or more persons at a given time slot, across the shards owning them.
+     * @param epochHour         long hours since 1970-01-01T00:00
+     * @param emailParticipants List of Strings of emails of participants
+     * @return BookingResult holding either the booked Meeting, or the emails of the participants not available
+     * @throws Exception if called with empty list of emailParticipants, if list contains email not already added,
+     *                   or if a shard fails; naming the participants booked for if the meeting was committed on
+     *                   some shards but not on others
+     */
+    public BookingResult createMeeting(long epochHour, List<String> emailParticipants) throws Exception {
+        if (emailParticipants == null || emailParticipants.isEmpty()) {
+            throw new InvalidParameterException("Meeting must have at least 1 participant.");
+        }
+        List<String> emails = distinct(emailParticipants);
+        TreeMap<Integer, List<String>> byShard = groupByShard(emails);
+        long transaction = transactions.incrementAndGet();
+
+        // Phase one: reserve on every shard, then abort all reservations unless every shard reserved
+        List<Future<ShardVote>> votes = scatter(byShard,
+                (shard, owned) -> shard.prepareMeeting(transaction, epochHour, owned));
+        Exception failure = null;
+        HashMap<String, String> names = new HashMap<>();
+        ArrayList<String> conflicting = new ArrayList<>();
+        ArrayList<Integer> reserved = new ArrayList<>();
+        int i = 0;
+        for (Map.Entry<Integer, List<String>> entry : byShard.entrySet()) {
+            try {
+                ShardVote vote = await(votes.get(i++));
+                if (vote.isReserved()) {
+                    reserved.add(entry.getKey());
+                    for (int j = 0; j < entry.getValue().size(); j++) {
+                        names.put(entry.getValue().get(j), vote.getNames().get(j));
+                    }
+                } else {
+                    conflicting.addAll(vote.getConflictingEmails());
+                }
+            } catch (Exception e) {
+                if (failure == null) failure = e;
+            }
+        }
+        if (failure != null || !conflicting.isEmpty()) {
+            TreeMap<Integer, List<String>> abort = new TreeMap<>();
+            for (int shard : reserved) {
+                abort.put(shard, byShard.get(shard));
+            }
+            abort(abort, transaction);
+            if (failure != null) throw failure;
+            // Conflicts in the order participants were given
+            HashMap<String, Integer> position = new HashMap<>();
+            for (String email : emails) {
+                position.put(keys.key(email), position.size());
+            }
+            conflicting.sort(Comparator.comparingInt(email -> position.getOrDefault(keys.key(email), 0)));
+            return BookingResult.conflict(conflicting);
+        }
+
+        // Phase two: commit everywhere
+        ArrayList<String> participantNames = new ArrayList<>(emails.size());
+        ArrayList<Person> participants = new ArrayList<>(emails.size());
+        for (String email : emails) {
+            participantNames.add(names.get(email));
+            participants.add(new Person(names.get(email), email, clock));
+        }
+        List<Future<Object>> commits = scatter(byShard, (shard, owned) -> {
+            shard.commitMeeting(transaction, participantNames, emails);
+            return null;
+        });
+        ArrayList<String> booked = new ArrayList<>();
+        TreeMap<Integer, List<String>> notCommitted = new TreeMap<>();
+        i = 0;
+        for (Map.Entry<Integer, List<String>> entry : byShard.entrySet()) {
+            try {
+                await(commits.get(i++));
+                booked.addAll(entry.getValue());
+            } catch (Exception e) {
+                if (failure == null) failure = e;
+                notCommitted.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (failure != null) {
+            // Release whatever the failed shards still hold, e.g. after an invalid commit
+            try {
+                abort(notCommitted, transaction);
+            } catch (Exception e) {
+                failure.addSuppressed(e);
+            }
+            if (booked.isEmpty()) throw failure;
+            ArrayList<String> notBooked = new ArrayList<>();
+            notCommitted.values().forEach(notBooked::addAll);
+            throw new Exception("Meeting at " + TimeSlots.fromEpochHour(epochHour) + " partially booked: booked for "
+                    + booked + ", not confirmed for " + notBooked + ": " + failure.getMessage(), failure);
+        }
+        return BookingResult.booked(DetachedMeetings.of(epochHour, participants));
+    }
+
+    /**
+     * 4) Access the upcoming meetings of person given by their email String, from the shard owning them.
+     * @return Collection<Meeting> upcoming meetings, in chronological order
+     * @throws Exception if email does not match to any existing Person, or the shard fails
+     */
+    public Collection<Meeting> getScheduleForPerson(String email) throws Exception {
+        if (email == null) {
+            throw new InvalidParameterException("String email must be not-null");
+        }
+        return shards.get(shardOf(email)).getMeetingsBetween(email,
+                TimeSlots.toEpochHour(LocalDateTime.now(clock)) + 1, Long.MAX_VALUE);
+    }
+
+    /**
+     * 4) Access meetings of person given by their email String within a window, from the shard owning them.
+     * @param from LocalDateTime start of window (inclusive)
+     * @param to   LocalDateTime end of window (exclusive)
+     * @return Collection<Meeting> meetings within the window, in chronological order
+     * @throws Exception if email does not match to any existing Person, or the shard fails
+     */
+    public Collection<Meeting> getScheduleForPerson(String email, LocalDateTime from, LocalDateTime to)
+            throws Exception {
+        if (email == null || from == null || to == null) {
+            throw new InvalidParameterException("String email, LocalDateTime from and LocalDateTime to must be not-null");
+        }
+        return shards.get(shardOf(email)).getMeetingsBetween(email, TimeSlots.ceilEpochHour(from),
+                TimeSlots.ceilEpochHour(to));
+    }
+
+    /**
+     * 5) Suggest one or more available timeslots for meetings given a group of persons, using the default
+     * preferred days and hours of Scheduler.
+     * @see #suggestTimeslots(List, int, List, List)
+     */
+    public ArrayList<LocalDateTime> suggestTimeslots(List<String> emailParticipants, int count) {
+        return suggestTimeslots(emailParticipants, count, Scheduler.DEFAULT_PREFERRED,
+                Scheduler.DEFAULT_PREFERRED_HOURS.getFirst());
+    }
+
+    /**
+     * 5) Suggest one or more available timeslots for meetings given a group of persons, on any shards.
+     * Starts, like Scheduler.suggestTimeslots(), on the day after the current time at the first preferred hour.
+     * Unknown emails are disregarded.
+     * @param emailParticipants List of Strings of emails of participants for suggested meeting timeslot
+     * @param count             int amount of number of timeslots suggested
+     * @param preferredDays     List<MeetingDays> of days constraining timeslot suggestions
+     * @param preferredHours    List<Integer> of hours constraining timeslot suggestions (0-23)
+     * @return ArrayList<LocalDateTime> of suggested timeslots, in chronological order
+     * @throws IllegalStateException if a shard fails
+     */
+    public ArrayList<LocalDateTime> suggestTimeslots(List<String> emailParticipants, int count,
+                                                     List<Scheduler.MeetingDays> preferredDays,
+                                                     List<Integer> preferredHours) {
+        if (preferredDays == null || preferredDays.isEmpty() || preferredHours == null || preferredHours.isEmpty()) {
+            throw new InvalidParameterException("preferredDays and preferredHours must be not-null and not-empty");
+        }
+        return suggestTimeslots(emailParticipants, count, WeeklyMask.of(preferredDays, preferredHours),
+                preferredHours.getFirst());
+    }
+
+    /**
+     * Waits for calls being made to shards, and stops the threads making them.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private ArrayList<LocalDateTime> suggestTimeslots(List<String> emailParticipants, int count,
+                                                      WeeklyMask preferred, int firstHour) {
+        if (emailParticipants == null || emailParticipants.isEmpty()) {
+            throw new InvalidParameterException("emailParticipants must be be not-null and not-empty");
+        }
+        if (count < 1 || count > FreeSlotSearch.MAX_COUNT) {
+            throw new InvalidParameterException("count must be > 0 and <= " + FreeSlotSearch.MAX_COUNT);
+        }
+        LocalDateTime start = LocalDateTime.now(clock).plusDays(1).withHour(firstHour)
+                .withMinute(0).withSecond(0).withNano(0);
+        GatheredBusy busy = new GatheredBusy(groupByShard(distinct(emailParticipants)));
+        long[] found = FreeSlotSearch.findCommonFreeSlots(List.of(busy), preferred, TimeSlots.toEpochHour(start), count);
+        ArrayList<LocalDateTime> timeslots = new ArrayList<>(count);
+        for (long epochHour : found) {
+            timeslots.add(TimeSlots.fromEpochHour(epochHour));
+        }
+        return timeslots;
+    }
+
+    /**
+     * Busy hours of participants on any shards, OR'ed together, gathered from the shards a window at a time
+     * as FreeSlotSearch reads on.
+     */
+    private final class GatheredBusy implements BusySource {
+        private final TreeMap<Integer, List<String>> byShard;
+        private long windowStart = Long.MIN_VALUE;
+        private long[] window = new long[0];
+
+        private GatheredBusy(TreeMap<Integer, List<String>> byShard) {
+            this.byShard = byShard;
+        }
+
+        @Override
+        public long busyWord(long wordIndex) {
+            if (wordIndex < windowStart || wordIndex >= windowStart + window.length) {
+                gather(wordIndex);
+            }
+            return window[(int) (wordIndex - windowStart)];
+        }
+
+        private void gather(long fromWord) {
+            long[] merged = new long[WINDOW_WORDS];
+            try {
+                for (Future<long[]> words : scatter(byShard, (shard, owned) -> shard.busyWords(owned, fromWord, WINDOW_WORDS))) {
+                    long[] shardWords = await(words);
+                    for (int w = 0; w < WINDOW_WORDS; w++) {
+                        merged[w] |= shardWords[w];
+                    }
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not gather busy hours from shards", e);
+            }
+            windowStart = fromWord;
+            window = merged;
+        }
+    }
+
+    /**
+     * Releases the reservations of a transaction on the given shards.
+     * @throws Exception of the first shard failing to abort, once all were called
+     */
+    private void abort(TreeMap<Integer, List<String>> byShard, long transaction) throws Exception {
+        Exception failure = null;
+        for (Future<Object> aborted : scatter(byShard, (shard, owned) -> {
+            shard.abortMeeting(transaction);
+            return null;
+        })) {
+            try {
+                await(aborted);
+            } catch (Exception e) {
+                if (failure == null) failure = e;
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Calls the given shards concurrently, each with the emails of its participants.
+     * @return List<Future> of results, in order of the shards
+     */
+    private <T> List<Future<T>> scatter(TreeMap<Integer, List<String>> byShard, ShardCall<T> call) {
+        ArrayList<Future<T>> results = new ArrayList<>(byShard.size());
+        if (byShard.size() == 1) {
+            // No thread hop for a single shard
+            Map.Entry<Integer, List<String>> entry = byShard.firstEntry();
+            try {
+                results.add(CompletableFuture.completedFuture(call.call(shards.get(entry.getKey()), entry.getValue())));
+            } catch (Exception e) {
+                results.add(CompletableFuture.failedFuture(e));
+            }
+            return results;
+        }
+        for (Map.Entry<Integer, List<String>> entry : byShard.entrySet()) {
+            results.add(executor.submit(() -> call.call(shards.get(entry.getKey()), entry.getValue())));
+        }
+        return results;
+    }
+
+    private static <T> T await(Future<T> result) throws Exception {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * @return List<String> of emails, each person listed once, in given order
+     */
+    private List<String> distinct(List<String> emailParticipants) {
+        LinkedHashMap<String, String> byKey = new LinkedHashMap<>();
+        for (String email : emailParticipants) {
+            if (email == null) {
+                throw new InvalidParameterException("String email must be not-null");
+            }
+            byKey.putIfAbsent(keys.key(email), email);
+        }
+        return new ArrayList<>(byKey.values());
+    }
+
+    /**
+     * @return TreeMap from index of shard to the emails it owns, in given order
+     */
+    private TreeMap<Integer, List<String>> groupByShard(List<String> emails) {
+        TreeMap<Integer, List<String>> byShard = new TreeMap<>();
+        for (String email : emails) {
+            byShard.computeIfAbsent(shardOf(email), shard -> new ArrayList<>()).add(email);
+        }
+        return byShard;
+    }
+}
@@ -0,0 +1,222 @@
+import java.io.Closeable;
+import java.net.InetSocketAddress;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test of ShardedScheduler, run once with shards in-process and once with each shard served by its own
+ * SchedulerServer on a localhost port. Random bookings, schedules and suggestions are compared with those of
+ * a single Scheduler given the same calls. Then many concurrent bookings of groups sharing one person are
+ * checked for double-booking, and for every booked meeting being on every participant's schedule.
+ * Exits with status 1 on any violation.
+ * Run with optional args: [shards] [bookings]
+ */
+public class ShardedSchedulerTest {
+
+    private static final int PEOPLE = 200;
+    private static final String EXECUTIVE = "exec@person.com";
+    // Fixed clock, so the single Scheduler and the shards agree on what is upcoming
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2030-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    public static void main(String[] args) throws Exception {
+        int shardCount = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int bookings = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int violations = 0;
+
+        ArrayList<SchedulerShard> shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new LocalShard(newScheduler()));
+        }
+        violations += run("in-process", shards, bookings);
+
+        ArrayList<Closeable> nodes = new ArrayList<>();
+        shards = new ArrayList<>();
+        try {
+            for (int i = 0; i < shardCount; i++) {
+                SchedulerServer server = new SchedulerServer(newScheduler(), new InetSocketAddress("localhost", 0));
+                server.start();
+                nodes.add(server);
+                RemoteShard shard = new RemoteShard("http://localhost:" + server.getPort());
+                nodes.add(shard);
+                shards.add(shard);
+            }
+            violations += run("localhost", shards, bookings);
+        } finally {
+            for (Closeable node : nodes) {
+                node.close();
+            }
+        }
+        if (violations > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static int run(String label, List<SchedulerShard> shards, int bookings) throws Exception {
+        long startNanos = System.nanoTime();
+        int violations = 0;
+        Scheduler reference = newScheduler();
+        try (ShardedScheduler sharded = new ShardedScheduler(shards, PersonRegistry.KeyMode.EXACT, CLOCK)) {
+            for (int i = 0; i < PEOPLE; i++) {
+                reference.createPerson("Test" + i, email(i));
+                sharded.createPerson("Test" + i, email(i));
+            }
+            reference.createPerson("Exec", EXECUTIVE);
+            sharded.createPerson("Exec", EXECUTIVE);
+            try {
+                sharded.createPerson("Again", email(0));
+                System.out.println("VIOLATION: duplicate email accepted");
+                violations++;
+            } catch (Exception expected) {
+                // email in use
+            }
+
+            // Sequential bookings, compared with the single Scheduler
+            Random random = new Random(42);
+            long firstHour = TimeSlots.toEpochHour(LocalDateTime.now(CLOCK)) + 24;
+            int booked = 0;
+            for (int i = 0; i < bookings; i++) {
+                long epochHour = firstHour + random.nextInt(14 * 24);
+                List<String> participants = group(random, 1 + random.nextInt(4));
+                String expected = describe(reference.createMeeting(epochHour, participants));
+                String actual = describe(sharded.createMeeting(epochHour, participants));
+                if (!expected.equals(actual)) {
+                    System.out.println("VIOLATION: booking " + participants + " got " + actual + " expected " + expected);
+                    violations++;
+                }
+                if (actual.startsWith("BOOKED")) booked++;
+            }
+            try {
+                sharded.createMeeting(firstHour, List.of(email(0), "nobody@person.com"));
+                System.out.println("VIOLATION: meeting with unknown email booked");
+                violations++;
+            } catch (Exception expected) {
+                // unknown email, nothing left reserved as checked by the schedules and suggestions below
+            }
+            for (int i = 0; i < PEOPLE; i++) {
+                String expected = describe(reference.getScheduleForPerson(email(i)));
+                String actual = describe(sharded.getScheduleForPerson(email(i)));
+                if (!expected.equals(actual)) {
+                    System.out.println("VIOLATION: schedule of " + email(i) + " got " + actual + " expected " + expected);
+                    violations++;
+                }
+            }
+            for (int i = 0; i < 200; i++) {
+                List<String> participants = group(random, 2 + random.nextInt(3));
+                List<LocalDateTime> expected = reference.suggestTimeslots(participants, 3);
+                List<LocalDateTime> actual = sharded.suggestTimeslots(participants, 3);
+                if (!expected.equals(actual)) {
+                    System.out.println("VIOLATION: suggestion " + participants + " got " + actual + " expected " + expected);
+                    violations++;
+                }
+            }
+
+            // Concurrent bookings over few timeslots, each group including the executive
+            long concurrentHour = firstHour + 365 * 24;
+            AtomicInteger concurrentBooked = new AtomicInteger();
+            List<List<String>> groups = new ArrayList<>();
+            List<BookingResult> results = new ArrayList<>();
+            for (int i = 0; i < bookings; i++) {
+                List<String> participants = new ArrayList<>(group(random, 1 + random.nextInt(3)));
+                participants.add(EXECUTIVE);
+                groups.add(participants);
+                results.add(null);
+            }
+            try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < bookings; i++) {
+                    final int booking = i;
+                    threads.submit(() -> {
+                        BookingResult result = sharded.createMeeting(concurrentHour + booking % 48, groups.get(booking));
+                        synchronized (results) {
+                            results.set(booking, result);
+                        }
+                        if (result.isBooked()) concurrentBooked.incrementAndGet();
+                        return null;
+                    });
+                }
+            }
+            for (int i = 0; i <= PEOPLE; i++) {
+                String email = i < PEOPLE ? email(i) : EXECUTIVE;
+                Collection<Meeting> schedule = sharded.getScheduleForPerson(email,
+                        TimeSlots.fromEpochHour(concurrentHour), TimeSlots.fromEpochHour(concurrentHour + 48));
+                HashSet<Long> hours = new HashSet<>();
+                for (Meeting meeting : schedule) {
+                    if (!hours.add(meeting.getEpochHour())) {
+                        System.out.println("VIOLATION: " + email + " double-booked at " + meeting.getTimeslot());
+                        violations++;
+                    }
+                }
+            }
+            for (int i = 0; i < bookings; i++) {
+                BookingResult result = results.get(i);
+                if (result == null) {
+                    System.out.println("VIOLATION: booking " + groups.get(i) + " failed");
+                    violations++;
+                } else if (result.isBooked()) {
+                    long epochHour = concurrentHour + i % 48;
+                    for (String email : groups.get(i)) {
+                        Collection<Meeting> schedule = sharded.getScheduleForPerson(email,
+                                TimeSlots.fromEpochHour(epochHour), TimeSlots.fromEpochHour(epochHour + 1));
+                        if (schedule.size() != 1 || !describe(schedule).equals(describe(List.of(result.getMeeting())))) {
+                            System.out.println("VIOLATION: " + email + " lacks booked meeting " + describe(result));
+                            violations++;
+                        }
+                    }
+                }
+            }
+            long millis = (System.nanoTime() - startNanos) / 1_000_000;
+            System.out.println("> " + label + ", " + shards.size() + " shards: " + bookings + " bookings (" + booked
+                    + " booked), " + bookings + " concurrent (" + concurrentBooked + " booked), in " + millis
+                    + " ms: " + violations + " violations");
+        }
+        return violations;
+    }
+
+    private static Scheduler newScheduler() {
+        return new Scheduler(PersonRegistry.KeyMode.EXACT, Scheduler.Mode.CONCURRENT, CLOCK);
+    }
+
+    private static String email(int i) {
+        return "test" + i + "@person.com";
+    }
+
+    /**
+     * @return List<String> of emails of distinct random people
+     */
+    private static List<String> group(Random random, int size) {
+        ArrayList<String> group = new ArrayList<>(size);
+        while (group.size() < size) {
+            String email = email(random.nextInt(PEOPLE));
+            if (!group.contains(email)) group.add(email);
+        }
+        return group;
+    }
+
+    private static String describe(BookingResult result) {
+        if (result.isBooked()) {
+            return "BOOKED " + describe(List.of(result.getMeeting()));
+        }
+        return result.getStatus() + " " + result.getConflictingEmails();
+    }
+
+    private static String describe(Collection<Meeting> meetings) {
+        StringBuilder text = new StringBuilder();
+        for (Meeting meeting : meetings) {
+            text.append(meeting.getTimeslot()).append(':');
+            for (Person person : meeting.getParticipants()) {
+                text.append(' ').append(person.getName()).append(" <").append(person.getEmail()).append('>');
+            }
+            text.append("; ");
+        }
+        return text.toString();
+    }
+}
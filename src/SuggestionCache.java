@@ -0,0 +1,230 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of the timeslots found by suggestTimeslots(), keyed by the set of participants, the preferred
+ * hours, the hour the search starts at and the count. Beyond its capacity the least recently used result is
+ * evicted.
+ * A result only changes when a participant becomes busy or free at a preferred hour between where the search
+ * starts and the last timeslot it found, so a cached result is dropped exactly then: Persons report every
+ * change of their availability to availabilityChanged(), and only the results of that Person covering the
+ * changed hours are invalidated. A search racing such a change is returned but not cached.
+ * Thread-safe: lookups take the cache's monitor briefly, searches run outside it.
+ */
+final class SuggestionCache {
+
+    static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * What a search depends on: distinct participant ids in ascending order, and its other arguments.
+     */
+    private static final class Key {
+        private final int[] participants;
+        private final WeeklyMask preferred;
+        private final long fromHour;
+        private final int count;
+        private final int hash;
+
+        private Key(int[] participants, WeeklyMask preferred, long fromHour, int count) {
+            this.participants = participants;
+            this.preferred = preferred;
+            this.fromHour = fromHour;
+            this.count = count;
+            this.hash = 31 * (31 * (31 * Arrays.hashCode(participants) + preferred.hashCode())
+                    + Long.hashCode(fromHour)) + count;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key other)) return false;
+            return fromHour == other.fromHour && count == other.count && preferred.equals(other.preferred)
+                    && Arrays.equals(participants, other.participants);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * A search and its result, registered with each participant from before it starts.
+     */
+    private static final class Entry {
+        private final Key key;
+        private final Person[] participants;
+        private volatile long[] found;          // null while searching
+        private volatile boolean invalid;       // availability changed meanwhile, must not be cached
+
+        private Entry(Key key, Person[] participants) {
+            this.key = key;
+            this.participants = participants;
+        }
+
+        /**
+         * @return true if a change of availability between the epoch hours (inclusive) could change the result
+         */
+        private boolean covers(long[] result, long fromHour, long toHour) {
+            // A result short of count searched up to the horizon
+            long searchedUntil = result.length == key.count ? result[result.length - 1]
+                    : key.fromHour + FreeSlotSearch.HORIZON_HOURS;
+            long first = Math.max(fromHour, key.fromHour);
+            long last = Math.min(toHour, searchedUntil);
+            if (last - first >= TimeSlots.HOURS_PER_WEEK) return true;  // covers every hour of the week
+            for (long h = first; h <= last; h++) {
+                if (key.preferred.contains(h)) return true;
+            }
+            return false;
+        }
+    }
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() <= capacity) return false;
+            forget(eldest.getValue());
+            evictions.increment();
+            return true;
+        }
+    };  // in access order, guarded by this
+    // Entries by participant, to find those a change of availability may invalidate
+    private final ConcurrentHashMap<Person, Set<Entry>> dependents = new ConcurrentHashMap<>();
+    private volatile int capacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    SuggestionCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * The result of findCommonFreeSlots(), only if the cache holds it, e.g. for telling hits from searches.
+     * @return long[] of epoch hours of found timeslots, not to be modified, or null if it has to be searched
+     */
+    long[] getCached(List<Person> participants, WeeklyMask preferred, long fromHour, int count) {
+        Key key = capacity > 0 ? key(participants, preferred, fromHour, count) : null;
+        return key == null ? null : getCached(key);
+    }
+
+    /**
+     * FreeSlotSearch.findCommonFreeSlots() of the participants, from the cache if it holds the result.
+     * @param participants List<Person> of participants, in any order and possibly repeated
+     * @return long[] of epoch hours of found timeslots, in chronological order, not to be modified
+     */
+    long[] findCommonFreeSlots(List<Person> participants, WeeklyMask preferred, long fromHour, int count) {
+        Key key = capacity > 0 ? key(participants, preferred, fromHour, count) : null;
+        if (key == null) {
+            return FreeSlotSearch.findCommonFreeSlots(participants, preferred, fromHour, count);
+        }
+        long[] cached = getCached(key);
+        if (cached != null) {
+            return cached;
+        }
+        misses.increment();
+        // Registered before searching, so a change the search may miss invalidates it
+        Entry entry = new Entry(key, participants.toArray(new Person[0]));
+        for (Person person : entry.participants) {
+            dependents.compute(person, (p, set) -> {
+                if (set == null) set = ConcurrentHashMap.newKeySet();
+                set.add(entry);
+                return set;
+            });
+        }
+        long[] found = FreeSlotSearch.findCommonFreeSlots(participants, preferred, fromHour, count);
+        entry.found = found;
+        synchronized (this) {
+            if (!entry.invalid) {
+                Entry replaced = entries.put(key, entry);
+                if (replaced != null) forget(replaced);
+                return found;
+            }
+        }
+        forget(entry);
+        return found;
+    }
+
+    /**
+     * Invalidates the cached results of a participant that a change of availability could change.
+     * @param person   Person whose availability changed
+     * @param fromHour long first epoch hour changed (inclusive)
+     * @param toHour   long last epoch hour changed (inclusive)
+     */
+    void availabilityChanged(Person person, long fromHour, long toHour) {
+        Set<Entry> affected = dependents.get(person);
+        if (affected == null) return;
+        for (Entry entry : affected) {
+            long[] found = entry.found;
+            // Still searching, it may or may not have seen the change
+            if (found == null || entry.covers(found, fromHour, toHour)) {
+                entry.invalid = true;
+                synchronized (this) {
+                    if (entries.remove(entry.key, entry)) {
+                        invalidations.increment();
+                    }
+                }
+                forget(entry);
+            }
+        }
+    }
+
+    /**
+     * @param capacity int maximum amount of cached results, 0 to disable caching
+     */
+    synchronized void setCapacity(int capacity) {
+        this.capacity = capacity;
+        var eldest = entries.values().iterator();
+        while (entries.size() > capacity) {
+            forget(eldest.next());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    synchronized SuggestionCacheStats getStats() {
+        return new SuggestionCacheStats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(),
+                entries.size(), capacity);
+    }
+
+    private synchronized long[] getCached(Key key) {
+        Entry cached = entries.get(key);
+        if (cached == null) return null;
+        hits.increment();
+        return cached.found;
+    }
+
+    private void forget(Entry entry) {
+        for (Person person : entry.participants) {
+            dependents.computeIfPresent(person, (p, set) -> {
+                set.remove(entry);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    /**
+     * @return Key of the search, or null if a participant has no id and the result can not be cached
+     */
+    private static Key key(List<Person> participants, WeeklyMask preferred, long fromHour, int count) {
+        int[] ids = new int[participants.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = participants.get(i).getId();
+            if (ids[i] < 0) return null;
+        }
+        Arrays.sort(ids);
+        int distinct = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return new Key(distinct == ids.length ? ids : Arrays.copyOf(ids, distinct), preferred, fromHour, count);
+    }
+}
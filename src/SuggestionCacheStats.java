@@ -0,0 +1,75 @@
+/**
+ * Counters of a Scheduler's cache of suggested timeslots at the time they were read,
+ * see Scheduler.getSuggestionCacheStats().
+ */
+public class SuggestionCacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long invalidations;
+    private final int size;
+    private final int capacity;
+
+    SuggestionCacheStats(long hits, long misses, long evictions, long invalidations, int size, int capacity) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.size = size;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return long amount of suggestions answered from the cache
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return long amount of suggestions searched for, as the cache did not hold them
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return long amount of results dropped to stay within capacity
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return long amount of results dropped as a participant's availability changed within them
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * @return int amount of results cached
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return double share of suggestions answered from the cache, 0 before any suggestion
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", invalidations="
+                + invalidations + ", size=" + size + "/" + capacity;
+    }
+}
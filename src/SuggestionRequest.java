@@ -0,0 +1,198 @@
+import java.security.InvalidParameterException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * What Scheduler.suggestRankedTimeslots() looks for: the best 'count' timeslots within a window, at which every
+ * required participant is free and within their working hours. Candidates are scored by how early they are,
+ * whether they are at a preferred day and hour, how little they fragment the required participants' days, and
+ * how many optional attendees are free, each times its weight. Immutable, the with...() methods return a copy.
+ */
+public class SuggestionRequest {
+
+    private final List<String> required;
+    private final List<String> optional;
+    private final long fromHour;
+    private final long toHour;
+    private final int count;
+    private final List<Scheduler.MeetingDays> preferredDays;   // null for the Scheduler's defaults
+    private final List<Integer> preferredHours;
+    private final double earlinessWeight;
+    private final double preferenceWeight;
+    private final double fragmentationWeight;
+    private final double coverageWeight;
+    private final Duration timeout;                            // null to search the whole window
+
+    /**
+     * @param required List<String> of emails of participants who must all be free
+     * @param from     LocalDateTime start of the window (inclusive), rounded up to a whole hour
+     * @param to       LocalDateTime end of the window, which the last timeslot must end by
+     * @param count    int amount of timeslots to suggest, at least 1 and at most FreeSlotSearch.MAX_COUNT
+     */
+    public SuggestionRequest(List<String> required, LocalDateTime from, LocalDateTime to, int count) {
+        this(required, List.of(), window(from, true), window(to, false), count, null, null, 1.0, 2.0, 0.5, 1.0, null);
+        if (fromHour >= toHour) {
+            throw new InvalidParameterException("Window must end after it starts");
+        }
+        // Bounded like the searches of suggestTimeslots(), see FreeSlotSearch.HORIZON_HOURS
+        if (toHour - fromHour > FreeSlotSearch.HORIZON_HOURS) {
+            throw new InvalidParameterException("Window must not be longer than about 10 years");
+        }
+    }
+
+    private SuggestionRequest(List<String> required, List<String> optional, long fromHour, long toHour, int count,
+                              List<Scheduler.MeetingDays> preferredDays, List<Integer> preferredHours,
+                              double earlinessWeight, double preferenceWeight, double fragmentationWeight,
+                              double coverageWeight, Duration timeout) {
+        if (required == null || required.isEmpty() || containsNull(required)) {
+            throw new InvalidParameterException("required must be not-null and not-empty, without null emails");
+        }
+        if (count < 1 || count > FreeSlotSearch.MAX_COUNT) {
+            throw new InvalidParameterException("count must be > 0 and <= " + FreeSlotSearch.MAX_COUNT);
+        }
+        this.required = List.copyOf(required);
+        this.optional = optional;
+        this.fromHour = fromHour;
+        this.toHour = toHour;
+        this.count = count;
+        this.preferredDays = preferredDays;
+        this.preferredHours = preferredHours;
+        this.earlinessWeight = earlinessWeight;
+        this.preferenceWeight = preferenceWeight;
+        this.fragmentationWeight = fragmentationWeight;
+        this.coverageWeight = coverageWeight;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @param optional List<String> of emails of attendees whose being free raises a timeslot's score
+     */
+    public SuggestionRequest withOptional(List<String> optional) {
+        if (optional == null || containsNull(optional)) {
+            throw new InvalidParameterException("optional must be not-null, without null emails");
+        }
+        return new SuggestionRequest(required, List.copyOf(optional), fromHour, toHour, count, preferredDays,
+                preferredHours, earlinessWeight, preferenceWeight, fragmentationWeight, coverageWeight, timeout);
+    }
+
+    /**
+     * @param preferredDays  List<MeetingDays> of days scoring as preferred, instead of the Scheduler's defaults
+     * @param preferredHours List<Integer> of hours scoring as preferred (0-23)
+     */
+    public SuggestionRequest withPreferred(List<Scheduler.MeetingDays> preferredDays, List<Integer> preferredHours) {
+        if (preferredDays == null || preferredDays.isEmpty() || preferredHours == null || preferredHours.isEmpty()) {
+            throw new InvalidParameterException("preferredDays and preferredHours must be not-null and not-empty");
+        }
+        WeeklyMask.of(preferredDays, preferredHours);   // validates
+        return new SuggestionRequest(required, optional, fromHour, toHour, count, List.copyOf(preferredDays),
+                List.copyOf(preferredHours), earlinessWeight, preferenceWeight, fragmentationWeight, coverageWeight,
+                timeout);
+    }
+
+    /**
+     * Weights of the parts of a timeslot's score, each part between 0 and 1. Defaults: 1, 2, 0.5 and 1.
+     * @param earliness     double weight of how early in the window the timeslot is
+     * @param preference    double weight of being at a preferred day and hour
+     * @param fragmentation double weight of not leaving a required participant a lone free hour next to it
+     * @param coverage      double weight of the share of optional attendees free
+     */
+    public SuggestionRequest withWeights(double earliness, double preference, double fragmentation, double coverage) {
+        if (!(earliness >= 0 && preference >= 0 && fragmentation >= 0 && coverage >= 0)) {
+            throw new InvalidParameterException("Weights must be >= 0");
+        }
+        return new SuggestionRequest(required, optional, fromHour, toHour, count, preferredDays, preferredHours,
+                earliness, preference, fragmentation, coverage, timeout);
+    }
+
+    /**
+     * @param timeout Duration after which the best timeslots found so far are returned, as a partial result
+     */
+    public SuggestionRequest withTimeout(Duration timeout) {
+        if (timeout == null || timeout.isNegative()) {
+            throw new InvalidParameterException("timeout must be not-null and not negative");
+        }
+        return new SuggestionRequest(required, optional, fromHour, toHour, count, preferredDays, preferredHours,
+                earlinessWeight, preferenceWeight, fragmentationWeight, coverageWeight, timeout);
+    }
+
+    public List<String> getRequired() {
+        return required;
+    }
+
+    public List<String> getOptional() {
+        return optional;
+    }
+
+    /**
+     * @return long epoch hour of the start of the window (inclusive)
+     */
+    public long getFromHour() {
+        return fromHour;
+    }
+
+    /**
+     * @return long epoch hour of the end of the window (exclusive)
+     */
+    public long getToHour() {
+        return toHour;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return List<MeetingDays> of preferred days, or null for the Scheduler's defaults
+     */
+    public List<Scheduler.MeetingDays> getPreferredDays() {
+        return preferredDays;
+    }
+
+    /**
+     * @return List<Integer> of preferred hours, or null for the Scheduler's defaults
+     */
+    public List<Integer> getPreferredHours() {
+        return preferredHours;
+    }
+
+    public double getEarlinessWeight() {
+        return earlinessWeight;
+    }
+
+    public double getPreferenceWeight() {
+        return preferenceWeight;
+    }
+
+    public double getFragmentationWeight() {
+        return fragmentationWeight;
+    }
+
+    public double getCoverageWeight() {
+        return coverageWeight;
+    }
+
+    /**
+     * @return Duration after which a partial result is returned, or null to search the whole window
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return long epoch hour of the first whole hour at or after a start, or of the hour an end falls in
+     */
+    private static long window(LocalDateTime time, boolean start) {
+        if (time == null) {
+            throw new InvalidParameterException("Window must be not-null");
+        }
+        return start ? TimeSlots.ceilEpochHour(time) : TimeSlots.toEpochHour(time);
+    }
+
+    private static boolean containsNull(List<String> emails) {
+        for (String email : emails) {
+            if (email == null) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,207 @@
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Conversions between LocalDateTime timeslots and whole hours counted from 1970-01-01T00:00 ("epoch hours"),
+ * or minutes ("epoch minutes") for meetings not at whole hours.
+ * Timeslots are treated as wall-clock time without zone, so UTC is used purely as a fixed reference.
+ * Also parses and formats the "HH-dd-MM-yyyy" timeslot Strings taken by Scheduler.
+ */
+public final class TimeSlots {
+
+    public static final int HOURS_PER_DAY = 24;
+    public static final int HOURS_PER_WEEK = 7 * HOURS_PER_DAY;
+    public static final int MINUTES_PER_HOUR = 60;
+
+    /** Earliest epoch hour a meeting may be booked at, 0000-01-01T00:00, the first the timeslot format expresses */
+    public static final long MIN_EPOCH_HOUR = epochDay(0, 1, 1) * HOURS_PER_DAY;
+    /** Latest epoch hour a meeting may be booked at, 9999-12-31T23:00, the last the timeslot format expresses */
+    public static final long MAX_EPOCH_HOUR = epochDay(10000, 1, 1) * HOURS_PER_DAY - 1;
+
+    /** Timeslot String format, "HH-dd-MM-yyyy" using 24-hour count, e.g. "14-01-01-2024" for 2024-01-01T14:00 */
+    public static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("HH-dd-MM-yyyy");
+    private static final int FORMAT_LENGTH = 13;
+
+    private TimeSlots() {
+    }
+
+    /**
+     * @param timeSlot LocalDateTime, minutes and smaller units are disregarded
+     * @return long epoch hour containing the given timeslot
+     */
+    public static long toEpochHour(LocalDateTime timeSlot) {
+        return Math.floorDiv(timeSlot.toEpochSecond(ZoneOffset.UTC), 3600);
+    }
+
+    /**
+     * Bookings are limited to these years, so a calendar's page table can not be made to grow without bound
+     * and every booked hour is a LocalDateTime.
+     * @param epochHour long epoch hour
+     * @return true if the hour is within MIN_EPOCH_HOUR and MAX_EPOCH_HOUR
+     */
+    public static boolean isSupported(long epochHour) {
+        return epochHour >= MIN_EPOCH_HOUR && epochHour <= MAX_EPOCH_HOUR;
+    }
+
+    /**
+     * @param time LocalDateTime
+     * @return long epoch hour of the first whole hour at or after the given time
+     */
+    public static long ceilEpochHour(LocalDateTime time) {
+        long epochHour = toEpochHour(time);
+        boolean wholeHour = time.getMinute() == 0 && time.getSecond() == 0 && time.getNano() == 0;
+        return wholeHour ? epochHour : epochHour + 1;
+    }
+
+    /**
+     * @param epochHour long epoch hour
+     * @return new LocalDateTime at the start of the given epoch hour
+     */
+    public static LocalDateTime fromEpochHour(long epochHour) {
+        return LocalDateTime.ofEpochSecond(epochHour * 3600, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * @param time LocalDateTime, seconds and smaller units are disregarded
+     * @return long minutes since 1970-01-01T00:00 ("epoch minute") containing the given time
+     */
+    public static long toEpochMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * @param time LocalDateTime
+     * @return long epoch minute of the first whole minute at or after the given time
+     */
+    public static long ceilEpochMinute(LocalDateTime time) {
+        long epochMinute = toEpochMinute(time);
+        return time.getSecond() == 0 && time.getNano() == 0 ? epochMinute : epochMinute + 1;
+    }
+
+    /**
+     * @param epochMinute long epoch minute
+     * @return new LocalDateTime at the start of the given epoch minute
+     */
+    public static LocalDateTime fromEpochMinute(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    /**
+     * @param epochHour long epoch hour
+     * @return String of the timeslot in "HH-dd-MM-yyyy" format
+     */
+    public static String format(long epochHour) {
+        return FORMAT.format(fromEpochHour(epochHour));
+    }
+
+    /**
+     * Parses a "HH-dd-MM-yyyy" timeslot String straight into its epoch hour, without creating any objects.
+     * Unlike FORMAT, a day that does not exist in the given month, e.g. "09-30-02-2024", is rejected
+     * rather than moved to the last day of the month.
+     * @param input CharSequence with date pattern "HH-dd-MM-yyyy", using 24-hour count.
+     * @return long epoch hour of timeslot
+     * @throws DateTimeParseException if input is not a valid timeslot in the format
+     */
+    public static long parseEpochHour(CharSequence input) {
+        if (input.length() != FORMAT_LENGTH || input.charAt(2) != '-' || input.charAt(5) != '-'
+                || input.charAt(8) != '-') {
+            throw new DateTimeParseException("Timeslot must have format HH-dd-MM-yyyy", input, 0);
+        }
+        int hour = digits(input, 0, 2);
+        int day = digits(input, 3, 2);
+        int month = digits(input, 6, 2);
+        int year = digits(input, 9, 4);
+        if (hour > 23) {
+            throw new DateTimeParseException("Invalid hour of day: " + hour, input, 0);
+        }
+        if (month < 1 || month > 12) {
+            throw new DateTimeParseException("Invalid month: " + month, input, 6);
+        }
+        if (day < 1 || day > lengthOfMonth(year, month)) {
+            throw new DateTimeParseException("Invalid day of month: " + day, input, 3);
+        }
+        return epochDay(year, month, day) * HOURS_PER_DAY + hour;
+    }
+
+    private static int digits(CharSequence input, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = input.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new DateTimeParseException("Expected digit", input, i);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * @param epochDay long days since 1970-01-01
+     * @return int day of month of the date, 1-31
+     */
+    static int dayOfMonth(long epochDay) {
+        return (int) (civil(epochDay) % 100);
+    }
+
+    /**
+     * @param epochDay long days since 1970-01-01
+     * @return int months since year 0 of the date, i.e. year * 12 + (month - 1)
+     */
+    static int monthIndex(long epochDay) {
+        long civil = civil(epochDay);
+        return (int) (civil / 10000 * 12 + civil / 100 % 100 - 1);
+    }
+
+    /**
+     * @param monthIndex int months since year 0, i.e. year * 12 + (month - 1)
+     * @param day        int day of month, 1-31
+     * @return long days since 1970-01-01 of the date, or Long.MIN_VALUE if the month has no such day
+     */
+    static long epochDayOfMonth(int monthIndex, int day) {
+        int year = Math.floorDiv(monthIndex, 12);
+        int month = Math.floorMod(monthIndex, 12) + 1;
+        return day > lengthOfMonth(year, month) ? Long.MIN_VALUE : epochDay(year, month, day);
+    }
+
+    static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return leap ? 29 : 28;
+            case 4: case 6: case 9: case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Inverse of epochDay(), the date packed as year * 10000 + month * 100 + day, for years 0 and later.
+     */
+    private static long civil(long epochDay) {
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;                                                   // [0, 146096]
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;  // [0, 399]
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);    // [0, 365]
+        long mp = (5 * dayOfYear + 2) / 153;                                                // [0, 11], March first
+        long day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10000 + month * 100 + day;
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date, counting years from March so leap days come last.
+     */
+    private static long epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;                                          // [0, 399]
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;  // [0, 365]
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;   // [0, 146096]
+        return era * 146097L + dayOfEra - 719468;
+    }
+}
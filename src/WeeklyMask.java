@@ -0,0 +1,132 @@
+import java.security.InvalidParameterException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Preferred meeting hours of a week, compiled once from lists of preferred days and hours.
+ * Holds one bit per hour of the week (168 bits), and precomputes the repeating pattern those bits
+ * form over 64-hour words of epoch hours, so a whole word of candidate timeslots is tested with one AND.
+ */
+public class WeeklyMask {
+
+    // 1970-01-01 (epoch hour 0) was a Thursday, i.e. 3 days after the start of a Monday-based week
+    private static final int EPOCH_WEEK_OFFSET = 3 * TimeSlots.HOURS_PER_DAY;
+    // lcm(64, 168) = 1344 hours, after which the word pattern repeats
+    private static final int CYCLE_WORDS = 21;
+
+    /** Every hour of the week */
+    static final WeeklyMask ALL = new WeeklyMask(new long[]{-1L, -1L, (1L << (TimeSlots.HOURS_PER_WEEK - 128)) - 1});
+
+    private final long[] weekBits;      // bit (day * 24 + hour), day 0 = Monday
+    private final long[] cycle;         // preferred bits of each word within the repeating cycle
+
+    private WeeklyMask(long[] weekBits) {
+        this.weekBits = weekBits;
+        this.cycle = new long[CYCLE_WORDS];
+        for (int w = 0; w < CYCLE_WORDS; w++) {
+            long word = 0L;
+            for (int bit = 0; bit < Long.SIZE; bit++) {
+                if (containsWeekHour(weekHour((long) w * Long.SIZE + bit))) {
+                    word |= 1L << bit;
+                }
+            }
+            cycle[w] = word;
+        }
+    }
+
+    /**
+     * Compiles preferred days and hours into a mask covering each combination of the two.
+     * @param preferredDays  List<MeetingDays> of preferred days
+     * @param preferredHours List<Integer> of preferred hours of the day (0-23)
+     * @return new WeeklyMask
+     */
+    public static WeeklyMask of(List<Scheduler.MeetingDays> preferredDays, List<Integer> preferredHours) {
+        int[] hours = new int[preferredHours.size()];
+        for (int i = 0; i < hours.length; i++) {
+            Integer hour = preferredHours.get(i);
+            if (hour == null) {
+                throw new InvalidParameterException("preferredHours must be within 0-23, was: null");
+            }
+            hours[i] = hour;
+        }
+        return of(preferredDays, hours);
+    }
+
+    /**
+     * Compiles preferred days and hours into a mask covering each combination of the two.
+     * @param preferredDays  List<MeetingDays> of preferred days
+     * @param preferredHours int[] of preferred hours of the day (0-23)
+     * @return new WeeklyMask
+     */
+    public static WeeklyMask of(List<Scheduler.MeetingDays> preferredDays, int... preferredHours) {
+        long[] weekBits = new long[3];
+        for (Scheduler.MeetingDays day : preferredDays) {
+            for (int hour : preferredHours) {
+                if (hour < 0 || hour >= TimeSlots.HOURS_PER_DAY) {
+                    throw new InvalidParameterException("preferredHours must be within 0-23, was: " + hour);
+                }
+                int weekHour = day.ordinal() * TimeSlots.HOURS_PER_DAY + hour;
+                weekBits[weekHour >> 6] |= 1L << weekHour;
+            }
+        }
+        return new WeeklyMask(weekBits);
+    }
+
+    /**
+     * @param epochHour long epoch hour of timeslot
+     * @return true if the timeslot is at a preferred day and hour
+     */
+    public boolean contains(long epochHour) {
+        return containsWeekHour(weekHour(epochHour));
+    }
+
+    /**
+     * Preferred bits of 64 consecutive hours, bit i denoting epoch hour (wordIndex * 64 + i).
+     * @param wordIndex long index of word, i.e. epoch hour divided by 64
+     * @return long with a set bit for each preferred hour
+     */
+    public long word(long wordIndex) {
+        return cycle[Math.floorMod(wordIndex, CYCLE_WORDS)];
+    }
+
+    /**
+     * Preferred bits of the 64 hours from any epoch hour on, not only from the start of a word.
+     * @param fromHour long epoch hour of bit 0
+     * @return long with bit i set if epoch hour (fromHour + i) is preferred
+     */
+    long wordAt(long fromHour) {
+        long wordIndex = fromHour >> AvailabilityCalendar.WORD_BITS;
+        int shift = (int) (fromHour & (Long.SIZE - 1));
+        if (shift == 0) return word(wordIndex);
+        return (word(wordIndex) >>> shift) | (word(wordIndex + 1) << (Long.SIZE - shift));
+    }
+
+    /**
+     * @return true if no hour of the week is preferred
+     */
+    public boolean isEmpty() {
+        return (weekBits[0] | weekBits[1] | weekBits[2]) == 0;
+    }
+
+    /**
+     * @return true if the other WeeklyMask prefers the same hours of the week
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return o instanceof WeeklyMask other && Arrays.equals(weekBits, other.weekBits);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(weekBits);
+    }
+
+    private boolean containsWeekHour(int weekHour) {
+        return (weekBits[weekHour >> 6] & (1L << weekHour)) != 0;
+    }
+
+    private static int weekHour(long epochHour) {
+        return (int) Math.floorMod(epochHour + EPOCH_WEEK_OFFSET, (long) TimeSlots.HOURS_PER_WEEK);
+    }
+}
@@ -0,0 +1,216 @@
+import java.security.InvalidParameterException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * When a Person takes meetings: working days and hours in their own time zone, except for blackout periods
+ * such as holidays. Immutable, withBlackout() returns a new WorkingHours.
+ * A Scheduler compiles it once into a Mask of the hours of its own time zone: a WeeklyMask of the working
+ * hours, shifted by the difference between the two zones, minus the blackouts as sorted ranges of epoch hours.
+ * Suggestions then test 64 hours at a time with a few shifts and ANDs, without looking at days, zones or dates.
+ * With a zone whose offset is not a whole number of hours, an hour counts as working if it starts within a
+ * working hour of the Person's zone, e.g. 09:30 for 09:00-17:00 in a +05:30 zone.
+ */
+public class WorkingHours {
+
+    private final ZoneId zone;
+    private final List<Scheduler.MeetingDays> days;
+    private final int fromHour;
+    private final int toHour;
+    private final List<LocalDateTime> blackoutStarts;   // in the Person's zone, parallel to blackoutEnds
+    private final List<LocalDateTime> blackoutEnds;
+
+    /**
+     * @param zone     ZoneId of the Person's time zone
+     * @param days     List<MeetingDays> of working days
+     * @param fromHour int hour of the day work starts at (0-23)
+     * @param toHour   int hour of the day work ends at (exclusive, 1-24), after fromHour
+     */
+    public WorkingHours(ZoneId zone, List<Scheduler.MeetingDays> days, int fromHour, int toHour) {
+        this(zone, days, fromHour, toHour, List.of(), List.of());
+    }
+
+    private WorkingHours(ZoneId zone, List<Scheduler.MeetingDays> days, int fromHour, int toHour,
+                         List<LocalDateTime> blackoutStarts, List<LocalDateTime> blackoutEnds) {
+        if (zone == null || days == null || days.isEmpty()) {
+            throw new InvalidParameterException("ZoneId must be not-null, and days not-null and not-empty");
+        }
+        for (Scheduler.MeetingDays day : days) {
+            if (day == null) {
+                throw new InvalidParameterException("days must not contain null");
+            }
+        }
+        if (fromHour < 0 || toHour > TimeSlots.HOURS_PER_DAY || fromHour >= toHour) {
+            throw new InvalidParameterException("Working hours must be within 0-24 and end after they start, was: "
+                    + fromHour + "-" + toHour);
+        }
+        this.zone = zone;
+        this.days = List.copyOf(days);
+        this.fromHour = fromHour;
+        this.toHour = toHour;
+        this.blackoutStarts = blackoutStarts;
+        this.blackoutEnds = blackoutEnds;
+    }
+
+    /**
+     * @param from LocalDateTime start of the blackout in the Person's zone (inclusive)
+     * @param to   LocalDateTime end of the blackout in the Person's zone (exclusive), after from
+     * @return new WorkingHours without any working hours between from and to
+     */
+    public WorkingHours withBlackout(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new InvalidParameterException("Blackout must be not-null and end after it starts");
+        }
+        ArrayList<LocalDateTime> starts = new ArrayList<>(blackoutStarts);
+        ArrayList<LocalDateTime> ends = new ArrayList<>(blackoutEnds);
+        starts.add(from);
+        ends.add(to);
+        return new WorkingHours(zone, days, fromHour, toHour, List.copyOf(starts), List.copyOf(ends));
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public List<Scheduler.MeetingDays> getDays() {
+        return days;
+    }
+
+    public int getFromHour() {
+        return fromHour;
+    }
+
+    public int getToHour() {
+        return toHour;
+    }
+
+    /**
+     * @return int amount of blackout periods
+     */
+    public int getBlackoutCount() {
+        return blackoutStarts.size();
+    }
+
+    /**
+     * @param schedulerZone ZoneId of the wall-clock time of the Scheduler's timeslots
+     * @return new Mask of the working hours, as epoch hours of the Scheduler's timeslots
+     */
+    Mask compile(ZoneId schedulerZone) {
+        int[] hours = new int[toHour - fromHour];
+        for (int i = 0; i < hours.length; i++) {
+            hours[i] = fromHour + i;
+        }
+        // Blackouts as sorted, merged ranges of the Scheduler's epoch hours, covering every hour they touch
+        int count = blackoutStarts.size();
+        long[][] ranges = new long[count][];
+        for (int i = 0; i < count; i++) {
+            ranges[i] = new long[]{
+                    TimeSlots.toEpochHour(convert(blackoutStarts.get(i), schedulerZone)),
+                    TimeSlots.ceilEpochHour(convert(blackoutEnds.get(i), schedulerZone))};
+        }
+        Arrays.sort(ranges, (a, b) -> Long.compare(a[0], b[0]));
+        long[] starts = new long[count];
+        long[] ends = new long[count];
+        int merged = 0;
+        for (long[] range : ranges) {
+            if (merged > 0 && range[0] <= ends[merged - 1]) {
+                ends[merged - 1] = Math.max(ends[merged - 1], range[1]);
+            } else {
+                starts[merged] = range[0];
+                ends[merged++] = range[1];
+            }
+        }
+        return new Mask(this, WeeklyMask.of(days, hours), schedulerZone.getRules(), zone.getRules(),
+                Arrays.copyOf(starts, merged), Arrays.copyOf(ends, merged));
+    }
+
+    private LocalDateTime convert(LocalDateTime local, ZoneId schedulerZone) {
+        return local.atZone(zone).withZoneSameInstant(schedulerZone).toLocalDateTime();
+    }
+
+    /**
+     * WorkingHours compiled for the epoch hours of a Scheduler's timeslots, see compile().
+     */
+    static final class Mask {
+        private final WorkingHours workingHours;
+        private final WeeklyMask week;          // working hours in the Person's own wall-clock time
+        private final ZoneRules schedulerRules;
+        private final ZoneRules personRules;
+        private final boolean fixed;            // neither zone changes offset, so the shift is constant
+        private final int fixedShift;
+        private final long[] blackoutStarts;    // sorted epoch hours, merged so ends are sorted too
+        private final long[] blackoutEnds;      // (exclusive)
+
+        private Mask(WorkingHours workingHours, WeeklyMask week, ZoneRules schedulerRules, ZoneRules personRules,
+                     long[] blackoutStarts, long[] blackoutEnds) {
+            this.workingHours = workingHours;
+            this.week = week;
+            this.schedulerRules = schedulerRules;
+            this.personRules = personRules;
+            this.fixed = schedulerRules.isFixedOffset() && personRules.isFixedOffset();
+            this.fixedShift = fixed ? shiftAt(0L) : 0;
+            this.blackoutStarts = blackoutStarts;
+            this.blackoutEnds = blackoutEnds;
+        }
+
+        WorkingHours getWorkingHours() {
+            return workingHours;
+        }
+
+        /**
+         * Working bits of 64 consecutive hours, bit i denoting epoch hour (wordIndex * 64 + i).
+         * @param wordIndex long index of word, i.e. epoch hour divided by 64
+         * @return long with a set bit for each working hour outside blackouts
+         */
+        long word(long wordIndex) {
+            long start = wordIndex << AvailabilityCalendar.WORD_BITS;
+            long working;
+            int shift = shift(start);
+            if (fixed || shift == shift(start + Long.SIZE - 1)) {
+                working = week.wordAt(start + shift);
+            } else {
+                // A zone changes offset within these hours, e.g. for daylight saving time
+                working = 0L;
+                for (int i = 0; i < Long.SIZE; i++) {
+                    if (week.contains(start + i + shift(start + i))) working |= 1L << i;
+                }
+            }
+            return working & ~blackoutWord(start);
+        }
+
+        /**
+         * @return int hours to add to an epoch hour of the Scheduler's zone to get the Person's wall-clock hour
+         */
+        private int shift(long epochHour) {
+            return fixed ? fixedShift : shiftAt(epochHour);
+        }
+
+        private int shiftAt(long epochHour) {
+            LocalDateTime local = TimeSlots.fromEpochHour(epochHour);
+            ZoneOffset schedulerOffset = schedulerRules.getOffset(local);
+            ZoneOffset personOffset = personRules.getOffset(Instant.ofEpochSecond(local.toEpochSecond(schedulerOffset)));
+            return Math.floorDiv(personOffset.getTotalSeconds() - schedulerOffset.getTotalSeconds(), 3600);
+        }
+
+        private long blackoutWord(long start) {
+            if (blackoutEnds.length == 0) return 0L;
+            long end = start + Long.SIZE;
+            // First blackout ending after the word starts
+            int i = Arrays.binarySearch(blackoutEnds, start + 1);
+            if (i < 0) i = -i - 1;
+            long blackout = 0L;
+            for (; i < blackoutStarts.length && blackoutStarts[i] < end; i++) {
+                long from = Math.max(blackoutStarts[i], start) - start;
+                long to = Math.min(blackoutEnds[i], end) - start;
+                blackout |= (to == Long.SIZE ? -1L : (1L << to) - 1) & (-1L << from);
+            }
+            return blackout;
+        }
+    }
+}